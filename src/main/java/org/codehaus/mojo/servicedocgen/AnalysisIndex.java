@@ -0,0 +1,508 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.mojo.servicedocgen.descriptor.ServiceDescriptor;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * {@link AnalysisIndex} persists the {@link ServiceDescriptor} of each analyzed service so an incremental build only
+ * has to analyze the services that changed since the previous build. Each service is fingerprinted by a hash of the
+ * configuration, its class file, its source file and the class files of all types it depends on (its super-types, all
+ * types reachable from the parameters, return types and exceptions of its operations and the classes of constants
+ * referenced by <code>{@literal {@value}}</code> tags). The dependencies are recorded with the entry so the
+ * fingerprint can be verified before the service is analyzed again. The source files of the dependencies are not
+ * fingerprinted - e.g. a constant that has no class file and is therefore resolved from its source is only updated
+ * after a clean build.<br>
+ * Only the values of the descriptors are persisted - the introspection objects (e.g.
+ * {@link ServiceDescriptor#getJavaType() java type}) have to be reattached by the {@link Analyzer}. When restored,
+ * only the descriptor classes and the plain JDK value and collection types they use are accepted.
+ * After {@link #load() loading}, {@link #get(Class, JavaClass)} and
+ * {@link #put(Class, JavaClass, ServiceDescriptor, List, Collection)} may be invoked concurrently.
+ *
+ * @see Analyzer#setAnalysisIndex(AnalysisIndex)
+ * @author hohwille
+ */
+public class AnalysisIndex
+{
+
+    private static final String HEADER = "#servicedocgen-analysis-index:1:";
+
+    private static final String HASH_ALGORITHM = "MD5";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final String DESCRIPTOR_PACKAGE = ServiceDescriptor.class.getPackage().getName() + ".";
+
+    /** The JDK classes that may occur in a persisted {@link ServiceDescriptor}. */
+    private static final Set<String> SERIALIZABLE_JDK_CLASSES =
+        new HashSet<String>( Arrays.asList( "java.lang.String", "java.lang.Enum", "java.lang.Number",
+                                            "java.lang.Boolean", "java.lang.Character", "java.lang.Byte",
+                                            "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+                                            "java.lang.Float", "java.lang.Double", "java.util.ArrayList",
+                                            "java.util.LinkedList", "java.util.Arrays$ArrayList", "java.util.HashSet",
+                                            "java.util.LinkedHashSet", "java.util.HashMap",
+                                            "java.util.LinkedHashMap", "java.util.Collections$EmptyList",
+                                            "java.util.Collections$EmptySet", "java.util.Collections$EmptyMap",
+                                            "java.util.Collections$SingletonList",
+                                            "java.util.Collections$SingletonSet",
+                                            "java.util.Collections$UnmodifiableCollection",
+                                            "java.util.Collections$UnmodifiableList",
+                                            "java.util.Collections$UnmodifiableRandomAccessList",
+                                            "java.util.Collections$UnmodifiableSet",
+                                            "java.util.Collections$UnmodifiableMap" ) );
+
+    private final File file;
+
+    private final String key;
+
+    private final ClassLoader classloader;
+
+    private final Map<String, Entry> loadedEntries;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * The constructor.
+     *
+     * @param file the index {@link File}.
+     * @param key the key of the configuration the analysis depends on. If it differs from the key of the persisted
+     *            index, the persisted index is discarded.
+     * @param classloader the {@link ClassLoader} of the project used to read the class files.
+     */
+    public AnalysisIndex( File file, String key, ClassLoader classloader )
+    {
+        super();
+        this.file = file;
+        this.key = hash( key );
+        this.classloader = classloader;
+        this.loadedEntries = new HashMap<String, Entry>();
+        this.entries = new LinkedHashMap<String, Entry>();
+    }
+
+    /**
+     * @return the index {@link File}.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Loads the persisted index (if present and created for the same configuration).
+     *
+     * @throws IOException on I/O error.
+     */
+    public void load()
+        throws IOException
+    {
+        this.loadedEntries.clear();
+        if ( !this.file.isFile() )
+        {
+            return;
+        }
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( this.file ) ) );
+        try
+        {
+            if ( !( HEADER + this.key ).equals( in.readUTF() ) )
+            {
+                return;
+            }
+            int count = in.readInt();
+            for ( int i = 0; i < count; i++ )
+            {
+                Entry entry = Entry.read( in );
+                this.loadedEntries.put( entry.serviceName, entry );
+            }
+        }
+        catch ( EOFException e )
+        {
+            // corrupt index
+            this.loadedEntries.clear();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * @param serviceClass the {@link Class} of the service.
+     * @param sourceType the {@link JavaClass} of the service.
+     * @return the {@link Entry} for the given service as recorded by the persisted index or <code>null</code> if the
+     *         service is not indexed or the service or any of its dependencies changed since.
+     * @throws IOException on I/O error.
+     */
+    public Entry get( Class<?> serviceClass, JavaClass sourceType )
+        throws IOException
+    {
+        String serviceName = serviceClass.getName();
+        Entry entry = this.loadedEntries.get( serviceName );
+        if ( entry == null )
+        {
+            return null;
+        }
+        if ( !entry.fingerprint.equals( fingerprint( serviceName, sourceType, entry.dependencies ) ) )
+        {
+            return null;
+        }
+        synchronized ( this.entries )
+        {
+            this.entries.put( serviceName, entry );
+        }
+        return entry;
+    }
+
+    /**
+     * Records the result of the analysis of the given service. The {@link ServiceDescriptor} is serialized immediately
+     * so later modifications are not recorded.
+     *
+     * @param serviceClass the {@link Class} of the service.
+     * @param sourceType the {@link JavaClass} of the service.
+     * @param serviceDescriptor the analyzed {@link ServiceDescriptor}.
+     * @param operationMethods the {@link List} with the signature of the {@link java.lang.reflect.Method} for each
+     *            {@link ServiceDescriptor#getOperations() operation} in the same order.
+     * @param dependencies the qualified names of the classes the service depends on.
+     * @throws IOException on I/O error.
+     */
+    public void put( Class<?> serviceClass, JavaClass sourceType, ServiceDescriptor serviceDescriptor,
+                     List<String> operationMethods, Collection<String> dependencies )
+        throws IOException
+    {
+        String serviceName = serviceClass.getName();
+        List<String> dependencyList = new ArrayList<String>( dependencies );
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream( buffer );
+        out.writeObject( serviceDescriptor );
+        out.close();
+        Entry entry =
+            new Entry( serviceName, fingerprint( serviceName, sourceType, dependencyList ), operationMethods,
+                       dependencyList, buffer.toByteArray() );
+        synchronized ( this.entries )
+        {
+            this.entries.put( serviceName, entry );
+        }
+    }
+
+    /**
+     * Persists all entries {@link #put(Class, JavaClass, ServiceDescriptor, List, Collection) recorded} or
+     * {@link #get(Class, JavaClass) reused} since the index was {@link #load() loaded}. Entries of services not
+     * visited (e.g. deleted services) are dropped.
+     *
+     * @throws IOException on I/O error.
+     */
+    public void save()
+        throws IOException
+    {
+        File parent = this.file.getParentFile();
+        if ( ( parent != null ) && !parent.isDirectory() && !parent.mkdirs() )
+        {
+            throw new IOException( "Could not create directory " + parent );
+        }
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( this.file ) ) );
+        try
+        {
+            out.writeUTF( HEADER + this.key );
+            out.writeInt( this.entries.size() );
+            for ( Entry entry : this.entries.values() )
+            {
+                entry.write( out );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private String fingerprint( String serviceName, JavaClass sourceType, List<String> dependencies )
+        throws IOException
+    {
+        MessageDigest digest = createDigest();
+        digest.update( this.key.getBytes( ENCODING ) );
+        update( digest, this.classloader.getResourceAsStream( getClassFilePath( serviceName ) ) );
+        JavaSource source = sourceType.getSource();
+        URL url = null;
+        if ( source != null )
+        {
+            url = source.getURL();
+        }
+        if ( url != null )
+        {
+            update( digest, url.openStream() );
+        }
+        for ( String dependency : dependencies )
+        {
+            digest.update( dependency.getBytes( ENCODING ) );
+            update( digest, this.classloader.getResourceAsStream( getClassFilePath( dependency ) ) );
+        }
+        return toHex( digest.digest() );
+    }
+
+    /**
+     * @param className the {@link Class#getName() name} of a class to deserialize.
+     * @return <code>true</code> if the given class may occur in a persisted {@link ServiceDescriptor},
+     *         <code>false</code> otherwise.
+     */
+    static boolean isSerializable( String className )
+    {
+        String name = className;
+        if ( name.startsWith( "[" ) )
+        {
+            // arrays of primitives or of an accepted class
+            name = name.replaceFirst( "^\\[+", "" );
+            if ( name.length() == 1 )
+            {
+                return true;
+            }
+            if ( !name.startsWith( "L" ) || !name.endsWith( ";" ) )
+            {
+                return false;
+            }
+            name = name.substring( 1, name.length() - 1 );
+        }
+        if ( name.startsWith( DESCRIPTOR_PACKAGE ) )
+        {
+            return ( name.indexOf( '.', DESCRIPTOR_PACKAGE.length() ) < 0 );
+        }
+        return SERIALIZABLE_JDK_CLASSES.contains( name );
+    }
+
+    private static String getClassFilePath( String className )
+    {
+        return className.replace( '.', '/' ) + CLASS_FILE_EXTENSION;
+    }
+
+    private static void update( MessageDigest digest, InputStream in )
+        throws IOException
+    {
+        if ( in == null )
+        {
+            // missing class file (e.g. deleted) is also a change
+            digest.update( (byte) 0 );
+            return;
+        }
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int count = in.read( buffer );
+            while ( count >= 0 )
+            {
+                digest.update( buffer, 0, count );
+                count = in.read( buffer );
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static String hash( String value )
+    {
+        MessageDigest digest = createDigest();
+        try
+        {
+            return toHex( digest.digest( value.getBytes( ENCODING ) ) );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( HASH_ALGORITHM );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( byte b : bytes )
+        {
+            sb.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            sb.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * An entry of the index for a single service.
+     */
+    public static class Entry
+    {
+
+        private final String serviceName;
+
+        private final String fingerprint;
+
+        private final List<String> operationMethods;
+
+        private final List<String> dependencies;
+
+        private final byte[] serviceDescriptor;
+
+        private Entry( String serviceName, String fingerprint, List<String> operationMethods,
+                       List<String> dependencies, byte[] serviceDescriptor )
+        {
+            super();
+            this.serviceName = serviceName;
+            this.fingerprint = fingerprint;
+            this.operationMethods = operationMethods;
+            this.dependencies = dependencies;
+            this.serviceDescriptor = serviceDescriptor;
+        }
+
+        /**
+         * @return a new instance of the persisted {@link ServiceDescriptor} without introspection objects.
+         * @throws IOException if the {@link ServiceDescriptor} could not be deserialized (e.g. because it was
+         *             persisted by an incompatible version or contains a class that is not
+         *             {@link AnalysisIndex#isSerializable(String) accepted}).
+         */
+        public ServiceDescriptor getServiceDescriptor()
+            throws IOException
+        {
+            ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( this.serviceDescriptor ) )
+            {
+                @Override
+                protected Class<?> resolveClass( ObjectStreamClass desc )
+                    throws IOException, ClassNotFoundException
+                {
+                    String className = desc.getName();
+                    if ( !isSerializable( className ) )
+                    {
+                        throw new InvalidClassException( className, "Not accepted in an analysis index" );
+                    }
+                    return Class.forName( className, false, AnalysisIndex.class.getClassLoader() );
+                }
+            };
+            try
+            {
+                return (ServiceDescriptor) in.readObject();
+            }
+            catch ( ClassNotFoundException e )
+            {
+                throw new IOException( "Incompatible analysis index entry for " + this.serviceName, e );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+
+        /**
+         * @return the {@link List} with the signature of the {@link java.lang.reflect.Method} for each
+         *         {@link ServiceDescriptor#getOperations() operation} of the {@link #getServiceDescriptor() service}
+         *         in the same order.
+         */
+        public List<String> getOperationMethods()
+        {
+            return this.operationMethods;
+        }
+
+        private static Entry read( DataInputStream in )
+            throws IOException
+        {
+            String serviceName = in.readUTF();
+            String fingerprint = in.readUTF();
+            List<String> operationMethods = readList( in );
+            List<String> dependencies = readList( in );
+            byte[] serviceDescriptor = new byte[in.readInt()];
+            in.readFully( serviceDescriptor );
+            return new Entry( serviceName, fingerprint, operationMethods, dependencies, serviceDescriptor );
+        }
+
+        private static List<String> readList( DataInputStream in )
+            throws IOException
+        {
+            int size = in.readInt();
+            List<String> list = new ArrayList<String>( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                list.add( in.readUTF() );
+            }
+            return list;
+        }
+
+        private void write( DataOutputStream out )
+            throws IOException
+        {
+            out.writeUTF( this.serviceName );
+            out.writeUTF( this.fingerprint );
+            writeList( out, this.operationMethods );
+            writeList( out, this.dependencies );
+            out.writeInt( this.serviceDescriptor.length );
+            out.write( this.serviceDescriptor );
+        }
+
+        private static void writeList( DataOutputStream out, List<String> list )
+            throws IOException
+        {
+            out.writeInt( list.size() );
+            for ( String value : list )
+            {
+                out.writeUTF( value );
+            }
+        }
+
+    }
+
+}
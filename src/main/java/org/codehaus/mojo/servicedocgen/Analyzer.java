@@ -18,6 +18,7 @@
  */
 package org.codehaus.mojo.servicedocgen;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -25,7 +26,6 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -34,7 +34,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
@@ -55,17 +61,12 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.UriInfo;
 
-import net.sf.mmm.util.exception.api.IllegalCaseException;
 import net.sf.mmm.util.lang.api.Datatype;
 import net.sf.mmm.util.lang.api.SimpleDatatype;
 import net.sf.mmm.util.math.api.NumberType;
 import net.sf.mmm.util.math.base.MathUtilImpl;
-import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptor;
 import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptorBuilder;
 import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptorBuilderFactory;
-import net.sf.mmm.util.pojo.descriptor.api.PojoPropertyDescriptor;
-import net.sf.mmm.util.pojo.descriptor.api.accessor.PojoPropertyAccessorNonArg;
-import net.sf.mmm.util.pojo.descriptor.api.accessor.PojoPropertyAccessorNonArgMode;
 import net.sf.mmm.util.pojo.descriptor.impl.PojoDescriptorBuilderFactoryImpl;
 import net.sf.mmm.util.reflect.api.AnnotationUtil;
 import net.sf.mmm.util.reflect.api.GenericType;
@@ -79,6 +80,8 @@ import org.apache.maven.model.Organization;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFile;
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFileCache;
 import org.codehaus.mojo.servicedocgen.descriptor.ContactDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.Descriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ErrorDescriptor;
@@ -97,9 +100,13 @@ import org.codehaus.mojo.servicedocgen.introspection.JParameter;
 import org.codehaus.mojo.servicedocgen.introspection.JReturn;
 import org.codehaus.mojo.servicedocgen.introspection.JType;
 import org.codehaus.mojo.servicedocgen.introspection.JavaDocHelper;
+import org.codehaus.mojo.servicedocgen.introspection.PropertyNode;
+import org.codehaus.mojo.servicedocgen.introspection.TypeGraph;
 
 import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
 
 /**
  * {@link Analyzer} contains the logic to analyze the services on byte-code and source-code level and create the
@@ -119,6 +126,8 @@ public class Analyzer
     /** {@link ResponseDescriptor#getDescription() Description} for void results. */
     public static final String DESCRIPTION_VOID = "No content";
 
+    private static final String PATH_DESCRIPTOR = ClassFile.getDescriptor( Path.class );
+
     private final ClassLoader projectClassloader;
 
     private final ReflectionUtil reflectionUtil;
@@ -127,6 +136,8 @@ public class Analyzer
 
     private final PojoDescriptorBuilder pojoDescriptorBuilder;
 
+    private final TypeGraph typeGraph;
+
     private final PojoDescriptorBuilderFactory pojoDescriptorBuilderFactory;
 
     private final JavaDocHelper javaDocHelper;
@@ -141,6 +152,24 @@ public class Analyzer
 
     private Map<String, JElement> schemas = new HashMap<String, JElement>();
 
+    private final Map<ErrorDescriptor, Class<?>> errorClasses = new HashMap<ErrorDescriptor, Class<?>>();
+
+    private final ErrorIndex errorIndex;
+
+    private AnalysisIndex analysisIndex;
+
+    private final ClassFileCache classFileCache;
+
+    private final JavaScriptTypeCache javaScriptTypeCache;
+
+    private final ExampleCache exampleCache;
+
+    private int threads;
+
+    private boolean schemaJson;
+
+    private boolean schemaYaml;
+
     /**
      * The constructor.
      *
@@ -158,6 +187,12 @@ public class Analyzer
         this.log = log;
         this.project = project;
         this.projectClassloader = projectClassloader;
+        this.classFileCache = new ClassFileCache( projectClassloader );
+        this.javaScriptTypeCache = new JavaScriptTypeCache();
+        this.exampleCache = new ExampleCache();
+        this.threads = 1;
+        this.schemaJson = true;
+        this.schemaYaml = true;
         this.reflectionUtil = ReflectionUtilImpl.getInstance();
         this.annotationUtil = AnnotationUtilImpl.getInstance();
         this.builder = builder;
@@ -166,15 +201,20 @@ public class Analyzer
         }
         this.descriptor = descriptor;
         this.pojoDescriptorBuilderFactory = PojoDescriptorBuilderFactoryImpl.getInstance();
+        PojoDescriptorBuilder fieldDescriptorBuilder = this.pojoDescriptorBuilderFactory.createPrivateFieldDescriptorBuilder();
         if ( introspectFields )
         {
-            this.pojoDescriptorBuilder = this.pojoDescriptorBuilderFactory.createPrivateFieldDescriptorBuilder();
+            this.pojoDescriptorBuilder = fieldDescriptorBuilder;
         }
         else
         {
             this.pojoDescriptorBuilder = this.pojoDescriptorBuilderFactory.createPublicMethodDescriptorBuilder();
         }
-        this.javaDocHelper = new JavaDocHelper( this.projectClassloader, this.builder, this.descriptor.getJavadocs() );
+        // examples use the configured introspection while schemas always use fields
+        this.typeGraph = new TypeGraph( this.pojoDescriptorBuilder, fieldDescriptorBuilder );
+        this.javaDocHelper =
+            new JavaDocHelper( this.projectClassloader, this.builder, this.descriptor.getJavadocs(),
+                               this.classFileCache );
         if ( descriptor != null )
         {
             boolean hasFallback = false;
@@ -193,7 +233,8 @@ public class Analyzer
                         log.warn( "Failed to load error class '" + errorName + "':" + e.getMessage(), e );
                         errorClass = UnknownError.class;
                     }
-                    errorDescriptor.setErrorClass( errorClass );
+                    // kept per analyzer as the same descriptor may be shared by analyzers with different classloaders
+                    this.errorClasses.put( errorDescriptor, errorClass );
                 }
                 else if ( errorDescriptor.getMatch() == Match.regex )
                 {
@@ -211,6 +252,7 @@ public class Analyzer
                 descriptor.getErrors().add( errorDescriptor );
             }
         }
+        this.errorIndex = new ErrorIndex( descriptor.getErrors(), this.errorClasses, this.reflectionUtil );
     }
 
     protected Log getLog()
@@ -219,6 +261,75 @@ public class Analyzer
         return this.log;
     }
 
+    /**
+     * @return the {@link AnalysisIndex} used to restore unchanged services instead of analyzing them again or
+     *         <code>null</code> to analyze all services.
+     */
+    public AnalysisIndex getAnalysisIndex()
+    {
+        return this.analysisIndex;
+    }
+
+    /**
+     * @param analysisIndex is the new value of {@link #getAnalysisIndex()}.
+     */
+    public void setAnalysisIndex( AnalysisIndex analysisIndex )
+    {
+        this.analysisIndex = analysisIndex;
+    }
+
+    /**
+     * @return the number of threads used to analyze the services.
+     */
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * @param threads is the new value of {@link #getThreads()}. A value greater than <code>1</code> analyzes the
+     *            services concurrently. The result is the same as the results are merged in the order of the services.
+     *            Access to the source-code model is still serialized as it is not thread-safe.
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * @return <code>true</code> if the {@link ServicesDescriptor#getSchemaDefinitionJson() JSON schema definitions} are
+     *         created, <code>false</code> otherwise.
+     */
+    public boolean isSchemaJson()
+    {
+        return this.schemaJson;
+    }
+
+    /**
+     * @param schemaJson is the new value of {@link #isSchemaJson()}.
+     */
+    public void setSchemaJson( boolean schemaJson )
+    {
+        this.schemaJson = schemaJson;
+    }
+
+    /**
+     * @return <code>true</code> if the {@link ServicesDescriptor#getSchemaDefinitionYaml() YAML schema definitions} are
+     *         created, <code>false</code> otherwise.
+     */
+    public boolean isSchemaYaml()
+    {
+        return this.schemaYaml;
+    }
+
+    /**
+     * @param schemaYaml is the new value of {@link #isSchemaYaml()}.
+     */
+    public void setSchemaYaml( boolean schemaYaml )
+    {
+        this.schemaYaml = schemaYaml;
+    }
+
     /**
      * Does the actualy analysis.
      *
@@ -228,6 +339,195 @@ public class Analyzer
      */
     public ServicesDescriptor createServicesDescriptor( List<JavaClass> serviceClasses )
         throws Exception
+    {
+        return completeServicesDescriptor( createServiceDescriptors( serviceClasses ) );
+    }
+
+    /**
+     * Analyzes the given services without creating the {@link ServicesDescriptor}. This allows to analyze the
+     * services of multiple projects with different {@link Analyzer}s and merge the results.
+     *
+     * @param serviceClasses the {@link List} of service classes.
+     * @return the {@link List} with the {@link ServiceDescriptor} for each service.
+     * @throws Exception if something goes wrong.
+     * @see #addSchemas(Analyzer)
+     * @see #completeServicesDescriptor(List)
+     */
+    public List<ServiceDescriptor> createServiceDescriptors( List<JavaClass> serviceClasses )
+        throws Exception
+    {
+        if ( this.analysisIndex != null )
+        {
+            loadAnalysisIndex();
+        }
+        AtomicInteger restored = new AtomicInteger();
+        List<Map<String, JElement>> serviceSchemas = new ArrayList<Map<String, JElement>>( serviceClasses.size() );
+        List<ServiceDescriptor> services;
+        if ( ( this.threads > 1 ) && ( serviceClasses.size() > 1 ) )
+        {
+            services = analyzeConcurrently( serviceClasses, serviceSchemas, restored );
+        }
+        else
+        {
+            services = new ArrayList<ServiceDescriptor>( serviceClasses.size() );
+            for ( JavaClass type : serviceClasses )
+            {
+                Map<String, JElement> schemaMap = new HashMap<String, JElement>();
+                serviceSchemas.add( schemaMap );
+                services.add( analyzeService( type, schemaMap, restored ) );
+            }
+        }
+        // merge in the order of the services so the result is identical to sequential analysis
+        for ( Map<String, JElement> schemaMap : serviceSchemas )
+        {
+            this.schemas.putAll( schemaMap );
+        }
+        if ( this.analysisIndex != null )
+        {
+            getLog().info( "Restored " + restored.get() + " unchanged of " + services.size() + " service(s) from "
+                               + this.analysisIndex.getFile() );
+            saveAnalysisIndex();
+        }
+        return services;
+    }
+
+    private List<ServiceDescriptor> analyzeConcurrently( List<JavaClass> serviceClasses,
+                                                         List<Map<String, JElement>> serviceSchemas,
+                                                         final AtomicInteger restored )
+        throws Exception
+    {
+        List<ServiceDescriptor> services = new ArrayList<ServiceDescriptor>( serviceClasses.size() );
+        ExecutorService executor = Executors.newFixedThreadPool( this.threads );
+        try
+        {
+            List<Future<ServiceDescriptor>> futures = new ArrayList<Future<ServiceDescriptor>>( serviceClasses.size() );
+            for ( final JavaClass type : serviceClasses )
+            {
+                final Map<String, JElement> schemaMap = new HashMap<String, JElement>();
+                serviceSchemas.add( schemaMap );
+                futures.add( executor.submit( new Callable<ServiceDescriptor>()
+                {
+                    @Override
+                    public ServiceDescriptor call()
+                        throws Exception
+                    {
+                        return analyzeService( type, schemaMap, restored );
+                    }
+                } ) );
+            }
+            for ( Future<ServiceDescriptor> future : futures )
+            {
+                try
+                {
+                    services.add( future.get() );
+                }
+                catch ( ExecutionException e )
+                {
+                    Throwable cause = e.getCause();
+                    if ( cause instanceof Exception )
+                    {
+                        throw (Exception) cause;
+                    }
+                    else if ( cause instanceof Error )
+                    {
+                        throw (Error) cause;
+                    }
+                    throw e;
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return services;
+    }
+
+    /**
+     * Analyzes a single service or restores it from the {@link #getAnalysisIndex() analysis index}. This method may be
+     * invoked concurrently for different services.
+     *
+     * @param sourceType the {@link JavaClass} of the service.
+     * @param serviceSchemas the {@link Map} where to collect the schemas used by the service.
+     * @param restored the number of services restored from the {@link #getAnalysisIndex() analysis index}.
+     * @return the {@link ServiceDescriptor}.
+     * @throws Exception if something goes wrong.
+     */
+    private ServiceDescriptor analyzeService( JavaClass sourceType, Map<String, JElement> serviceSchemas,
+                                              AtomicInteger restored )
+        throws Exception
+    {
+        ServiceDescriptor serviceDescriptor = null;
+        if ( this.analysisIndex != null )
+        {
+            serviceDescriptor = restoreServiceDescriptor( sourceType, serviceSchemas );
+        }
+        if ( serviceDescriptor == null )
+        {
+            serviceSchemas.clear();
+            serviceDescriptor = createServiceDescriptor( sourceType, serviceSchemas );
+            if ( this.analysisIndex != null )
+            {
+                indexServiceDescriptor( sourceType, serviceDescriptor );
+            }
+        }
+        else
+        {
+            restored.incrementAndGet();
+        }
+        return serviceDescriptor;
+    }
+
+    private void loadAnalysisIndex()
+    {
+        try
+        {
+            this.analysisIndex.load();
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Could not read analysis index " + this.analysisIndex.getFile()
+                               + " - analyzing all services.", e );
+        }
+    }
+
+    private void saveAnalysisIndex()
+    {
+        try
+        {
+            this.analysisIndex.save();
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Could not write analysis index " + this.analysisIndex.getFile(), e );
+        }
+    }
+
+    /**
+     * Adds the schemas (the types used by the services) collected by the given {@link Analyzer} to this
+     * {@link Analyzer}. Schemas already present are kept.
+     *
+     * @param analyzer the {@link Analyzer} that {@link #createServiceDescriptors(List) analyzed} services.
+     */
+    public void addSchemas( Analyzer analyzer )
+    {
+        for ( Entry<String, JElement> entry : analyzer.schemas.entrySet() )
+        {
+            if ( !this.schemas.containsKey( entry.getKey() ) )
+            {
+                this.schemas.put( entry.getKey(), entry.getValue() );
+            }
+        }
+    }
+
+    /**
+     * Creates the {@link ServicesDescriptor} for the given services including the schemas collected by this
+     * {@link Analyzer}.
+     *
+     * @param services the {@link List} of {@link #createServiceDescriptors(List) analyzed services}.
+     * @return the {@link ServicesDescriptor}.
+     */
+    public ServicesDescriptor completeServicesDescriptor( List<ServiceDescriptor> services )
     {
         if ( this.descriptor == null )
         {
@@ -245,62 +545,402 @@ public class Analyzer
         {
             descriptorSchemes.add( Descriptor.SCHEME_HTTPS );
         }
-        for ( JavaClass type : serviceClasses )
+        this.descriptor.getServices().addAll( services );
+
+        SchemaWriter schemaWriter = new SchemaWriter( this.typeGraph, this.schemaJson, this.schemaYaml );
+        schemaWriter.write( this.schemas.values() );
+        this.descriptor.setSchemaDefinitionJson( schemaWriter.getJson() );
+        this.descriptor.setSchemaDefinitionYaml( schemaWriter.getYaml() );
+        for ( ServiceDescriptor service : services )
         {
-            ServiceDescriptor service = createServiceDescriptor( type );
-            this.descriptor.getServices().add( service );
+            for ( OperationDescriptor operation : service.getOperations() )
+            {
+                for ( ParameterDescriptor parameter : operation.getParameters() )
+                {
+                    parameter.setSchemaName( schemaWriter.getSchemaName( parameter.getJavaParameter() ) );
+                }
+                for ( ResponseDescriptor response : operation.getResponses() )
+                {
+                    response.setSchemaName( schemaWriter.getSchemaName( response.getJavaElement() ) );
+                }
+            }
         }
-
-        String schemaJson = getSchemaAsString("json");
-        String schemaYaml = getSchemaAsString("yaml");
-        this.descriptor.setSchemaDefinitionJson(schemaJson);
-        this.descriptor.setSchemaDefinitionYaml(schemaYaml);
         return this.descriptor;
     }
 
-    protected ServiceDescriptor createServiceDescriptor( JavaClass sourceType )
-        throws Exception
+    private Class<?> loadServiceClass( JavaClass sourceType )
+        throws MavenReportException
     {
-        getLog().info( "Analyzing " + sourceType.getName() );
-        ServiceDescriptor serviceDescriptor = new ServiceDescriptor();
-        serviceDescriptor.setName( sourceType.getName() );
-        Class<?> byteClass;
         try
         {
-            byteClass = this.projectClassloader.loadClass( sourceType.getFullyQualifiedName() );
+            return this.projectClassloader.loadClass( sourceType.getFullyQualifiedName() );
         }
         catch ( ClassNotFoundException e )
         {
             throw new MavenReportException( "Failed to load class " + sourceType.getName()
                 + " - did you forget to invoke compile (e.g. mvn verify site)?", e );
         }
+    }
+
+    /**
+     * @param sourceType the {@link JavaClass} of the service.
+     * @param serviceSchemas the {@link Map} where to collect the schemas used by the service.
+     * @return the analyzed {@link ServiceDescriptor}.
+     * @throws Exception if something goes wrong.
+     */
+    protected ServiceDescriptor createServiceDescriptor( JavaClass sourceType, Map<String, JElement> serviceSchemas )
+        throws Exception
+    {
+        getLog().info( "Analyzing " + sourceType.getName() );
+        ServiceDescriptor serviceDescriptor = new ServiceDescriptor();
+        serviceDescriptor.setName( sourceType.getName() );
+        Class<?> byteClass = loadServiceClass( sourceType );
         Path serviceBasePath = byteClass.getAnnotation( Path.class );
         if ( serviceBasePath != null )
         {
             serviceDescriptor.setBasePath( serviceBasePath.value() );
         }
         GenericType<?> byteType = this.reflectionUtil.createGenericType( byteClass );
-        serviceDescriptor.setJavaType( new JType( byteType, sourceType, this.reflectionUtil, this.javaDocHelper ) );
-        serviceDescriptor.setDescription( this.javaDocHelper.parseJavaDoc( sourceType, byteType,
-                                                                           sourceType.getComment() ) );
+        synchronized ( this.builder )
+        {
+            serviceDescriptor.setJavaType( new JType( byteType, sourceType, this.reflectionUtil, this.javaDocHelper ) );
+        }
+        // the comment of the type has already been parsed
+        serviceDescriptor.setDescription( serviceDescriptor.getJavaType().getComment() );
         Consumes consumes = this.annotationUtil.getTypeAnnotation( byteClass, Consumes.class );
         addConsumes( serviceDescriptor.getConsumes(), consumes );
         Produces produces = this.annotationUtil.getTypeAnnotation( byteClass, Produces.class );
         addProduces( serviceDescriptor.getProduces(), produces );
-        for ( Method byteMethod : byteClass.getMethods() )
+        ServiceMetadata serviceMetadata =
+            new ServiceMetadata( byteClass, getOperationCandidates( byteClass ), this.reflectionUtil );
+        for ( MethodMetadata methodMetadata : serviceMetadata.getOperations() )
         {
-            getLog().debug( "Analyzing method " + byteMethod.toString() );
-            OperationDescriptor operationDescriptor = createOperationDescriptor( serviceDescriptor, byteMethod );
+            getLog().debug( "Analyzing method " + methodMetadata.getMethod().toString() );
+            OperationDescriptor operationDescriptor = createOperationDescriptor( serviceDescriptor, methodMetadata );
             if ( operationDescriptor != null )
             {
                 getLog().debug( "Method has been detected as service operation." );
                 serviceDescriptor.getOperations().add( operationDescriptor );
+                collectSchemas( operationDescriptor.getJavaMethod(), serviceSchemas );
             }
         }
         Collections.sort( serviceDescriptor.getOperations() );
         return serviceDescriptor;
     }
 
+    /**
+     * Determines the candidates for service operations from the {@link ClassFile class files} of the given service and
+     * its super-types. This is only a pre-filter so {@link ServiceMetadata} skips the walk of the parent methods and
+     * the annotation lookups for methods that can never be a service operation. The service class itself is still
+     * loaded and the operations are introspected via reflection ({@link JMethod}).
+     *
+     * @param byteClass the {@link Class} of the service.
+     * @return the {@link Set} with the names of the methods that are annotated with {@link Path} in the type hierarchy
+     *         or are declared in a type annotated with {@link Path}. Only names are used as overriding methods may
+     *         differ in their erased parameter types for generic super-types. Will be <code>null</code> if a class
+     *         file could not be read so every method has to be considered.
+     */
+    private Set<String> getOperationCandidates( Class<?> byteClass )
+    {
+        Set<String> candidates = new HashSet<String>();
+        Set<String> visited = new HashSet<String>();
+        List<String> worklist = new ArrayList<String>();
+        worklist.add( byteClass.getName().replace( '.', '/' ) );
+        while ( !worklist.isEmpty() )
+        {
+            String internalName = worklist.remove( worklist.size() - 1 );
+            if ( internalName.startsWith( "java/" ) || !visited.add( internalName ) )
+            {
+                continue;
+            }
+            ClassFile classFile = this.classFileCache.get( internalName );
+            if ( classFile == null )
+            {
+                getLog().debug( "Could not read class file of " + internalName );
+                return null;
+            }
+            if ( classFile.getAnnotationTypes().contains( PATH_DESCRIPTOR ) )
+            {
+                candidates.addAll( classFile.getMethodNames( null ) );
+            }
+            else
+            {
+                candidates.addAll( classFile.getMethodNames( PATH_DESCRIPTOR ) );
+            }
+            String superName = classFile.getSuperInternalName();
+            if ( superName != null )
+            {
+                worklist.add( superName );
+            }
+            worklist.addAll( classFile.getInterfaceInternalNames() );
+        }
+        return candidates;
+    }
+
+    /**
+     * Restores the {@link ServiceDescriptor} from the {@link #getAnalysisIndex() analysis index} and reattaches the
+     * introspection objects. This only uses reflection and the JavaDoc of the service itself and does not introspect
+     * any beans.
+     *
+     * @param sourceType the {@link JavaClass} of the service.
+     * @param serviceSchemas the {@link Map} where to collect the schemas used by the service.
+     * @return the restored {@link ServiceDescriptor} or <code>null</code> if the service is not indexed or has changed.
+     * @throws Exception if something goes wrong.
+     */
+    protected ServiceDescriptor restoreServiceDescriptor( JavaClass sourceType, Map<String, JElement> serviceSchemas )
+        throws Exception
+    {
+        Class<?> byteClass = loadServiceClass( sourceType );
+        AnalysisIndex.Entry entry;
+        ServiceDescriptor serviceDescriptor;
+        try
+        {
+            entry = this.analysisIndex.get( byteClass, sourceType );
+            if ( entry == null )
+            {
+                return null;
+            }
+            serviceDescriptor = entry.getServiceDescriptor();
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Could not restore analysis of " + sourceType.getName(), e );
+            return null;
+        }
+        GenericType<?> byteType = this.reflectionUtil.createGenericType( byteClass );
+        // the comments of the introspection objects are resolved again as templates may access them directly
+        JType javaType;
+        synchronized ( this.builder )
+        {
+            javaType = new JType( byteType, sourceType, this.reflectionUtil, this.javaDocHelper );
+        }
+        serviceDescriptor.setJavaType( javaType );
+        List<OperationDescriptor> operations = serviceDescriptor.getOperations();
+        List<String> operationMethods = entry.getOperationMethods();
+        if ( operations.size() != operationMethods.size() )
+        {
+            return null;
+        }
+        Map<String, Method> methodMap = new HashMap<String, Method>();
+        for ( Method byteMethod : byteClass.getMethods() )
+        {
+            methodMap.put( getSignature( byteMethod ), byteMethod );
+        }
+        ServiceMetadata serviceMetadata =
+            new ServiceMetadata( byteClass, getOperationCandidates( byteClass ), this.reflectionUtil );
+        for ( int i = 0; i < operations.size(); i++ )
+        {
+            Method byteMethod = methodMap.get( operationMethods.get( i ) );
+            if ( byteMethod == null )
+            {
+                return null;
+            }
+            MethodMetadata methodMetadata = serviceMetadata.get( byteMethod );
+            if ( ( methodMetadata == null )
+                || !restoreOperationDescriptor( operations.get( i ), methodMetadata, javaType, serviceSchemas ) )
+            {
+                return null;
+            }
+        }
+        getLog().info( "Restored unchanged " + sourceType.getName() );
+        return serviceDescriptor;
+    }
+
+    private boolean restoreOperationDescriptor( OperationDescriptor operationDescriptor, MethodMetadata methodMetadata,
+                                                JType javaType, Map<String, JElement> serviceSchemas )
+    {
+        JMethod method;
+        synchronized ( this.builder )
+        {
+            method = new JMethod( methodMetadata.getMethod(), javaType, methodMetadata.getAnnotatedMethod() );
+        }
+        operationDescriptor.setJavaMethod( method );
+
+        Iterator<ParameterDescriptor> parameterIterator = operationDescriptor.getParameters().iterator();
+        for ( JParameter parameter : method.getParameters() )
+        {
+            if ( !isIgnoredParameter( parameter ) )
+            {
+                if ( !parameterIterator.hasNext() )
+                {
+                    return false;
+                }
+                parameterIterator.next().setJavaParameter( parameter );
+            }
+        }
+        if ( parameterIterator.hasNext() )
+        {
+            return false;
+        }
+
+        // responses have been created for return, exceptions and errors that always match in this order
+        List<JElement> elements = new ArrayList<JElement>();
+        elements.add( method.getReturns() );
+        elements.addAll( method.getExceptions() );
+        elements.addAll( this.errorIndex.getAlwaysErrors() );
+        List<ResponseDescriptor> responses = operationDescriptor.getResponses();
+        if ( responses.size() != elements.size() )
+        {
+            return false;
+        }
+        for ( int i = 0; i < elements.size(); i++ )
+        {
+            responses.get( i ).setJavaElement( elements.get( i ) );
+        }
+        collectSchemas( method, serviceSchemas );
+        return true;
+    }
+
+    /**
+     * Collects the types of the parameters and the return type of the given {@link JMethod} as schemas.
+     *
+     * @param method the {@link JMethod} of a service operation.
+     * @param serviceSchemas the {@link Map} where to collect the schemas used by the service.
+     */
+    private void collectSchemas( JMethod method, Map<String, JElement> serviceSchemas )
+    {
+        for ( JParameter parameter : method.getParameters() )
+        {
+            serviceSchemas.put( SchemaRegistry.getKey( parameter.getByteType() ), parameter );
+        }
+        JReturn returns = method.getReturns();
+        serviceSchemas.put( SchemaRegistry.getKey( returns.getByteType() ), returns );
+    }
+
+    private void indexServiceDescriptor( JavaClass sourceType, ServiceDescriptor serviceDescriptor )
+    {
+        Class<?> byteClass = serviceDescriptor.getJavaType().getByteType().getRetrievalClass();
+        List<String> operationMethods = new ArrayList<String>( serviceDescriptor.getOperations().size() );
+        Set<Class<?>> dependencyClasses = new HashSet<Class<?>>();
+        collectTypeHierarchy( byteClass, dependencyClasses );
+        for ( OperationDescriptor operation : serviceDescriptor.getOperations() )
+        {
+            JMethod method = operation.getJavaMethod();
+            operationMethods.add( getSignature( method.getByteMethod() ) );
+            for ( JParameter parameter : method.getParameters() )
+            {
+                collectDependencies( parameter.getByteType(), dependencyClasses );
+            }
+            collectDependencies( method.getReturns().getByteType(), dependencyClasses );
+            for ( JException exception : method.getExceptions() )
+            {
+                collectDependencies( exception.getByteType(), dependencyClasses );
+            }
+        }
+        Set<String> dependencies = new TreeSet<String>();
+        for ( Class<?> dependency : dependencyClasses )
+        {
+            dependencies.add( dependency.getName() );
+        }
+        collectValueReferences( sourceType, serviceDescriptor, dependencies );
+        dependencies.remove( byteClass.getName() );
+        try
+        {
+            this.analysisIndex.put( byteClass, sourceType, serviceDescriptor, operationMethods, dependencies );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Could not index analysis of " + sourceType.getName(), e );
+        }
+    }
+
+    /**
+     * Collects the classes of the constants referenced by <code>{@literal {@value}}</code> tags in the JavaDoc of the
+     * given service and its operations as their values are part of the descriptors.
+     *
+     * @param sourceType the {@link JavaClass} of the service.
+     * @param serviceDescriptor the analyzed {@link ServiceDescriptor}.
+     * @param dependencies the {@link Set} where to add the qualified names of the referenced classes.
+     */
+    private void collectValueReferences( JavaClass sourceType, ServiceDescriptor serviceDescriptor,
+                                         Set<String> dependencies )
+    {
+        synchronized ( this.builder )
+        {
+            this.javaDocHelper.collectValueReferences( sourceType, sourceType.getComment(), dependencies );
+            for ( OperationDescriptor operation : serviceDescriptor.getOperations() )
+            {
+                JavaMethod sourceMethod = operation.getJavaMethod().getSourceMethod();
+                if ( sourceMethod != null )
+                {
+                    this.javaDocHelper.collectValueReferences( sourceType, sourceMethod.getComment(), dependencies );
+                    for ( DocletTag tag : sourceMethod.getTags() )
+                    {
+                        this.javaDocHelper.collectValueReferences( sourceType, tag.getValue(), dependencies );
+                    }
+                }
+            }
+        }
+    }
+
+    private static String getSignature( Method method )
+    {
+        StringBuilder signature = new StringBuilder( method.getName() );
+        signature.append( '(' );
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for ( int i = 0; i < parameterTypes.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                signature.append( ',' );
+            }
+            signature.append( parameterTypes[i].getName() );
+        }
+        signature.append( ')' );
+        return signature.toString();
+    }
+
+    /**
+     * Collects the given type and all types reachable from it (type arguments, component types and bean properties)
+     * that are not part of the JDK.
+     *
+     * @param byteType the {@link GenericType} to collect.
+     * @param dependencies the {@link Set} where to add the collected {@link Class}es.
+     */
+    private void collectDependencies( GenericType<?> byteType, Set<Class<?>> dependencies )
+    {
+        if ( byteType == null )
+        {
+            return;
+        }
+        for ( int i = 0; i < byteType.getTypeArgumentCount(); i++ )
+        {
+            collectDependencies( byteType.getTypeArgument( i ), dependencies );
+        }
+        Class<?> byteClass = byteType.getAssignmentClass();
+        if ( byteClass.isArray() )
+        {
+            collectDependencies( byteType.getComponentType(), dependencies );
+            return;
+        }
+        if ( byteClass.isPrimitive() || ( byteClass.getClassLoader() == null ) || dependencies.contains( byteClass ) )
+        {
+            return;
+        }
+        collectTypeHierarchy( byteClass, dependencies );
+        for ( PropertyNode property : this.typeGraph.getNode( byteType ).getProperties() )
+        {
+            collectDependencies( property.getPropertyType(), dependencies );
+        }
+        for ( PropertyNode property : this.typeGraph.getFieldNode( byteType ).getProperties() )
+        {
+            collectDependencies( property.getPropertyType(), dependencies );
+        }
+    }
+
+    private static void collectTypeHierarchy( Class<?> byteClass, Set<Class<?>> dependencies )
+    {
+        if ( ( byteClass == null ) || ( byteClass.getClassLoader() == null ) || !dependencies.add( byteClass ) )
+        {
+            return;
+        }
+        collectTypeHierarchy( byteClass.getSuperclass(), dependencies );
+        for ( Class<?> superInterface : byteClass.getInterfaces() )
+        {
+            collectTypeHierarchy( superInterface, dependencies );
+        }
+    }
+
     protected InfoDescriptor createInfoDescriptor( InfoDescriptor info )
     {
         if ( this.project == null )
@@ -402,62 +1042,32 @@ public class Analyzer
         }
     }
 
-    protected OperationDescriptor createOperationDescriptor( ServiceDescriptor serviceDescriptor, Method byteMethod )
+    protected OperationDescriptor createOperationDescriptor( ServiceDescriptor serviceDescriptor,
+                                                             MethodMetadata methodMetadata )
     {
-        Method annotatedParentMethod = byteMethod;
-        Path methodPath = null;
-        boolean exit = false;
-        do
-        {
-            methodPath = annotatedParentMethod.getAnnotation( Path.class );
-            if ( methodPath == null )
-            {
-                annotatedParentMethod = this.reflectionUtil.getParentMethod( annotatedParentMethod );
-                if ( annotatedParentMethod == null )
-                {
-                    exit = true;
-                }
-            }
-        }
-        while ( !exit && methodPath == null );
-
         OperationDescriptor operationDescriptor = new OperationDescriptor();
-        if( methodPath == null )
-        {
-            methodPath = byteMethod.getDeclaringClass().getAnnotation( Path.class );
-            if( methodPath == null )
-            {
-                return null;
-            }
-            annotatedParentMethod = byteMethod;
-            operationDescriptor.setPath( "/" );
-        } else
+        operationDescriptor.setPath( methodMetadata.getPath() );
+        if ( methodMetadata.isDeprecated() )
         {
-            if( !methodPath.value().startsWith( "/" ) )
-            {
-                operationDescriptor.setPath( "/" + methodPath.value() );
-            } else
-            {
-                operationDescriptor.setPath( methodPath.value() );
-            }
+            operationDescriptor.setDeprecated( true );
         }
-
-        if ( this.annotationUtil.getMethodAnnotation( byteMethod, Deprecated.class ) != null )
+        JMethod method;
+        synchronized ( this.builder )
         {
-            operationDescriptor.setDeprecated( true );
+            method = new JMethod( methodMetadata.getMethod(), serviceDescriptor.getJavaType(),
+                                  methodMetadata.getAnnotatedMethod() );
         }
-        JMethod method = new JMethod( byteMethod, serviceDescriptor.getJavaType(), annotatedParentMethod );
         operationDescriptor.setJavaMethod( method );
         operationDescriptor.setDescription( method.getComment() );
 
         Set<String> consumes = operationDescriptor.getConsumes();
-        addConsumes( consumes, annotatedParentMethod.getAnnotation( Consumes.class ) );
+        addConsumes( consumes, methodMetadata.getConsumes() );
         if ( consumes.isEmpty() )
         {
             consumes.addAll( serviceDescriptor.getConsumes() );
         }
         Set<String> produces = operationDescriptor.getProduces();
-        addProduces( produces, annotatedParentMethod.getAnnotation( Produces.class ) );
+        addProduces( produces, methodMetadata.getProduces() );
         if ( produces.isEmpty() )
         {
             produces.addAll( serviceDescriptor.getProduces() );
@@ -474,11 +1084,6 @@ public class Analyzer
             {
                 operationDescriptor.getParameters().add( parameterDescriptor );
             }
-
-            if( !this.schemas.containsKey( parameter.getByteTypeString() ) );
-            {
-                this.schemas.put(parameter.getByteTypeString(), parameter);
-            }
         }
 
         // responses
@@ -493,16 +1098,11 @@ public class Analyzer
             operationDescriptor.getResponses().add( response );
         }
 
-        for ( ErrorDescriptor errorDescriptor : this.descriptor.getErrors() )
+        for ( JException exception : this.errorIndex.getAlwaysErrors() )
         {
-            if ( errorDescriptor.getMatch() == Match.always )
-            {
-                JElement exception = new JException( this.reflectionUtil.createGenericType( Throwable.class ), null,
-                                                     errorDescriptor.getComment() );
-                ResponseDescriptor response =
-                    createResponseDescriptor( serviceDescriptor, operationDescriptor, exception, true );
-                operationDescriptor.getResponses().add( response );
-            }
+            ResponseDescriptor response =
+                createResponseDescriptor( serviceDescriptor, operationDescriptor, exception, true );
+            operationDescriptor.getResponses().add( response );
         }
 
         return operationDescriptor;
@@ -552,14 +1152,11 @@ public class Analyzer
             }
             else if ( annotation instanceof Context )
             {
-                if ( UriInfo.class.isAssignableFrom( parameter.getByteType().getAssignmentClass() ) )
-                {
-                    location = "query/path";
-                }
-                else
+                if ( isIgnoredParameter( parameter ) )
                 {
                     return null;
                 }
+                location = "query/path";
             }
             else if ( annotation instanceof DefaultValue )
             {
@@ -583,6 +1180,23 @@ public class Analyzer
         return parameterDescriptor;
     }
 
+    /**
+     * @param parameter the {@link JParameter}.
+     * @return <code>true</code> if the given parameter is injected by the container (via {@link Context}) and
+     *         therefore no {@link ParameterDescriptor parameter of the operation}, <code>false</code> otherwise.
+     */
+    private boolean isIgnoredParameter( JParameter parameter )
+    {
+        for ( Annotation annotation : parameter.getByteAnnotations() )
+        {
+            if ( annotation instanceof Context )
+            {
+                return !UriInfo.class.isAssignableFrom( parameter.getByteType().getAssignmentClass() );
+            }
+        }
+        return false;
+    }
+
     protected ResponseDescriptor createResponseDescriptor( ServiceDescriptor serviceDescriptor,
                                                            OperationDescriptor operationDescriptor,
                                                            JElement javaElement, boolean error )
@@ -595,22 +1209,18 @@ public class Analyzer
         if ( error )
         {
             String statusCode = Descriptor.STATUS_CODE_INTERNAL_SERVER_ERROR;
-            for ( ErrorDescriptor errorDescriptor : this.descriptor.getErrors() )
+            ErrorDescriptor errorDescriptor = this.errorIndex.get( byteReturnType.getRetrievalClass() );
+            if ( errorDescriptor != null )
             {
-                boolean matches = isMatchingError( byteReturnType, errorDescriptor );
-                if ( matches )
+                statusCode = errorDescriptor.getStatusCode();
+                boolean isXml = Util.containsSubstring( operationDescriptor.getProduces(), "xml" );
+                if ( isXml )
                 {
-                    statusCode = errorDescriptor.getStatusCode();
-                    boolean isXml = Util.containsSubstring( operationDescriptor.getProduces(), "xml" );
-                    if ( isXml )
-                    {
-                        example = errorDescriptor.getXmlExample();
-                    }
-                    else
-                    {
-                        example = errorDescriptor.getJsonExample();
-                    }
-                    break;
+                    example = errorDescriptor.getXmlExample();
+                }
+                else
+                {
+                    example = errorDescriptor.getJsonExample();
                 }
             }
             response.setStatusCode( statusCode );
@@ -629,11 +1239,6 @@ public class Analyzer
             {
                 response.setStatusCode( Descriptor.STATUS_CODE_SUCCESS );
             }
-
-            if( !this.schemas.containsKey( javaElement.getByteTypeString() ) );
-            {
-                this.schemas.put( javaElement.getByteTypeString(), javaElement );
-            }
         }
         response.setDescription( description );
         response.setReason( reason );
@@ -649,26 +1254,6 @@ public class Analyzer
         return response;
     }
 
-    private boolean isMatchingError( GenericType<?> byteReturnType, ErrorDescriptor errorDescriptor )
-    {
-        Class<?> byteClass = byteReturnType.getRetrievalClass();
-        Match match = errorDescriptor.getMatch();
-        switch ( match )
-        {
-            case regex:
-                Matcher matcher = errorDescriptor.getErrorNamePattern().matcher( byteClass.getName() );
-                return matcher.matches();
-            case assignable:
-                return errorDescriptor.getErrorClass().isAssignableFrom( byteClass );
-            case always:
-                // yes, this is not a bug.
-                // always means it will always produce an error result but independent of a specific exception
-                return ( byteClass == Throwable.class );
-            default:
-                throw new IllegalCaseException( Match.class, match );
-        }
-    }
-
     private String createHttpMethodDescriptor( JMethod method )
     {
         Method byteMethod = method.getByteMethod();
@@ -720,6 +1305,48 @@ public class Analyzer
             clazz = byteType.getAssignmentClass();
         }
         Class<?> byteClass = this.reflectionUtil.getNonPrimitiveType( clazz );
+        JavaScriptType javaScriptType = this.javaScriptTypeCache.get( byteClass );
+        if ( javaScriptType != null )
+        {
+            return javaScriptType;
+        }
+        // only cache top-level datatypes where retrieval and assignment agree (no wildcards or type variables)
+        boolean cacheDatatype = ( recursion == 0 ) && ( byteType.getRetrievalClass() == byteType.getAssignmentClass() );
+        if ( cacheDatatype )
+        {
+            javaScriptType = this.javaScriptTypeCache.get( byteType );
+            if ( javaScriptType != null )
+            {
+                return javaScriptType;
+            }
+        }
+        javaScriptType = getJavaScriptType( byteClass );
+        if ( javaScriptType != null )
+        {
+            this.javaScriptTypeCache.put( byteClass, javaScriptType );
+            return javaScriptType;
+        }
+        javaScriptType = JavaScriptType.OBJECT;
+        if ( recursion <= 2 )
+        {
+            Type typeVariable = SimpleDatatype.class.getTypeParameters()[0];
+            GenericType<?> datatype = this.reflectionUtil.createGenericType( typeVariable, byteType );
+            javaScriptType = getJavaScriptType( datatype, retrieval, recursion + 1 );
+        }
+        if ( cacheDatatype )
+        {
+            this.javaScriptTypeCache.put( byteType, javaScriptType );
+        }
+        return javaScriptType;
+    }
+
+    /**
+     * @param byteClass the non-primitive {@link Class} to classify.
+     * @return the {@link JavaScriptType} of the given {@link Class} or <code>null</code> for a {@link SimpleDatatype}
+     *         that has to be classified by its generic value type.
+     */
+    private JavaScriptType getJavaScriptType( Class<?> byteClass )
+    {
         if ( Number.class.isAssignableFrom( byteClass ) )
         {
             NumberType<? extends Number> numberType = MathUtilImpl.getInstance().getNumberType( byteClass );
@@ -750,12 +1377,7 @@ public class Analyzer
         }
         else if ( SimpleDatatype.class.isAssignableFrom( byteClass ) )
         {
-            if ( recursion <= 2 )
-            {
-                Type typeVariable = SimpleDatatype.class.getTypeParameters()[0];
-                GenericType<?> datatype = this.reflectionUtil.createGenericType( typeVariable, byteType );
-                return getJavaScriptType( datatype, retrieval, recursion + 1 );
-            }
+            return null;
         }
         else if ( byteClass.isEnum() )
         {
@@ -818,6 +1440,11 @@ public class Analyzer
         }
         boolean retrieval = ( element instanceof JReturn );
         GenericType<?> byteType = element.getByteType();
+        String example = this.exampleCache.get( byteType, retrieval, javaScriptType );
+        if ( example != null )
+        {
+            return example;
+        }
         Class<?> byteClass;
         if ( retrieval )
         {
@@ -829,7 +1456,9 @@ public class Analyzer
         }
         StringBuilder buffer = new StringBuilder();
         createExample( javaScriptType, byteType, byteClass, "", buffer, new HashSet<Class<?>>(), retrieval );
-        return buffer.toString();
+        example = buffer.toString();
+        this.exampleCache.put( byteType, retrieval, javaScriptType, example );
+        return example;
     }
 
     private void createExample( GenericType<?> byteType, String indent, StringBuilder buffer,
@@ -899,39 +1528,21 @@ public class Analyzer
     private void createExampleForBean( GenericType<?> byteType, Class<?> byteClass, StringBuilder buffer,
                                        Set<Class<?>> visitedClassSet, boolean retrieval, String childIndent )
     {
-        PojoDescriptor<?> pojoDescriptor = this.pojoDescriptorBuilder.getDescriptor( byteType );
         boolean repeating = false;
-        List<? extends PojoPropertyDescriptor> propertyDescriptors =
-            new ArrayList<PojoPropertyDescriptor>( pojoDescriptor.getPropertyDescriptors() );
-        Comparator<PojoPropertyDescriptor> comparator = new Comparator<PojoPropertyDescriptor>()
+        for ( PropertyNode property : this.typeGraph.getNode( byteType ).getSortedProperties() )
         {
-            @Override
-            public int compare( PojoPropertyDescriptor o1, PojoPropertyDescriptor o2 )
+            if ( !property.getName().equals( "class" ) )
             {
-                return o1.getName().compareTo( o2.getName() );
-            }
-        };
-        Collections.sort( propertyDescriptors, comparator );
-        for ( PojoPropertyDescriptor propertyDescriptor : propertyDescriptors )
-        {
-            if ( !propertyDescriptor.getName().equals( "class" ) )
-            {
-                PojoPropertyAccessorNonArg getter =
-                    propertyDescriptor.getAccessor( PojoPropertyAccessorNonArgMode.GET );
-                if ( getter != null )
+                if ( repeating )
                 {
-                    if ( repeating )
-                    {
-                        buffer.append( ",\n" );
-                        buffer.append( childIndent );
-                    }
-                    repeating = true;
-                    String propertyName = propertyDescriptor.getName();
-                    buffer.append( '"' );
-                    buffer.append( propertyName );
-                    buffer.append( "\" = " );
-                    createExample( getter.getPropertyType(), childIndent, buffer, visitedClassSet, retrieval );
+                    buffer.append( ",\n" );
+                    buffer.append( childIndent );
                 }
+                repeating = true;
+                buffer.append( '"' );
+                buffer.append( property.getName() );
+                buffer.append( "\" = " );
+                createExample( property.getPropertyType(), childIndent, buffer, visitedClassSet, retrieval );
             }
         }
     }
@@ -954,237 +1565,4 @@ public class Analyzer
         }
     }
 
-    private String getSchemaAsString( String type )
-    {
-        PojoDescriptorBuilderFactory pojoDescriptorBuilderFactory = PojoDescriptorBuilderFactoryImpl.getInstance();
-        PojoDescriptorBuilder pojoDescriptorBuilder = pojoDescriptorBuilderFactory.createPrivateFieldDescriptorBuilder();
-        StringBuffer buffer = new StringBuffer();
-        List<String> schemasCreated = new ArrayList<String>();
-
-        Iterator<Entry<String, JElement>> it = this.schemas.entrySet().iterator();
-        while ( it.hasNext() )
-        {
-            Entry<String, JElement> entry = it.next();
-            JElement javaElement = entry.getValue();
-            if( !javaElement.getSourceType().isPrimitive() && !javaElement.getSourceType().getName().equals( "String" ) )
-            {
-                if( entry.getValue().getByteType().getComponentType() == null )
-                {
-                    if( type.equals( "json" ) )
-                    {
-                        createSchemaAsJsonForType( pojoDescriptorBuilder, entry.getValue().getByteType(), buffer, "      ", schemasCreated );
-                    } else if ( type.equals( "yaml" ) )
-                    {
-                        createSchemaAsYamlForType( pojoDescriptorBuilder, entry.getValue().getByteType(), buffer, "    ", schemasCreated );
-                    }
-                } else
-                {
-                    if( type.equals( "json" ) )
-                    {
-                        createSchemaAsJsonForType( pojoDescriptorBuilder, entry.getValue().getByteType().getComponentType(), buffer, "      ", schemasCreated );
-                    } else if ( type.equals( "yaml" ) )
-                    {
-                        createSchemaAsYamlForType( pojoDescriptorBuilder, entry.getValue().getByteType().getComponentType(), buffer, "    ", schemasCreated );
-                    }
-                }
-            }
-        }
-        return buffer.toString();
-    }
-
-    private void createSchemaAsJsonForType( PojoDescriptorBuilder pojoDescriptorBuilder, GenericType<?> byteType, StringBuffer buffer, String indentation, List<String> schemasCreated )
-    {
-        PojoDescriptor<?> pojoDescriptor = pojoDescriptorBuilder.getDescriptor( byteType );
-        List<? extends PojoPropertyDescriptor> propertyDescriptors = new ArrayList<PojoPropertyDescriptor>( pojoDescriptor.getPropertyDescriptors() );
-        Map<String, GenericType<?>> schemasToCreate = new HashMap<String, GenericType<?>>();
-
-        if( !schemasCreated.contains( byteType.getAssignmentClass().getSimpleName() ) )
-        {
-            String schemaName = byteType.getAssignmentClass().getSimpleName();
-            buffer.append( indentation.concat( "'" + schemaName + "': {\n") );
-
-            buffer.append( indentation.concat( "  'type': 'object',\n") );
-            buffer.append( indentation.concat( "  'properties': {\n") );
-            for ( PojoPropertyDescriptor propertyDescriptor : propertyDescriptors )
-            {
-                PojoPropertyAccessorNonArg getter = propertyDescriptor.getAccessor( PojoPropertyAccessorNonArgMode.GET );
-                if ( getter != null )
-                {
-                    String type = getter.getReturnType().getTypeName();
-                    if( !type.equals( getter.getReturnType().getAssignmentClass().getName() ) )
-                    {
-                        type = getter.getReturnType().getAssignmentClass().getName();
-                    }
-
-                    buffer.append( indentation.concat( "    '" + propertyDescriptor.getName() + "': {\n" ) );
-                    if( type.equals( "int" ) || type.equals( "long" ) || type.equals( "byte" ) )
-                    {
-                        buffer.append( indentation.concat( "      'type': 'integer'\n" ) );
-                    } else if( type.equals( "double" ) || type.equals( "float") ) {
-                        buffer.append( indentation.concat( "      'type': 'number'\n" ) );
-                    } else if( type.equals( "boolean" ) )
-                    {
-                        buffer.append( indentation.concat( "      'type': 'boolean'\n" ) );
-                    } else if( type.equals( "java.lang.String" ) )
-                    {
-                        buffer.append( indentation.concat( "      'type': 'string'\n" ) );
-                    } else
-                    {
-                        boolean addSchema = true;
-                        GenericType<?> byteTypeToCreate;
-                        if( getter.getReturnType().getComponentType() == null )
-                        {
-                            byteTypeToCreate = getter.getReturnType();
-                            buffer.append( indentation.concat( "      $ref: '#/components/schemas/" + byteTypeToCreate.getAssignmentClass().getSimpleName() + "'\n") );
-                        } else
-                        {
-                            byteTypeToCreate = getter.getReturnType().getComponentType();
-                            String typeName = byteTypeToCreate.getTypeName();
-
-                            buffer.append( indentation.concat( "      'type': 'array',\n") );
-                            buffer.append( indentation.concat( "      'items': {\n") );
-                            if( typeName.equals( "int" ) || typeName.equals( "long" ) || typeName.equals( "byte" ) )
-                            {
-                                buffer.append( indentation.concat( "        'type': 'integer'\n") );
-                                addSchema = false;
-                            } else if( typeName.equals( "double" ) || typeName.equals( "float") )
-                            {
-                                buffer.append( indentation.concat( "        'type': 'number'\n") );
-                                addSchema = false;
-                            } else if( typeName.equals( "boolean" ) ) {
-                                buffer.append( indentation.concat( "        'type': 'boolean'\n") );
-                                addSchema = false;
-                            } else if( typeName.equals( "java.lang.String" ) )
-                            {
-                                buffer.append( indentation.concat( "        'type': 'string'\n") );
-                                addSchema = false;
-                            } else
-                            {
-                                buffer.append( indentation.concat( "        $ref: '#/components/schemas/" + byteTypeToCreate.getAssignmentClass().getSimpleName() + "'\n") );
-                            }
-                            buffer.append( indentation.concat( "      }\n" ) );
-                        }
-
-                        if( !schemasToCreate.containsKey( byteTypeToCreate.getAssignmentClass().getSimpleName() ) && addSchema )
-                        {
-                            schemasToCreate.put( byteTypeToCreate.getAssignmentClass().getSimpleName(), byteTypeToCreate );
-                        }
-                    }
-
-                    buffer.append( indentation.concat( "    },\n" ) );
-                }
-            }
-
-            buffer.append( indentation.concat( "  },\n" ) );
-            buffer.append( indentation.concat( "},\n" ) );
-
-            schemasCreated.add( schemaName );
-
-            for( Entry<String, GenericType<?>> entry : schemasToCreate.entrySet() )
-            {
-                if( !schemasCreated.contains( entry.getKey() ) )
-                {
-                    createSchemaAsJsonForType( pojoDescriptorBuilder, entry.getValue(), buffer, indentation, schemasCreated );
-                }
-            }
-        }
-
-        return;
-    }
-
-    private void createSchemaAsYamlForType( PojoDescriptorBuilder pojoDescriptorBuilder, GenericType<?> byteType, StringBuffer buffer, String indentation, List<String> schemasCreated )
-    {
-        PojoDescriptor<?> pojoDescriptor = pojoDescriptorBuilder.getDescriptor( byteType );
-        List<? extends PojoPropertyDescriptor> propertyDescriptors = new ArrayList<PojoPropertyDescriptor>( pojoDescriptor.getPropertyDescriptors() );
-        Map<String, GenericType<?>> schemasToCreate = new HashMap<String, GenericType<?>>();
-
-        if( !schemasCreated.contains( byteType.getAssignmentClass().getSimpleName() ) )
-        {
-            String schemaName = byteType.getAssignmentClass().getSimpleName();
-            buffer.append( indentation.concat( schemaName + ":\n") );
-
-            buffer.append( indentation.concat( "  type: object\n" ) );
-            buffer.append( indentation.concat( "  properties:\n" ) );
-            for ( PojoPropertyDescriptor propertyDescriptor : propertyDescriptors )
-            {
-                PojoPropertyAccessorNonArg getter = propertyDescriptor.getAccessor( PojoPropertyAccessorNonArgMode.GET );
-                if ( getter != null )
-                {
-                    String type = getter.getReturnType().getTypeName();
-                    if( !type.equals( getter.getReturnType().getAssignmentClass().getName() ) )
-                    {
-                        type = getter.getReturnType().getAssignmentClass().getName();
-                    }
-
-                    buffer.append( indentation.concat( "    " + propertyDescriptor.getName() + ":\n" ) );
-                    if( type.equals( "int" ) || type.equals( "long" ) || type.equals( "byte" ) )
-                    {
-                        buffer.append( indentation.concat( "      type: integer\n" ) );
-                    } else if ( type.equals( "double" ) || type.equals( "float" ) )
-                    {
-                        buffer.append( indentation.concat( "      type': number\n" ) );
-                    } else if ( type.equals( "boolean" ) )
-                    {
-                        buffer.append( indentation.concat( "      type: boolean\n" ) );
-                    } else if ( type.equals( "java.lang.String" ) )
-                    {
-                        buffer.append( indentation.concat( "      type: string\n" ) );
-                    } else
-                    {
-                        boolean addSchema = true;
-                        GenericType<?> byteTypeToCreate;
-                        if (getter.getReturnType().getComponentType() == null )
-                        {
-                            byteTypeToCreate = getter.getReturnType();
-                            buffer.append( indentation.concat( "      $ref: '#/components/schemas/" + byteTypeToCreate.getAssignmentClass().getSimpleName() + "'\n" ) );
-                        } else
-                        {
-                            byteTypeToCreate = getter.getReturnType().getComponentType();
-                            String typeName = byteTypeToCreate.getTypeName();
-
-                            buffer.append( indentation.concat( "      type: array\n" ) );
-                            buffer.append( indentation.concat( "      items:\n" ) );
-                            if( typeName.equals( "int" ) || typeName.equals( "long" ) || typeName.equals( "byte" ) )
-                            {
-                                buffer.append( indentation.concat( "        type: integer\n" ) );
-                                addSchema = false;
-                            } else if( typeName.equals( "double" ) || typeName.equals( "float") )
-                            {
-                                buffer.append( indentation.concat( "        type: number\n" ) );
-                                addSchema = false;
-                            } else if( typeName.equals( "boolean" ) ) {
-                                buffer.append( indentation.concat( "        type: boolean\n" ) );
-                                addSchema = false;
-                            } else if( typeName.equals( "java.lang.String" ) )
-                            {
-                                buffer.append( indentation.concat( "        type: string\n" ) );
-                                addSchema = false;
-                            } else
-                            {
-                                buffer.append( indentation.concat( "        $ref: '#/components/schemas/" + byteTypeToCreate.getAssignmentClass().getSimpleName() + "'\n" ) );
-                            }
-                        }
-
-                        if ( !schemasToCreate.containsKey(byteTypeToCreate.getAssignmentClass().getSimpleName() ) && addSchema )
-                        {
-                            schemasToCreate.put( byteTypeToCreate.getAssignmentClass().getSimpleName(), byteTypeToCreate );
-                        }
-                    }
-                }
-            }
-
-            schemasCreated.add( schemaName );
-        }
-
-        for( Entry<String, GenericType<?>> entry : schemasToCreate.entrySet() )
-        {
-            if ( !schemasCreated.contains( entry.getKey() ) )
-            {
-                createSchemaAsYamlForType( pojoDescriptorBuilder, entry.getValue(), buffer, indentation, schemasCreated );
-            }
-        }
-
-        return;
-    }
-
 }
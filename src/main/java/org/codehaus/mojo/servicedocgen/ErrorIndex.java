@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.mmm.util.exception.api.IllegalCaseException;
+import net.sf.mmm.util.reflect.api.GenericType;
+import net.sf.mmm.util.reflect.api.ReflectionUtil;
+
+import org.codehaus.mojo.servicedocgen.descriptor.ErrorDescriptor;
+import org.codehaus.mojo.servicedocgen.descriptor.ErrorDescriptor.Match;
+import org.codehaus.mojo.servicedocgen.introspection.JException;
+
+/**
+ * Index mapping exception classes to the {@link ErrorDescriptor} that applies to them. The {@link ErrorDescriptor}s
+ * are matched once per exception class and analysis instead of once per operation. Also the
+ * {@link #getAlwaysErrors() errors that always apply} are created only once. This class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class ErrorIndex
+{
+
+    private static final ErrorDescriptor NO_MATCH = new ErrorDescriptor();
+
+    private final List<ErrorDescriptor> errors;
+
+    private final Map<ErrorDescriptor, Class<?>> errorClasses;
+
+    private final List<JException> alwaysErrors;
+
+    private final ConcurrentMap<Class<?>, ErrorDescriptor> matches;
+
+    /**
+     * The constructor.
+     *
+     * @param errors the configured {@link ErrorDescriptor}s in the order of precedence.
+     * @param errorClasses the {@link Map} with the loaded {@link Class}es of the {@link ErrorDescriptor}s with
+     *            {@link Match#assignable}.
+     * @param reflectionUtil the {@link ReflectionUtil}.
+     */
+    public ErrorIndex( List<ErrorDescriptor> errors, Map<ErrorDescriptor, Class<?>> errorClasses,
+                       ReflectionUtil reflectionUtil )
+    {
+        super();
+        this.errors = new ArrayList<ErrorDescriptor>( errors );
+        this.errorClasses = errorClasses;
+        this.matches = new ConcurrentHashMap<Class<?>, ErrorDescriptor>();
+        List<JException> alwaysList = new ArrayList<JException>();
+        GenericType<?> throwableType = reflectionUtil.createGenericType( Throwable.class );
+        for ( ErrorDescriptor errorDescriptor : this.errors )
+        {
+            if ( errorDescriptor.getMatch() == Match.always )
+            {
+                alwaysList.add( new JException( throwableType, null, errorDescriptor.getComment() ) );
+            }
+        }
+        this.alwaysErrors = Collections.unmodifiableList( alwaysList );
+    }
+
+    /**
+     * @return the {@link List} of {@link JException}s for the {@link ErrorDescriptor}s with {@link Match#always} that
+     *         are added as responses to every operation.
+     */
+    public List<JException> getAlwaysErrors()
+    {
+        return this.alwaysErrors;
+    }
+
+    /**
+     * @param errorClass the {@link Class} of the error (exception).
+     * @return the first {@link ErrorDescriptor} matching the given {@link Class} or <code>null</code> if none matches.
+     */
+    public ErrorDescriptor get( Class<?> errorClass )
+    {
+        ErrorDescriptor errorDescriptor = this.matches.get( errorClass );
+        if ( errorDescriptor == null )
+        {
+            errorDescriptor = NO_MATCH;
+            for ( ErrorDescriptor candidate : this.errors )
+            {
+                if ( isMatchingError( errorClass, candidate ) )
+                {
+                    errorDescriptor = candidate;
+                    break;
+                }
+            }
+            this.matches.put( errorClass, errorDescriptor );
+        }
+        if ( errorDescriptor == NO_MATCH )
+        {
+            return null;
+        }
+        return errorDescriptor;
+    }
+
+    private boolean isMatchingError( Class<?> errorClass, ErrorDescriptor errorDescriptor )
+    {
+        Match match = errorDescriptor.getMatch();
+        switch ( match )
+        {
+            case regex:
+                return errorDescriptor.getErrorNamePattern().matcher( errorClass.getName() ).matches();
+            case assignable:
+                return this.errorClasses.get( errorDescriptor ).isAssignableFrom( errorClass );
+            case always:
+                // yes, this is not a bug.
+                // always means it will always produce an error result but independent of a specific exception
+                return ( errorClass == Throwable.class );
+            default:
+                throw new IllegalCaseException( Match.class, match );
+        }
+    }
+
+}
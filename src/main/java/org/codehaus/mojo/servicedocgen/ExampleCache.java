@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * Cache for the examples created by an {@link Analyzer} for the parameters and responses of the service operations.
+ * An example only depends on the {@link GenericType}, the direction (retrieval for responses or assignment for
+ * parameters) and the {@link JavaScriptType} so it is created once per analysis and reused for all operations of all
+ * services. This class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class ExampleCache
+{
+
+    private final ConcurrentMap<String, String> examples;
+
+    /**
+     * The constructor.
+     */
+    public ExampleCache()
+    {
+        super();
+        this.examples = new ConcurrentHashMap<String, String>();
+    }
+
+    /**
+     * @param byteType the {@link GenericType} of the example.
+     * @param retrieval <code>true</code> for a response, <code>false</code> for a parameter.
+     * @param javaScriptType the {@link JavaScriptType} of the example.
+     * @return the cached example or <code>null</code> if not cached.
+     */
+    public String get( GenericType<?> byteType, boolean retrieval, JavaScriptType javaScriptType )
+    {
+        return this.examples.get( getKey( byteType, retrieval, javaScriptType ) );
+    }
+
+    /**
+     * @param byteType the {@link GenericType} of the example.
+     * @param retrieval <code>true</code> for a response, <code>false</code> for a parameter.
+     * @param javaScriptType the {@link JavaScriptType} of the example.
+     * @param example the example to cache.
+     */
+    public void put( GenericType<?> byteType, boolean retrieval, JavaScriptType javaScriptType, String example )
+    {
+        this.examples.put( getKey( byteType, retrieval, javaScriptType ), example );
+    }
+
+    /**
+     * The key is built from the canonical type string as {@link GenericType#equals(Object)} also compares the defining
+     * type so the same type used by different services would be cached multiple times.
+     *
+     * @param byteType the {@link GenericType} of the example.
+     * @param retrieval <code>true</code> for a response, <code>false</code> for a parameter.
+     * @param javaScriptType the {@link JavaScriptType} of the example.
+     * @return the key of the example.
+     * @see SchemaRegistry#getKey(GenericType)
+     */
+    private static String getKey( GenericType<?> byteType, boolean retrieval, JavaScriptType javaScriptType )
+    {
+        Class<?> byteClass;
+        if ( retrieval )
+        {
+            byteClass = byteType.getRetrievalClass();
+        }
+        else
+        {
+            byteClass = byteType.getAssignmentClass();
+        }
+        return javaScriptType + "|" + retrieval + "|" + byteClass.getName() + "|" + SchemaRegistry.getKey( byteType );
+    }
+
+}
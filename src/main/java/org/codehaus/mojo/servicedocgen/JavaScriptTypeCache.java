@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.mmm.util.lang.api.SimpleDatatype;
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * Cache for the {@link JavaScriptType} of the types analyzed by an {@link Analyzer}. Most types are classified by
+ * their {@link Class} only. {@link SimpleDatatype}s are classified by their value type and therefore cached by their
+ * {@link GenericType} in a map of limited size. This class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class JavaScriptTypeCache
+{
+
+    private static final int MAX_GENERIC_TYPES = 512;
+
+    private final ConcurrentMap<Class<?>, JavaScriptType> classTypes;
+
+    private final Map<GenericType<?>, JavaScriptType> genericTypes;
+
+    /**
+     * The constructor.
+     */
+    public JavaScriptTypeCache()
+    {
+        super();
+        this.classTypes = new ConcurrentHashMap<Class<?>, JavaScriptType>();
+        this.genericTypes = new LinkedHashMap<GenericType<?>, JavaScriptType>( 64, 0.75F, true )
+        {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<GenericType<?>, JavaScriptType> eldest )
+            {
+                return size() > MAX_GENERIC_TYPES;
+            }
+        };
+    }
+
+    /**
+     * @param type the {@link Class} to classify.
+     * @return the cached {@link JavaScriptType} or <code>null</code> if not cached.
+     */
+    public JavaScriptType get( Class<?> type )
+    {
+        return this.classTypes.get( type );
+    }
+
+    /**
+     * @param type the {@link Class} that has been classified.
+     * @param javaScriptType the {@link JavaScriptType} of the given {@link Class}.
+     */
+    public void put( Class<?> type, JavaScriptType javaScriptType )
+    {
+        this.classTypes.put( type, javaScriptType );
+    }
+
+    /**
+     * @param type the {@link GenericType} of a {@link SimpleDatatype} to classify.
+     * @return the cached {@link JavaScriptType} or <code>null</code> if not cached.
+     */
+    public JavaScriptType get( GenericType<?> type )
+    {
+        synchronized ( this.genericTypes )
+        {
+            return this.genericTypes.get( type );
+        }
+    }
+
+    /**
+     * @param type the {@link GenericType} of a {@link SimpleDatatype} that has been classified.
+     * @param javaScriptType the {@link JavaScriptType} of the given {@link GenericType}.
+     */
+    public void put( GenericType<?> type, JavaScriptType javaScriptType )
+    {
+        synchronized ( this.genericTypes )
+        {
+            this.genericTypes.put( type, javaScriptType );
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.lang.reflect.Method;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * The resolved JAX-RS metadata of a {@link Method} that is a service operation.
+ *
+ * @see ServiceMetadata
+ * @author hohwille
+ */
+public class MethodMetadata
+{
+
+    private final Method method;
+
+    private final Method annotatedMethod;
+
+    private final String path;
+
+    private final boolean deprecated;
+
+    /**
+     * The constructor.
+     *
+     * @param method - see {@link #getMethod()}.
+     * @param annotatedMethod - see {@link #getAnnotatedMethod()}.
+     * @param path - see {@link #getPath()}.
+     * @param deprecated - see {@link #isDeprecated()}.
+     */
+    MethodMetadata( Method method, Method annotatedMethod, String path, boolean deprecated )
+    {
+        super();
+        this.method = method;
+        this.annotatedMethod = annotatedMethod;
+        this.path = path;
+        this.deprecated = deprecated;
+    }
+
+    /**
+     * @return the {@link Method} of the service.
+     */
+    public Method getMethod()
+    {
+        return this.method;
+    }
+
+    /**
+     * @return the {@link #getMethod() method} or the parent {@link Method} it overrides that is annotated with
+     *         {@link Path} and carries the JAX-RS annotations. If the {@link Path} is only declared by the type, this is
+     *         the {@link #getMethod() method} itself.
+     */
+    public Method getAnnotatedMethod()
+    {
+        return this.annotatedMethod;
+    }
+
+    /**
+     * @return the path of the operation relative to the service. Always starts with a slash.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * @return <code>true</code> if the {@link #getMethod() method} or any parent {@link Method} it overrides is
+     *         {@link Deprecated}, <code>false</code> otherwise.
+     */
+    public boolean isDeprecated()
+    {
+        return this.deprecated;
+    }
+
+    /**
+     * @return the {@link Consumes} annotation of the {@link #getAnnotatedMethod() annotated method} or
+     *         <code>null</code> if not present.
+     */
+    public Consumes getConsumes()
+    {
+        return this.annotatedMethod.getAnnotation( Consumes.class );
+    }
+
+    /**
+     * @return the {@link Produces} annotation of the {@link #getAnnotatedMethod() annotated method} or
+     *         <code>null</code> if not present.
+     */
+    public Produces getProduces()
+    {
+        return this.annotatedMethod.getAnnotation( Produces.class );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return this.path + "=" + this.method;
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * Registry of the OpenAPI schemas (<code>components/schemas</code>) written by a {@link SchemaWriter}. A schema is
+ * identified by its {@link #getKey(GenericType) generic type} so e.g. <code>Foo&lt;String&gt;</code> and
+ * <code>Foo&lt;Long&gt;</code> are different schemas. Each schema gets a unique component name built from the
+ * {@link Class#getSimpleName() simple names} (e.g. <code>Foo_String</code>) if not already taken by another type,
+ * otherwise from the qualified names.
+ *
+ * @author hohwille
+ */
+public class SchemaRegistry
+{
+
+    private final Map<String, String> names;
+
+    private final Set<String> usedNames;
+
+    private final Set<String> created;
+
+    /**
+     * The constructor.
+     */
+    public SchemaRegistry()
+    {
+        super();
+        this.names = new HashMap<String, String>();
+        this.usedNames = new HashSet<String>();
+        this.created = new HashSet<String>();
+    }
+
+    /**
+     * @param type the {@link GenericType} of the schema.
+     * @return the unique component name of the schema. Will be the same for every call with an equal
+     *         {@link #getKey(GenericType) key}.
+     */
+    public String getName( GenericType<?> type )
+    {
+        String key = getKey( type );
+        String name = this.names.get( key );
+        if ( name == null )
+        {
+            name = getName( type, false );
+            if ( this.usedNames.contains( name ) )
+            {
+                name = getName( type, true );
+                String qualifiedName = name;
+                int i = 2;
+                while ( this.usedNames.contains( name ) )
+                {
+                    name = qualifiedName + "_" + i;
+                    i++;
+                }
+            }
+            this.usedNames.add( name );
+            this.names.put( key, name );
+        }
+        return name;
+    }
+
+    private static String getName( GenericType<?> type, boolean qualified )
+    {
+        Class<?> typeClass = type.getAssignmentClass();
+        StringBuilder name = new StringBuilder();
+        if ( typeClass.isArray() && ( type.getComponentType() != null ) )
+        {
+            name.append( getName( type.getComponentType(), qualified ) );
+            name.append( "Array" );
+        }
+        else if ( qualified )
+        {
+            // '$' is not allowed in component names
+            name.append( typeClass.getName().replace( '$', '.' ) );
+        }
+        else
+        {
+            name.append( typeClass.getSimpleName() );
+        }
+        for ( int i = 0; i < type.getTypeArgumentCount(); i++ )
+        {
+            name.append( '_' );
+            name.append( getName( type.getTypeArgument( i ), qualified ) );
+        }
+        return name.toString();
+    }
+
+    /**
+     * @param type the {@link GenericType}.
+     * @return the key identifying the schema of the given type: the {@link Class#getName() qualified name} of its
+     *         {@link GenericType#getAssignmentClass() class} with the keys of its type arguments (e.g.
+     *         <code>com.foo.Foo&lt;java.lang.String&gt;</code>).
+     */
+    public static String getKey( GenericType<?> type )
+    {
+        int count = type.getTypeArgumentCount();
+        String name = type.getAssignmentClass().getName();
+        if ( count == 0 )
+        {
+            return name;
+        }
+        StringBuilder key = new StringBuilder( name );
+        key.append( '<' );
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( i > 0 )
+            {
+                key.append( ',' );
+            }
+            key.append( getKey( type.getTypeArgument( i ) ) );
+        }
+        key.append( '>' );
+        return key.toString();
+    }
+
+    /**
+     * @param type the {@link GenericType} of the schema.
+     * @return <code>true</code> if the schema has been marked as created by this call, <code>false</code> if it has
+     *         already been created before.
+     */
+    public boolean markCreated( GenericType<?> type )
+    {
+        return this.created.add( getKey( type ) );
+    }
+
+    /**
+     * @param type the {@link GenericType} of the schema.
+     * @return <code>true</code> if the schema has been {@link #markCreated(GenericType) created}, <code>false</code>
+     *         otherwise.
+     */
+    public boolean isCreated( GenericType<?> type )
+    {
+        return this.created.contains( getKey( type ) );
+    }
+
+}
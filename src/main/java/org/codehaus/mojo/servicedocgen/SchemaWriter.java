@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+
+import org.codehaus.mojo.servicedocgen.introspection.JElement;
+import org.codehaus.mojo.servicedocgen.introspection.PropertyNode;
+import org.codehaus.mojo.servicedocgen.introspection.TypeGraph;
+
+/**
+ * Writes the OpenAPI schema definitions (<code>components/schemas</code>) of the types used by the services. The types
+ * are traversed once and the JSON and the YAML definitions are written together. Each format is only written if
+ * requested. The names of the schemas are assigned by a {@link SchemaRegistry} in any case.
+ *
+ * @author hohwille
+ */
+public class SchemaWriter
+{
+
+    private static final String JSON_INDENTATION = "      ";
+
+    private static final String YAML_INDENTATION = "    ";
+
+    private static final int BUFFER_SIZE_PER_SCHEMA = 512;
+
+    private final TypeGraph typeGraph;
+
+    private final boolean json;
+
+    private final boolean yaml;
+
+    private StringBuilder jsonBuffer;
+
+    private StringBuilder yamlBuffer;
+
+    private SchemaRegistry registry;
+
+    /**
+     * The constructor.
+     *
+     * @param typeGraph the {@link TypeGraph} with the {@link TypeGraph#getFieldNode(GenericType) properties} of the
+     *            types.
+     * @param json <code>true</code> to write the JSON definitions, <code>false</code> otherwise.
+     * @param yaml <code>true</code> to write the YAML definitions, <code>false</code> otherwise.
+     */
+    public SchemaWriter( TypeGraph typeGraph, boolean json, boolean yaml )
+    {
+        super();
+        this.typeGraph = typeGraph;
+        this.json = json;
+        this.yaml = yaml;
+    }
+
+    /**
+     * Writes the schema definitions of the given types and all types reachable from their properties.
+     *
+     * @param schemas the {@link JElement}s with the types of the parameters and return values of the operations.
+     */
+    public void write( Collection<JElement> schemas )
+    {
+        int capacity = BUFFER_SIZE_PER_SCHEMA * ( schemas.size() + 1 );
+        this.jsonBuffer = this.json ? new StringBuilder( capacity ) : null;
+        this.yamlBuffer = this.yaml ? new StringBuilder( capacity ) : null;
+        // the types are also traversed if no format is written as the schema names are still referenced
+        this.registry = new SchemaRegistry();
+        for ( JElement javaElement : schemas )
+        {
+            GenericType<?> schemaType = getSchemaType( javaElement );
+            if ( schemaType != null )
+            {
+                writeTypes( schemaType );
+            }
+        }
+    }
+
+    /**
+     * @param javaElement the {@link JElement} of a parameter or return value.
+     * @return the {@link GenericType} of the schema of the given {@link JElement} (its component type for arrays and
+     *         collections) or <code>null</code> if it has a simple type.
+     */
+    private static GenericType<?> getSchemaType( JElement javaElement )
+    {
+        GenericType<?> byteType = javaElement.getByteType();
+        if ( javaElement.getSourceType() == null )
+        {
+            Class<?> byteClass = byteType.getAssignmentClass();
+            if ( byteClass.isPrimitive() || ( byteClass == String.class ) )
+            {
+                return null;
+            }
+        }
+        else if ( javaElement.getSourceType().isPrimitive()
+            || javaElement.getSourceType().getName().equals( "String" ) )
+        {
+            return null;
+        }
+        if ( byteType.getComponentType() == null )
+        {
+            return byteType;
+        }
+        return byteType.getComponentType();
+    }
+
+    /**
+     * Has to be called after {@link #write(Collection)}.
+     *
+     * @param javaElement the {@link JElement} of a parameter or return value.
+     * @return the name of the schema (<code>#/components/schemas/{name}</code>) of the given {@link JElement} (its
+     *         component type for arrays and collections) or <code>null</code> if it has a simple type or no schema
+     *         has been written for it.
+     */
+    public String getSchemaName( JElement javaElement )
+    {
+        GenericType<?> schemaType = getSchemaType( javaElement );
+        if ( ( schemaType == null ) || !this.registry.isCreated( schemaType ) )
+        {
+            return null;
+        }
+        return this.registry.getName( schemaType );
+    }
+
+    /**
+     * @return the JSON schema definitions or the empty {@link String} if not requested.
+     */
+    public String getJson()
+    {
+        if ( this.jsonBuffer == null )
+        {
+            return "";
+        }
+        return this.jsonBuffer.toString();
+    }
+
+    /**
+     * @return the YAML schema definitions or the empty {@link String} if not requested.
+     */
+    public String getYaml()
+    {
+        if ( this.yamlBuffer == null )
+        {
+            return "";
+        }
+        return this.yamlBuffer.toString();
+    }
+
+    private void writeTypes( GenericType<?> rootType )
+    {
+        // explicit stack instead of recursion for deeply nested types - same depth-first order
+        Deque<GenericType<?>> stack = new ArrayDeque<GenericType<?>>();
+        stack.push( rootType );
+        while ( !stack.isEmpty() )
+        {
+            GenericType<?> byteType = stack.pop();
+            if ( this.registry.markCreated( byteType ) )
+            {
+                List<GenericType<?>> schemasToCreate = writeType( byteType );
+                for ( int i = schemasToCreate.size() - 1; i >= 0; i-- )
+                {
+                    stack.push( schemasToCreate.get( i ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * @param byteType the {@link GenericType} to write the schema for.
+     * @return the {@link List} of the types referenced by the properties of the given type.
+     */
+    private List<GenericType<?>> writeType( GenericType<?> byteType )
+    {
+        String schemaName = this.registry.getName( byteType );
+        append( "'" + schemaName + "': {\n", schemaName + ":\n" );
+        append( "  'type': 'object',\n", "  type: object\n" );
+        append( "  'properties': {\n", "  properties:\n" );
+        Map<String, GenericType<?>> schemasToCreate = new LinkedHashMap<String, GenericType<?>>();
+        for ( PropertyNode property : this.typeGraph.getFieldNode( byteType ).getProperties() )
+        {
+            GenericType<?> returnType = property.getReturnType();
+            String type = returnType.getTypeName();
+            if ( !type.equals( returnType.getAssignmentClass().getName() ) )
+            {
+                type = returnType.getAssignmentClass().getName();
+            }
+            append( "    '" + property.getName() + "': {\n", "    " + property.getName() + ":\n" );
+            if ( !appendSimpleType( "      ", type, "      type': number\n" ) )
+            {
+                GenericType<?> byteTypeToCreate;
+                boolean addSchema = true;
+                if ( returnType.getComponentType() == null )
+                {
+                    byteTypeToCreate = returnType;
+                    appendReference( "      ", byteTypeToCreate );
+                }
+                else
+                {
+                    byteTypeToCreate = returnType.getComponentType();
+                    append( "      'type': 'array',\n", "      type: array\n" );
+                    append( "      'items': {\n", "      items:\n" );
+                    if ( appendSimpleType( "        ", byteTypeToCreate.getTypeName(), "        type: number\n" ) )
+                    {
+                        addSchema = false;
+                    }
+                    else
+                    {
+                        appendReference( "        ", byteTypeToCreate );
+                    }
+                    append( "      }\n", null );
+                }
+                String keyToCreate = SchemaRegistry.getKey( byteTypeToCreate );
+                if ( addSchema && !schemasToCreate.containsKey( keyToCreate ) )
+                {
+                    schemasToCreate.put( keyToCreate, byteTypeToCreate );
+                }
+            }
+            append( "    },\n", null );
+        }
+        append( "  },\n", null );
+        append( "},\n", null );
+        return new ArrayList<GenericType<?>>( schemasToCreate.values() );
+    }
+
+    /**
+     * @param indentation the additional indentation.
+     * @param type the qualified name of the type.
+     * @param yamlNumber the YAML line for a decimal number (the same mistake is kept for compatibility).
+     * @return <code>true</code> if the given type is a simple type that has been written, <code>false</code>
+     *         otherwise.
+     */
+    private boolean appendSimpleType( String indentation, String type, String yamlNumber )
+    {
+        if ( type.equals( "int" ) || type.equals( "long" ) || type.equals( "byte" ) )
+        {
+            append( indentation + "'type': 'integer'\n", indentation + "type: integer\n" );
+        }
+        else if ( type.equals( "double" ) || type.equals( "float" ) )
+        {
+            append( indentation + "'type': 'number'\n", yamlNumber );
+        }
+        else if ( type.equals( "boolean" ) )
+        {
+            append( indentation + "'type': 'boolean'\n", indentation + "type: boolean\n" );
+        }
+        else if ( type.equals( "java.lang.String" ) )
+        {
+            append( indentation + "'type': 'string'\n", indentation + "type: string\n" );
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
+    private void appendReference( String indentation, GenericType<?> byteType )
+    {
+        String line = indentation + "$ref: '#/components/schemas/" + this.registry.getName( byteType ) + "'\n";
+        append( line, line );
+    }
+
+    /**
+     * @param jsonLine the line to append to the JSON definitions or <code>null</code> for none.
+     * @param yamlLine the line to append to the YAML definitions or <code>null</code> for none.
+     */
+    private void append( String jsonLine, String yamlLine )
+    {
+        if ( ( this.jsonBuffer != null ) && ( jsonLine != null ) )
+        {
+            this.jsonBuffer.append( JSON_INDENTATION ).append( jsonLine );
+        }
+        if ( ( this.yamlBuffer != null ) && ( yamlLine != null ) )
+        {
+            this.yamlBuffer.append( YAML_INDENTATION ).append( yamlLine );
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.servicedocgen.descriptor.ServiceDescriptor;
+import org.codehaus.mojo.servicedocgen.descriptor.ServicesDescriptor;
+
+/**
+ * {@link AbstractMojo Maven Plugin} to generate a single documentation for the services of all projects of the
+ * reactor. Each module is analyzed with its own classloader and the modules are analyzed concurrently according to
+ * <code>threads</code> (sequentially by default). The results are merged into one {@link ServicesDescriptor} that is
+ * rendered once.<br/>
+ * As this goal is executed only once for the entire reactor it has to be invoked directly after the modules have been
+ * compiled (e.g. <code>mvn package servicedocgen:aggregate</code>) or as report of the site.
+ *
+ * @author hohwille
+ */
+@Mojo(name = "aggregate", aggregator = true, requiresProject = true, requiresDirectInvocation = true, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME, requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class ServiceDocGenAggregateReport
+    extends ServiceDocGenReport
+{
+
+    private static final String AGGREGATE_ANALYSIS_INDEX_PATH = "servicedocgen/aggregate-analysis.idx";
+
+    @Parameter( defaultValue = "${reactorProjects}", readonly = true )
+    private List<MavenProject> reactorProjects;
+
+    private ServicesDescriptor services;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getOutputName()
+    {
+        return "servicedoc-aggregate/index";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName( Locale locale )
+    {
+        return getBundle( locale ).getString( "report.servicedocgen.aggregate.name" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDescription( Locale locale )
+    {
+        return getBundle( locale ).getString( "report.servicedocgen.aggregate.description" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canGenerateReport()
+    {
+        if ( this.services != null )
+        {
+            return true;
+        }
+        // only discover the services - the analysis is done when the report is generated
+        for ( MavenProject module : this.reactorProjects )
+        {
+            if ( !getServiceClasses( module ).isEmpty() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Modules are already analyzed concurrently with the configured threads so each module is scanned and analyzed
+     * sequentially.
+     */
+    @Override
+    protected int getThreads()
+    {
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void releaseCaches()
+    {
+        super.releaseCaches();
+        for ( MavenProject module : this.reactorProjects )
+        {
+            getCache( module ).release();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ServicesDescriptor getServicesDescriptor()
+        throws Exception
+    {
+        if ( this.services == null )
+        {
+            this.services = analyzeModules();
+        }
+        return this.services;
+    }
+
+    private ServicesDescriptor analyzeModules()
+        throws Exception
+    {
+        // the module analyzers complete the descriptor (errors) concurrently so each gets its own copy
+        ServicesDescriptor descriptor = getDescriptor();
+        Analyzer aggregateAnalyzer = createAnalyzer( this.project, descriptor, AGGREGATE_ANALYSIS_INDEX_PATH );
+        List<Analyzer> moduleAnalyzers = new ArrayList<Analyzer>( this.reactorProjects.size() );
+        for ( MavenProject module : this.reactorProjects )
+        {
+            ServicesDescriptor moduleDescriptor = null;
+            if ( descriptor != null )
+            {
+                moduleDescriptor = descriptor.copy();
+            }
+            moduleAnalyzers.add( createAnalyzer( module, moduleDescriptor, AGGREGATE_ANALYSIS_INDEX_PATH ) );
+        }
+        List<ServiceDescriptor> serviceList = new ArrayList<ServiceDescriptor>();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, super.getThreads() ) );
+        try
+        {
+            List<Future<List<ServiceDescriptor>>> futures =
+                new ArrayList<Future<List<ServiceDescriptor>>>( this.reactorProjects.size() );
+            for ( int i = 0; i < this.reactorProjects.size(); i++ )
+            {
+                final MavenProject module = this.reactorProjects.get( i );
+                final Analyzer analyzer = moduleAnalyzers.get( i );
+                futures.add( executor.submit( new Callable<List<ServiceDescriptor>>()
+                {
+                    @Override
+                    public List<ServiceDescriptor> call()
+                        throws Exception
+                    {
+                        return analyzer.createServiceDescriptors( getServiceClasses( module ) );
+                    }
+                } ) );
+            }
+            // merge in reactor order so the result does not depend on scheduling
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                MavenProject module = this.reactorProjects.get( i );
+                try
+                {
+                    List<ServiceDescriptor> moduleServices = futures.get( i ).get();
+                    getLog().debug( "Found " + moduleServices.size() + " service(s) in " + module.getId() );
+                    serviceList.addAll( moduleServices );
+                    aggregateAnalyzer.addSchemas( moduleAnalyzers.get( i ) );
+                }
+                catch ( ExecutionException e )
+                {
+                    throw new MojoExecutionException( "Failed to analyze services of " + module.getId(), e.getCause() );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        if ( serviceList.isEmpty() )
+        {
+            return null;
+        }
+        ServicesDescriptor result = aggregateAnalyzer.completeServicesDescriptor( serviceList );
+        sortServiceOperationsByPath( result );
+        return result;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.util.List;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.servicedocgen.descriptor.ServicesDescriptor;
+import org.codehaus.mojo.servicedocgen.discovery.ServiceScanner;
+
+import com.thoughtworks.qdox.model.JavaClass;
+
+/**
+ * Cache for the results of discovery and analysis of a {@link MavenProject} that is shared by all executions of this
+ * plugin with the same configuration within the same Maven session (e.g. the <code>generate</code> goal and the site
+ * report in <code>mvn verify site</code>). It is stored as {@link MavenProject#getContextValue(String) context value}
+ * of the project that only lives as long as the session. Once the documentation is rendered, the cache is
+ * {@link #release() released} so only the analyzed {@link #getServices() services} are kept.
+ *
+ * @see #get(MavenProject, String)
+ * @author hohwille
+ */
+public class ServiceDocGenCache
+{
+
+    private static final String CONTEXT_KEY_PREFIX = ServiceDocGenCache.class.getName() + ":";
+
+    private ServiceScanner scanner;
+
+    private List<JavaClass> serviceClasses;
+
+    private ClassLoader projectClassloader;
+
+    private ServicesDescriptor services;
+
+    /**
+     * The constructor.
+     */
+    public ServiceDocGenCache()
+    {
+        super();
+    }
+
+    /**
+     * @param project the {@link MavenProject}.
+     * @param configurationKey the key of the configuration the cached results depend on.
+     * @return the {@link ServiceDocGenCache} for the given {@link MavenProject} and configuration. Will be created if it
+     *         does not yet exist.
+     */
+    public static ServiceDocGenCache get( MavenProject project, String configurationKey )
+    {
+        String key = CONTEXT_KEY_PREFIX + configurationKey;
+        Object value = project.getContextValue( key );
+        ServiceDocGenCache cache;
+        if ( value instanceof ServiceDocGenCache )
+        {
+            cache = (ServiceDocGenCache) value;
+        }
+        else
+        {
+            // missing or stored by this plugin loaded in a different class realm
+            cache = new ServiceDocGenCache();
+            project.setContextValue( key, cache );
+        }
+        return cache;
+    }
+
+    /**
+     * Releases the {@link #getScanner() scanner} with the parsed source-code, the {@link #getServiceClasses() service
+     * classes} and the {@link #getProjectClassloader() classloader}. Only the analyzed {@link #getServices() services}
+     * (and the information that no services have been discovered) are kept for subsequent executions.
+     */
+    public void release()
+    {
+        this.scanner = null;
+        if ( ( this.serviceClasses != null ) && !this.serviceClasses.isEmpty() )
+        {
+            this.serviceClasses = null;
+        }
+        this.projectClassloader = null;
+    }
+
+    /**
+     * @return the {@link ServiceScanner} that discovered the services (with the
+     *         {@link ServiceScanner#getBuilder() parsed source-code}) or <code>null</code> if not yet available.
+     */
+    public ServiceScanner getScanner()
+    {
+        return this.scanner;
+    }
+
+    /**
+     * @param scanner is the new value of {@link #getScanner()}.
+     */
+    public void setScanner( ServiceScanner scanner )
+    {
+        this.scanner = scanner;
+    }
+
+    /**
+     * @return the {@link List} of discovered service classes or <code>null</code> if not yet available.
+     */
+    public List<JavaClass> getServiceClasses()
+    {
+        return this.serviceClasses;
+    }
+
+    /**
+     * @param serviceClasses is the new value of {@link #getServiceClasses()}.
+     */
+    public void setServiceClasses( List<JavaClass> serviceClasses )
+    {
+        this.serviceClasses = serviceClasses;
+    }
+
+    /**
+     * @return the {@link ClassLoader} for the classes of the project or <code>null</code> if not yet available.
+     */
+    public ClassLoader getProjectClassloader()
+    {
+        return this.projectClassloader;
+    }
+
+    /**
+     * @param projectClassloader is the new value of {@link #getProjectClassloader()}.
+     */
+    public void setProjectClassloader( ClassLoader projectClassloader )
+    {
+        this.projectClassloader = projectClassloader;
+    }
+
+    /**
+     * @return the analyzed {@link ServicesDescriptor} or <code>null</code> if not yet available.
+     */
+    public ServicesDescriptor getServices()
+    {
+        return this.services;
+    }
+
+    /**
+     * @param services is the new value of {@link #getServices()}.
+     */
+    public void setServices( ServicesDescriptor services )
+    {
+        this.services = services;
+    }
+
+}
@@ -20,9 +20,6 @@ package org.codehaus.mojo.servicedocgen;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -31,27 +28,32 @@ import java.util.Locale;
 import java.util.ResourceBundle;
 import java.util.regex.Pattern;
 
-import javax.ws.rs.Path;
-
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
+import org.codehaus.mojo.servicedocgen.classpath.ProjectClassLoaderCache;
 import org.codehaus.mojo.servicedocgen.descriptor.OperationDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ServiceDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ServicesDescriptor;
+import org.codehaus.mojo.servicedocgen.discovery.JandexIndexReader;
+import org.codehaus.mojo.servicedocgen.discovery.PackageFilter;
+import org.codehaus.mojo.servicedocgen.discovery.ServiceDiscovery;
+import org.codehaus.mojo.servicedocgen.discovery.ServiceScanner;
 import org.codehaus.mojo.servicedocgen.generation.ServicesGenerator;
 import org.codehaus.mojo.servicedocgen.generation.velocity.VelocityServicesGenerator;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
 
-import com.thoughtworks.qdox.JavaProjectBuilder;
-import com.thoughtworks.qdox.model.JavaAnnotation;
 import com.thoughtworks.qdox.model.JavaClass;
-import com.thoughtworks.qdox.model.JavaSource;
 
 /**
  * {@link AbstractMojo Maven Plugin} to automatically generate documentation for services of the current project.
@@ -72,6 +74,10 @@ public class ServiceDocGenReport
     extends AbstractMavenReport
 {
 
+    private static final String DISCOVERY_INDEX_PATH = "servicedocgen/discovery.idx";
+
+    private static final String ANALYSIS_INDEX_PATH = "servicedocgen/analysis.idx";
+
     /**
      * The directory where the generated service documentation will be written to.
      */
@@ -116,11 +122,86 @@ public class ServiceDocGenReport
     @Parameter( defaultValue = "false" )
     private boolean introspectFields;
 
-    private ClassLoader projectClassloader;
+    /**
+     * The number of threads used to parse the source files when scanning for services and to analyze the services.
+     * Values greater than <code>1</code> parse the source files and analyze the services concurrently, the result
+     * will be the same. The <code>aggregate</code> goal uses these threads to analyze the modules of the reactor
+     * concurrently instead. The default is <code>1</code> so everything (including the modules of the
+     * <code>aggregate</code> goal) is processed sequentially unless configured otherwise.
+     */
+    @Parameter( defaultValue = "1" )
+    private int threads;
+
+    /**
+     * Set to <code>true</code> to cheaply reject source files before they are parsed when scanning for services. Only
+     * files named like <code>classnameRegex</code> that contain the tokens <code>javax.ws.rs</code> and
+     * <code>Path</code> are parsed then. Services that are not declared in a source file named after them (secondary
+     * or nested classes) are not found in this mode. Therefore the default is <code>false</code>.
+     */
+    @Parameter( defaultValue = "false" )
+    private boolean prefilter;
+
+    /**
+     * The strategy to discover services: <code>source</code> to parse the source files (default) or
+     * <code>bytecode</code> to read the compiled classes from <code>classesDirectory</code> and only resolve the
+     * discovered services from source-code. With <code>auto</code> the services are looked up in the Jandex index
+     * (<code>META-INF/jandex.idx</code>) of the classes directory if present and discovered from <code>source</code>
+     * otherwise.
+     */
+    @Parameter( defaultValue = "source" )
+    private ServiceDiscovery discovery;
+
+    /**
+     * The directory with the compiled classes of the project used for <code>bytecode</code> discovery.
+     */
+    @Parameter( defaultValue = "${project.build.outputDirectory}", readonly = true )
+    private File classesDirectory;
+
+    /**
+     * The packages to scan for services as glob patterns on the package directories (e.g.
+     * <code>com/example/**</code>). A <code>*</code> matches within a directory name and <code>**</code> any number of
+     * directories. Empty to scan all packages (default).
+     */
+    @Parameter
+    private List<String> includePackages;
+
+    /**
+     * The packages to exclude from scanning for services as glob patterns (see <code>includePackages</code>). E.g.
+     * <code>**&#47;internal/**</code> skips all <code>internal</code> packages and their sub-packages without entering
+     * their directories.
+     */
+    @Parameter
+    private List<String> excludePackages;
+
+    /**
+     * Set to <code>true</code> to persist the result of <code>source</code> discovery per source file and the result of
+     * the analysis per service in indexes under the build directory so subsequent builds only parse the source files
+     * and analyze the services that have changed.
+     */
+    @Parameter( defaultValue = "true" )
+    private boolean incremental;
+
+    /**
+     * Set to <code>false</code> to skip the JSON schema definitions (<code>schemaDefinitionJson</code>) if none of the
+     * <code>templates</code> uses them. They will be empty then.
+     */
+    @Parameter( defaultValue = "true" )
+    private boolean schemaDefinitionJson;
+
+    /**
+     * Set to <code>false</code> to skip the YAML schema definitions (<code>schemaDefinitionYaml</code>) if none of the
+     * <code>templates</code> uses them. They will be empty then.
+     */
+    @Parameter( defaultValue = "true" )
+    private boolean schemaDefinitionYaml;
 
-    private JavaProjectBuilder builder;
+    @Parameter( defaultValue = "${mojoExecution}", readonly = true )
+    private MojoExecution mojoExecution;
 
-    private List<JavaClass> serviceClasses;
+    @Parameter( defaultValue = "${session}", readonly = true )
+    private MavenSession session;
+
+    private ServiceDocGenCache cache;
 
     private boolean generatingSite;
 
@@ -185,30 +266,196 @@ public class ServiceDocGenReport
         return this.templates;
     }
 
-    private JavaProjectBuilder getBuilder() {
-        if (this.builder == null) {
-            this.builder = new JavaProjectBuilder();
-            if ( !Util.isEmpty( this.sourceEncoding ) )
+    /**
+     * @return the pre-configured {@link ServicesDescriptor} template. May be <code>null</code>.
+     */
+    protected ServicesDescriptor getDescriptor()
+    {
+        return this.descriptor;
+    }
+
+    /**
+     * @return <code>true</code> to introspect beans using fields, <code>false</code> for getters.
+     */
+    protected boolean isIntrospectFields()
+    {
+        return this.introspectFields;
+    }
+
+    /**
+     * @return the number of threads used by the {@link ServiceScanner} to parse the source files and by the
+     *         {@link Analyzer} to analyze the services.
+     */
+    protected int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @return the {@link ServiceDocGenCache} of the given {@link MavenProject} for the current configuration.
+     */
+    protected ServiceDocGenCache getCache( MavenProject mavenProject )
+    {
+        if ( mavenProject == this.project )
+        {
+            if ( this.cache == null )
             {
-                 this.builder.setEncoding( this.sourceEncoding );
+                this.cache = ServiceDocGenCache.get( this.project, getConfigurationKey( this.project ) );
             }
+            return this.cache;
         }
-        return this.builder;
+        return ServiceDocGenCache.get( mavenProject, getConfigurationKey( mavenProject ) );
     }
 
-    private List<JavaClass> getServiceClasses() {
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @return the key of the configuration the results of discovery and analysis depend on.
+     */
+    private String getConfigurationKey( MavenProject mavenProject )
+    {
+        StringBuilder key = new StringBuilder();
+        key.append( this.serviceClassName ).append( '|' );
+        key.append( this.classnameRegex ).append( '|' );
+        key.append( this.sourceEncoding ).append( '|' );
+        key.append( this.introspectFields ).append( '|' );
+        key.append( this.discovery ).append( '|' );
+        key.append( this.prefilter ).append( '|' );
+        key.append( this.includePackages ).append( '|' );
+        key.append( this.excludePackages ).append( '|' );
+        key.append( this.schemaDefinitionJson ).append( '|' );
+        key.append( this.schemaDefinitionYaml ).append( '|' );
+        key.append( getRuntimeClasspathElements( mavenProject ) ).append( '|' );
+        if ( this.descriptor != null )
+        {
+            Xpp3Dom descriptorConfiguration = null;
+            if ( ( this.mojoExecution != null ) && ( this.mojoExecution.getConfiguration() != null ) )
+            {
+                descriptorConfiguration = this.mojoExecution.getConfiguration().getChild( "descriptor" );
+            }
+            if ( descriptorConfiguration == null )
+            {
+                // no way to compare - do not share with other executions
+                key.append( System.identityHashCode( this.descriptor ) );
+            }
+            else
+            {
+                key.append( descriptorConfiguration );
+            }
+        }
+        return key.toString();
+    }
+
+    private List<String> getRuntimeClasspathElements( MavenProject mavenProject )
+    {
+        if ( mavenProject == this.project )
+        {
+            return this.runtimeClasspathElements;
+        }
+        try
+        {
+            return mavenProject.getRuntimeClasspathElements();
+        }
+        catch ( DependencyResolutionRequiredException e )
+        {
+            throw new IllegalStateException( "Dependencies not resolved for " + mavenProject.getId(), e );
+        }
+    }
+
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @return the {@link ServiceScanner} for the given {@link MavenProject}.
+     */
+    protected ServiceScanner getScanner( MavenProject mavenProject )
+    {
+        ServiceDocGenCache projectCache = getCache( mavenProject );
+        ServiceScanner scanner = projectCache.getScanner();
+        if ( scanner == null )
+        {
+            scanner = new ServiceScanner( getLog(), getClassnamePattern(), this.sourceEncoding );
+            scanner.setThreads( getThreads() );
+            scanner.setPrefilter( this.prefilter );
+            scanner.setPackageFilter( new PackageFilter( this.includePackages, this.excludePackages ) );
+            if ( this.incremental )
+            {
+                scanner.setIndexFile( new File( mavenProject.getBuild().getDirectory(), DISCOVERY_INDEX_PATH ) );
+            }
+            projectCache.setScanner( scanner );
+        }
+        return scanner;
+    }
 
-        if (this.serviceClasses == null) {
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @return the {@link List} of service classes discovered in the given {@link MavenProject}.
+     */
+    protected List<JavaClass> getServiceClasses( MavenProject mavenProject )
+    {
+        ServiceDocGenCache projectCache = getCache( mavenProject );
+        List<JavaClass> serviceClasses = projectCache.getServiceClasses();
+        if ( serviceClasses == null )
+        {
             try
             {
-                this.serviceClasses = scanServices( getBuilder() );
+                List<String> sourceRoots = mavenProject.getCompileSourceRoots();
+                File projectClassesDirectory = getClassesDirectory( mavenProject );
+                ServiceScanner scanner = getScanner( mavenProject );
+                if ( this.serviceClassName == null )
+                {
+                    if ( this.discovery == ServiceDiscovery.auto )
+                    {
+                        serviceClasses = scanIndex( scanner, sourceRoots, projectClassesDirectory );
+                    }
+                    else if ( this.discovery == ServiceDiscovery.bytecode )
+                    {
+                        serviceClasses = scanner.scanClasses( sourceRoots, projectClassesDirectory );
+                    }
+                }
+                if ( serviceClasses == null )
+                {
+                    serviceClasses = scanner.scan( sourceRoots, this.serviceClassName );
+                }
             }
             catch ( IOException e )
             {
                 throw new RuntimeException( "Unexpected I/O error!", e );
             }
+            projectCache.setServiceClasses( serviceClasses );
+        }
+        return serviceClasses;
+    }
+
+    private File getClassesDirectory( MavenProject mavenProject )
+    {
+        if ( mavenProject == this.project )
+        {
+            return this.classesDirectory;
+        }
+        return new File( mavenProject.getBuild().getOutputDirectory() );
+    }
+
+    /**
+     * @return the services discovered from the Jandex index in the given classes directory or <code>null</code> if
+     *         there is no such index or it could not be read.
+     */
+    private List<JavaClass> scanIndex( ServiceScanner scanner, List<String> sourceRoots, File projectClassesDirectory )
+    {
+        File jandexIndex = new File( projectClassesDirectory, JandexIndexReader.INDEX_PATH );
+        if ( !jandexIndex.isFile() )
+        {
+            return null;
+        }
+        getLog().info( "Discovering services from annotation index " + jandexIndex );
+        try
+        {
+            return scanner.scanIndex( sourceRoots, jandexIndex );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Failed to read annotation index " + jandexIndex + " - scanning source files instead: "
+                + e.getMessage() );
+            return null;
         }
-        return this.serviceClasses;
     }
 
     private Pattern getClassnamePattern()
@@ -238,7 +485,11 @@ public class ServiceDocGenReport
     @Override
     public boolean canGenerateReport()
     {
-        return !getServiceClasses().isEmpty();
+        if ( getCache( this.project ).getServices() != null )
+        {
+            return true;
+        }
+        return !getServiceClasses( this.project ).isEmpty();
     }
 
     /**
@@ -262,15 +513,13 @@ public class ServiceDocGenReport
     private void generateReport()
         throws Exception
     {
-        if ( getServiceClasses().isEmpty() )
+        ServicesDescriptor services = getServicesDescriptor();
+        if ( services == null )
         {
             getLog().info( "No services found - omitting service documentation generation." );
+            releaseCaches();
             return;
         }
-        Analyzer analyzer = new Analyzer( getLog(), this.project, getProjectClassloader(), this.builder, this.descriptor,
-            this.introspectFields );
-        ServicesDescriptor services = analyzer.createServicesDescriptor( getServiceClasses() );
-        sortServiceOperationsByPath( services );
 
         String openApiUrl = "";
         for( ServiceDocGenTemplate template : this.getTemplates() )
@@ -300,123 +549,136 @@ public class ServiceDocGenReport
             }
             generator.generate( services, reportDirectory, outputName, openApiUrl );
         }
+        releaseCaches();
     }
 
-    private List<JavaClass> scanServices( JavaProjectBuilder builder )
-        throws IOException
+    /**
+     * {@link ServiceDocGenCache#release() Releases} the {@link ServiceDocGenCache caches} after the documentation has
+     * been rendered so the parsed source-code is not kept for the rest of the session. Further the
+     * {@link ProjectClassLoaderCache#release(Object) classloaders} of projects not used in this session are closed.
+     */
+    protected void releaseCaches()
     {
-        List<JavaClass> serviceClassList = new ArrayList<JavaClass>();
-        for ( String sourceDir : this.project.getCompileSourceRoots() )
-        {
-            File sourceFolder = new File( sourceDir );
-            if ( sourceFolder.isDirectory() )
-            {
-                builder.addSourceFolder( sourceFolder );
-                if ( this.serviceClassName == null )
-                {
-                    scanJavaFilesRecursive( sourceFolder, builder, serviceClassList );
-                }
-            }
-        }
-        if ( this.serviceClassName != null )
+        getCache( this.project ).release();
+        ProjectClassLoaderCache.getInstance().release( getSessionKey() );
+    }
+
+    /**
+     * @return the key of the current session for the {@link ProjectClassLoaderCache}. The session itself is not used
+     *         as it must not be kept after the build.
+     */
+    private Object getSessionKey()
+    {
+        if ( this.session == null )
         {
-            JavaClass type = builder.getClassByName( this.serviceClassName );
-            boolean isService = isServiceClass( type );
-            if ( isService )
-            {
-                serviceClassList.add( type );
-                getLog().info( "Discovered service: " + type );
-            }
+            return null;
         }
-        return serviceClassList;
+        return this.session.getStartTime();
     }
 
-    private void scanJavaFilesRecursive( File sourceDir, JavaProjectBuilder builder, List<JavaClass> serviceClasses )
-        throws IOException
+    /**
+     * @return the analyzed {@link ServicesDescriptor} or <code>null</code> if no services have been discovered.
+     * @throws Exception if something goes wrong.
+     */
+    protected ServicesDescriptor getServicesDescriptor()
+        throws Exception
     {
-        File[] children = sourceDir.listFiles();
-        if ( children == null )
+        ServiceDocGenCache projectCache = getCache( this.project );
+        ServicesDescriptor services = projectCache.getServices();
+        if ( services != null )
         {
-            getLog().debug( "Directory does not exist: " + sourceDir );
-            return;
+            getLog().info( "Reusing services analyzed by a previous execution in this session." );
+            return services;
         }
-        for ( File file : children )
+        if ( getServiceClasses( this.project ).isEmpty() )
         {
-            if ( file.isDirectory() )
-            {
-                scanJavaFilesRecursive( file, builder, serviceClasses );
-            }
-            else if ( file.getName().endsWith( ".java" ) )
-            {
-                try
-                {
-                    JavaSource source = builder.addSource( file );
-                    for ( JavaClass type : source.getClasses() )
-                    {
-                        boolean isService = isServiceClass( type );
-                        if ( isService )
-                        {
-                            serviceClasses.add( type );
-                        }
-                    }
-                }
-                catch ( Exception e )
-                {
-                    getLog().debug( "Error parsing file: " + file, e );
-                }
-            }
+            return null;
         }
-
+        Analyzer analyzer = createAnalyzer( this.project );
+        services = analyzer.createServicesDescriptor( getServiceClasses( this.project ) );
+        sortServiceOperationsByPath( services );
+        projectCache.setServices( services );
+        return services;
     }
 
-    private boolean isServiceClass( JavaClass type )
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @return a new {@link Analyzer} for the given {@link MavenProject}.
+     * @throws MojoExecutionException if the classpath of the project is invalid.
+     */
+    protected Analyzer createAnalyzer( MavenProject mavenProject )
+        throws MojoExecutionException
     {
-        if ( getClassnamePattern().matcher( type.getName() ).matches() )
-        {
-            getLog().debug( "Class matches: " + type.getName() );
-            for ( JavaAnnotation annotation : type.getAnnotations() )
-            {
-                if ( Path.class.getName().equals( annotation.getType().getFullyQualifiedName() ) )
-                {
-                    getLog().info( "Found service: " + type.getName() );
-                    return true;
-                }
-            }
-        }
-        return false;
+        return createAnalyzer( mavenProject, this.descriptor, ANALYSIS_INDEX_PATH );
     }
 
-    private ClassLoader getProjectClassloader()
+    /**
+     * @param mavenProject the {@link MavenProject}.
+     * @param servicesDescriptor the {@link ServicesDescriptor} template completed by the {@link Analyzer}. May be
+     *        <code>null</code>.
+     * @param analysisIndexPath the path of the {@link AnalysisIndex} relative to the build directory of the project.
+     * @return a new {@link Analyzer} for the given {@link MavenProject}.
+     * @throws MojoExecutionException if the classpath of the project is invalid.
+     */
+    protected Analyzer createAnalyzer( MavenProject mavenProject, ServicesDescriptor servicesDescriptor,
+                                       String analysisIndexPath )
         throws MojoExecutionException
     {
-        if ( this.projectClassloader == null )
+        ClassLoader projectClassloader = getProjectClassloader( mavenProject );
+        Analyzer analyzer =
+            new Analyzer( getLog(), mavenProject, projectClassloader, getScanner( mavenProject ).getBuilder(),
+                          servicesDescriptor, this.introspectFields );
+        analyzer.setThreads( getThreads() );
+        analyzer.setSchemaJson( this.schemaDefinitionJson );
+        analyzer.setSchemaYaml( this.schemaDefinitionYaml );
+        if ( this.incremental )
         {
-            this.projectClassloader = new URLClassLoader( buildClasspathUrls(), this.getClass().getClassLoader() );
+            String key = getConfigurationKey( mavenProject );
+            if ( this.mojoExecution != null )
+            {
+                // the analysis may differ between versions of this plugin
+                key = this.mojoExecution.getVersion() + "|" + key;
+            }
+            File indexFile = new File( mavenProject.getBuild().getDirectory(), analysisIndexPath );
+            analyzer.setAnalysisIndex( new AnalysisIndex( indexFile, key, projectClassloader ) );
         }
-        return this.projectClassloader;
+        return analyzer;
     }
 
-    private URL[] buildClasspathUrls()
+    private ClassLoader getProjectClassloader( MavenProject mavenProject )
         throws MojoExecutionException
     {
-        List<URL> urls = new ArrayList<URL>( this.runtimeClasspathElements.size() );
-        for ( String element : this.runtimeClasspathElements )
+        ServiceDocGenCache projectCache = getCache( mavenProject );
+        ClassLoader projectClassloader = projectCache.getProjectClassloader();
+        if ( projectClassloader == null )
         {
+            List<String> classpathElements = getRuntimeClasspathElements( mavenProject );
+            for ( String element : classpathElements )
+            {
+                getLog().debug( "Adding to classloader: " + element );
+            }
             try
             {
-                URL url = new File( element ).toURI().toURL();
-                urls.add( url );
-                getLog().debug( "Adding to classloader: " + url.toString() );
+                projectClassloader =
+                    ProjectClassLoaderCache.getInstance().get( mavenProject.getId(), getSessionKey(), classpathElements,
+                                                               this.getClass().getClassLoader() );
             }
-            catch ( MalformedURLException e )
+            catch ( IOException e )
             {
-                throw new MojoExecutionException( "Unable to access project dependency: " + element, e );
+                throw new MojoExecutionException( "Unable to access project dependencies of " + mavenProject.getId(),
+                                                  e );
             }
+            projectCache.setProjectClassloader( projectClassloader );
         }
-        return urls.toArray( new URL[urls.size()] );
+        return projectClassloader;
     }
 
-    private void sortServiceOperationsByPath( ServicesDescriptor services )
+    /**
+     * Sorts the operations of the given services by their path.
+     *
+     * @param services the {@link ServicesDescriptor}.
+     */
+    protected void sortServiceOperationsByPath( ServicesDescriptor services )
     {
         for ( ServiceDescriptor service : services.getServices() )
         {
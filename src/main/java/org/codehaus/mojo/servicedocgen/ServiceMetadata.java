@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.Path;
+
+import net.sf.mmm.util.reflect.api.ReflectionUtil;
+
+/**
+ * The table of the {@link MethodMetadata} for the service operations of a service type. It is built once per service
+ * type and walks the parent {@link Method}s of each {@link Method} only once to resolve all JAX-RS annotations. Methods
+ * that can never be a service operation ({@link Object} methods, synthetic and bridge methods) are discarded up front.
+ *
+ * @author hohwille
+ */
+public class ServiceMetadata
+{
+
+    private final Map<Method, MethodMetadata> operations;
+
+    /**
+     * The constructor.
+     *
+     * @param serviceClass the {@link Class} of the service.
+     * @param candidates the {@link Set} with the names of the methods that may be service operations or
+     *            <code>null</code> to consider all methods.
+     * @param reflectionUtil the {@link ReflectionUtil} to find parent methods.
+     */
+    public ServiceMetadata( Class<?> serviceClass, Set<String> candidates, ReflectionUtil reflectionUtil )
+    {
+        super();
+        this.operations = new LinkedHashMap<Method, MethodMetadata>();
+        for ( Method method : serviceClass.getMethods() )
+        {
+            if ( ( method.getDeclaringClass() == Object.class ) || method.isSynthetic() || method.isBridge() )
+            {
+                continue;
+            }
+            if ( ( candidates != null ) && !candidates.contains( method.getName() ) )
+            {
+                continue;
+            }
+            MethodMetadata metadata = createMetadata( method, reflectionUtil );
+            if ( metadata != null )
+            {
+                this.operations.put( method, metadata );
+            }
+        }
+    }
+
+    private static MethodMetadata createMetadata( Method method, ReflectionUtil reflectionUtil )
+    {
+        Method annotatedMethod = null;
+        Path path = null;
+        boolean deprecated = false;
+        // walk the hierarchy once for all annotations
+        Method parentMethod = method;
+        while ( ( parentMethod != null ) && ( ( path == null ) || !deprecated ) )
+        {
+            if ( path == null )
+            {
+                path = parentMethod.getAnnotation( Path.class );
+                if ( path != null )
+                {
+                    annotatedMethod = parentMethod;
+                }
+            }
+            if ( !deprecated )
+            {
+                deprecated = parentMethod.isAnnotationPresent( Deprecated.class );
+            }
+            parentMethod = reflectionUtil.getParentMethod( parentMethod );
+        }
+        String operationPath;
+        if ( path == null )
+        {
+            if ( !method.getDeclaringClass().isAnnotationPresent( Path.class ) )
+            {
+                return null;
+            }
+            annotatedMethod = method;
+            operationPath = "/";
+        }
+        else if ( path.value().startsWith( "/" ) )
+        {
+            operationPath = path.value();
+        }
+        else
+        {
+            operationPath = "/" + path.value();
+        }
+        return new MethodMetadata( method, annotatedMethod, operationPath, deprecated );
+    }
+
+    /**
+     * @return the {@link MethodMetadata} of all service operations in the order of {@link Class#getMethods()}.
+     */
+    public Collection<MethodMetadata> getOperations()
+    {
+        return this.operations.values();
+    }
+
+    /**
+     * @param method the {@link Method} of the service.
+     * @return the {@link MethodMetadata} of the given {@link Method} or <code>null</code> if not a service operation.
+     */
+    public MethodMetadata get( Method method )
+    {
+        return this.operations.get( method );
+    }
+
+}
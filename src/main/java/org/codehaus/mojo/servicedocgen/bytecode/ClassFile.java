@@ -0,0 +1,701 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lightweight reader for the Java class file format. It only indexes the constant pool and the top-level structure so
+ * information about a type can be read without loading it into the JVM (and without initializing it).
+ *
+ * @see #read(File)
+ * @author hohwille
+ */
+public class ClassFile
+{
+
+    /** Name of the attribute with the annotations visible at runtime. */
+    public static final String ATTRIBUTE_RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    /** Name of the attribute listing the nested classes. */
+    public static final String ATTRIBUTE_INNER_CLASSES = "InnerClasses";
+
+    /** Name of the attribute with the value of a compile-time constant field. */
+    public static final String ATTRIBUTE_CONSTANT_VALUE = "ConstantValue";
+
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int TAG_UTF8 = 1;
+
+    private static final int TAG_INTEGER = 3;
+
+    private static final int TAG_FLOAT = 4;
+
+    private static final int TAG_LONG = 5;
+
+    private static final int TAG_DOUBLE = 6;
+
+    private static final int TAG_CLASS = 7;
+
+    private static final int TAG_STRING = 8;
+
+    private static final int TAG_FIELDREF = 9;
+
+    private static final int TAG_METHODREF = 10;
+
+    private static final int TAG_INTERFACE_METHODREF = 11;
+
+    private static final int TAG_NAME_AND_TYPE = 12;
+
+    private static final int TAG_METHOD_HANDLE = 15;
+
+    private static final int TAG_METHOD_TYPE = 16;
+
+    private static final int TAG_DYNAMIC = 17;
+
+    private static final int TAG_INVOKE_DYNAMIC = 18;
+
+    private static final int TAG_MODULE = 19;
+
+    private static final int TAG_PACKAGE = 20;
+
+    private final byte[] data;
+
+    private final int[] constantOffsets;
+
+    private final String[] constantStrings;
+
+    private final int accessFlags;
+
+    private final int thisClassIndex;
+
+    private final int superClassIndex;
+
+    private final int interfacesOffset;
+
+    private final int fieldsOffset;
+
+    private final int methodsOffset;
+
+    private final int attributesOffset;
+
+    /**
+     * The constructor.
+     *
+     * @param data the raw bytes of the class file.
+     * @throws IOException if the given data is not a valid class file.
+     */
+    public ClassFile( byte[] data )
+        throws IOException
+    {
+        super();
+        this.data = data;
+        try
+        {
+            if ( readInt( 0 ) != MAGIC )
+            {
+                throw new IOException( "Not a class file!" );
+            }
+            int constantCount = readUnsignedShort( 8 );
+            this.constantOffsets = new int[constantCount];
+            this.constantStrings = new String[constantCount];
+            int offset = 10;
+            for ( int i = 1; i < constantCount; i++ )
+            {
+                this.constantOffsets[i] = offset;
+                int tag = data[offset];
+                switch ( tag )
+                {
+                    case TAG_UTF8:
+                        offset += 3 + readUnsignedShort( offset + 1 );
+                        break;
+                    case TAG_INTEGER:
+                    case TAG_FLOAT:
+                    case TAG_FIELDREF:
+                    case TAG_METHODREF:
+                    case TAG_INTERFACE_METHODREF:
+                    case TAG_NAME_AND_TYPE:
+                    case TAG_DYNAMIC:
+                    case TAG_INVOKE_DYNAMIC:
+                        offset += 5;
+                        break;
+                    case TAG_LONG:
+                    case TAG_DOUBLE:
+                        offset += 9;
+                        // long and double take two slots in the constant pool
+                        i++;
+                        break;
+                    case TAG_CLASS:
+                    case TAG_STRING:
+                    case TAG_METHOD_TYPE:
+                    case TAG_MODULE:
+                    case TAG_PACKAGE:
+                        offset += 3;
+                        break;
+                    case TAG_METHOD_HANDLE:
+                        offset += 4;
+                        break;
+                    default:
+                        throw new IOException( "Unknown constant pool tag " + tag + " at offset " + offset );
+                }
+            }
+            this.accessFlags = readUnsignedShort( offset );
+            this.thisClassIndex = readUnsignedShort( offset + 2 );
+            this.superClassIndex = readUnsignedShort( offset + 4 );
+            this.interfacesOffset = offset + 6;
+            int interfaceCount = readUnsignedShort( this.interfacesOffset );
+            offset = offset + 8 + ( 2 * interfaceCount );
+            this.fieldsOffset = offset;
+            offset = skipMembers( offset );
+            this.methodsOffset = offset;
+            offset = skipMembers( offset );
+            this.attributesOffset = offset;
+        }
+        catch ( ArrayIndexOutOfBoundsException e )
+        {
+            throw new IOException( "Truncated class file!", e );
+        }
+    }
+
+    /**
+     * @param file the class {@link File} to read.
+     * @return the parsed {@link ClassFile}.
+     * @throws IOException if the file could not be read or is not a valid class file.
+     */
+    public static ClassFile read( File file )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            return read( in );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * @param in the {@link InputStream} to read the class file from. Will NOT be closed.
+     * @return the parsed {@link ClassFile}.
+     * @throws IOException if the stream could not be read or is not a valid class file.
+     */
+    public static ClassFile read( InputStream in )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 4096 );
+        byte[] buffer = new byte[4096];
+        int count = in.read( buffer );
+        while ( count >= 0 )
+        {
+            out.write( buffer, 0, count );
+            count = in.read( buffer );
+        }
+        return new ClassFile( out.toByteArray() );
+    }
+
+    private int skipMembers( int membersOffset )
+    {
+        int count = readUnsignedShort( membersOffset );
+        int offset = membersOffset + 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            // access_flags, name_index, descriptor_index
+            offset = skipAttributes( offset + 6 );
+        }
+        return offset;
+    }
+
+    private int skipAttributes( int attributesStart )
+    {
+        int count = readUnsignedShort( attributesStart );
+        int offset = attributesStart + 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            offset = offset + 6 + readInt( offset + 2 );
+        }
+        return offset;
+    }
+
+    /**
+     * @param offset the offset in the class file.
+     * @return the unsigned 16 bit value at the given offset.
+     */
+    protected int readUnsignedShort( int offset )
+    {
+        return ( ( this.data[offset] & 0xFF ) << 8 ) | ( this.data[offset + 1] & 0xFF );
+    }
+
+    /**
+     * @param offset the offset in the class file.
+     * @return the 32 bit value at the given offset.
+     */
+    protected int readInt( int offset )
+    {
+        return ( ( this.data[offset] & 0xFF ) << 24 ) | ( ( this.data[offset + 1] & 0xFF ) << 16 )
+            | ( ( this.data[offset + 2] & 0xFF ) << 8 ) | ( this.data[offset + 3] & 0xFF );
+    }
+
+    /**
+     * @param index the index in the constant pool of a <code>CONSTANT_Utf8</code> entry.
+     * @return the decoded {@link String}.
+     */
+    public String getUtf8( int index )
+    {
+        String value = this.constantStrings[index];
+        if ( value == null )
+        {
+            int offset = this.constantOffsets[index];
+            if ( this.data[offset] != TAG_UTF8 )
+            {
+                throw new IllegalArgumentException( "Constant #" + index + " is not UTF8!" );
+            }
+            int length = readUnsignedShort( offset + 1 );
+            try
+            {
+                // modified UTF-8 as used in class files is the format of DataInput
+                value = new DataInputStream( new ByteArrayInputStream( this.data, offset + 1, length + 2 ) ).readUTF();
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( "Malformed UTF8 constant #" + index, e );
+            }
+            this.constantStrings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @param index the index in the constant pool of a <code>CONSTANT_Class</code> entry.
+     * @return the internal name of the class (e.g. "java/lang/String").
+     */
+    public String getClassInternalName( int index )
+    {
+        return getUtf8( readUnsignedShort( this.constantOffsets[index] + 1 ) );
+    }
+
+    /**
+     * Cheap check that does not decode any constant. If this method returns <code>false</code> the class file can not
+     * reference the given value in any way (e.g. as annotation type descriptor).
+     *
+     * @param value the ASCII value to look for.
+     * @return <code>true</code> if the constant pool contains a <code>CONSTANT_Utf8</code> entry with the given value,
+     *         <code>false</code> otherwise.
+     */
+    public boolean containsUtf8( String value )
+    {
+        int length = value.length();
+        for ( int i = 1; i < this.constantOffsets.length; i++ )
+        {
+            int offset = this.constantOffsets[i];
+            if ( ( offset > 0 ) && ( this.data[offset] == TAG_UTF8 ) && ( readUnsignedShort( offset + 1 ) == length ) )
+            {
+                int start = offset + 3;
+                int j = 0;
+                while ( ( j < length ) && ( this.data[start + j] == value.charAt( j ) ) )
+                {
+                    j++;
+                }
+                if ( j == length )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the access flags of the class (see {@link java.lang.reflect.Modifier}).
+     */
+    public int getAccessFlags()
+    {
+        return this.accessFlags;
+    }
+
+    /**
+     * @return the internal name of this class (e.g. "java/lang/String").
+     */
+    public String getInternalName()
+    {
+        return getClassInternalName( this.thisClassIndex );
+    }
+
+    /**
+     * @return the {@link Class#getName() qualified name} of this class.
+     */
+    public String getName()
+    {
+        return getInternalName().replace( '/', '.' );
+    }
+
+    /**
+     * @return the internal name of the super-class or <code>null</code> if this is {@link Object}.
+     */
+    public String getSuperInternalName()
+    {
+        if ( this.superClassIndex == 0 )
+        {
+            return null;
+        }
+        return getClassInternalName( this.superClassIndex );
+    }
+
+    /**
+     * @return the {@link List} with the internal names of the interfaces directly implemented by this class.
+     */
+    public List<String> getInterfaceInternalNames()
+    {
+        int count = readUnsignedShort( this.interfacesOffset );
+        List<String> names = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            names.add( getClassInternalName( readUnsignedShort( this.interfacesOffset + 2 + ( 2 * i ) ) ) );
+        }
+        return names;
+    }
+
+    /**
+     * @param annotationType the type descriptor (e.g. "Ljavax/ws/rs/Path;") of an annotation visible at runtime or
+     *            <code>null</code> for all methods.
+     * @return the {@link Set} with the names of the methods declared by this class (including constructors and
+     *         synthetic methods) that are annotated with the given annotation.
+     */
+    public Set<String> getMethodNames( String annotationType )
+    {
+        int count = readUnsignedShort( this.methodsOffset );
+        Set<String> names = new HashSet<String>( count );
+        int offset = this.methodsOffset + 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            int attributesStart = offset + 6;
+            int annotations = findAttribute( attributesStart, ATTRIBUTE_RUNTIME_VISIBLE_ANNOTATIONS );
+            if ( ( annotationType == null ) || readAnnotationTypes( annotations ).contains( annotationType ) )
+            {
+                names.add( getUtf8( readUnsignedShort( offset + 2 ) ) );
+            }
+            offset = skipAttributes( attributesStart );
+        }
+        return names;
+    }
+
+    /**
+     * @return the {@link Map} with the names of the static fields declared by this class that are compile-time
+     *         constants (having a {@link #ATTRIBUTE_CONSTANT_VALUE ConstantValue}) and their values as {@link Boolean},
+     *         {@link Character}, {@link Byte}, {@link Short}, {@link Integer}, {@link Long}, {@link Float},
+     *         {@link Double} or {@link String} according to the type of the field.
+     */
+    public Map<String, Object> getConstants()
+    {
+        Map<String, Object> constants = new HashMap<String, Object>();
+        int count = readUnsignedShort( this.fieldsOffset );
+        int offset = this.fieldsOffset + 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            int attributesStart = offset + 6;
+            if ( ( readUnsignedShort( offset ) & ACC_STATIC ) != 0 )
+            {
+                int attribute = findAttribute( attributesStart, ATTRIBUTE_CONSTANT_VALUE );
+                if ( attribute >= 0 )
+                {
+                    String name = getUtf8( readUnsignedShort( offset + 2 ) );
+                    String descriptor = getUtf8( readUnsignedShort( offset + 4 ) );
+                    Object value = getConstant( readUnsignedShort( attribute + 4 ) );
+                    constants.put( name, toFieldValue( descriptor, value ) );
+                }
+            }
+            offset = skipAttributes( attributesStart );
+        }
+        return constants;
+    }
+
+    private static Object toFieldValue( String descriptor, Object value )
+    {
+        if ( !( value instanceof Integer ) || ( descriptor.length() != 1 ) )
+        {
+            return value;
+        }
+        // boolean, char, byte and short constants are stored as int
+        int intValue = ( (Integer) value ).intValue();
+        switch ( descriptor.charAt( 0 ) )
+        {
+            case 'Z':
+                return Boolean.valueOf( intValue != 0 );
+            case 'C':
+                return Character.valueOf( (char) intValue );
+            case 'B':
+                return Byte.valueOf( (byte) intValue );
+            case 'S':
+                return Short.valueOf( (short) intValue );
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * @param name the name of the requested attribute.
+     * @return the offset of the requested class attribute (pointing to its <code>attribute_length</code>) or
+     *         <code>-1</code> if not present.
+     */
+    protected int findClassAttribute( String name )
+    {
+        return findAttribute( this.attributesOffset, name );
+    }
+
+    /**
+     * @param attributesStart the offset of the <code>attributes_count</code>.
+     * @param name the name of the requested attribute.
+     * @return the offset of the requested attribute (pointing to its <code>attribute_length</code>) or <code>-1</code>
+     *         if not present.
+     */
+    protected int findAttribute( int attributesStart, String name )
+    {
+        int count = readUnsignedShort( attributesStart );
+        int offset = attributesStart + 2;
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( name.equals( getUtf8( readUnsignedShort( offset ) ) ) )
+            {
+                return offset + 2;
+            }
+            offset = offset + 6 + readInt( offset + 2 );
+        }
+        return -1;
+    }
+
+    /**
+     * @return <code>true</code> if this class is nested in another class (member, local or anonymous class),
+     *         <code>false</code> for a top-level class.
+     */
+    public boolean isNested()
+    {
+        int offset = findClassAttribute( ATTRIBUTE_INNER_CLASSES );
+        if ( offset < 0 )
+        {
+            return false;
+        }
+        int count = readUnsignedShort( offset + 4 );
+        int entry = offset + 6;
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( readUnsignedShort( entry ) == this.thisClassIndex )
+            {
+                return true;
+            }
+            entry += 8;
+        }
+        return false;
+    }
+
+    /**
+     * @return the {@link List} of type descriptors (e.g. "Ljavax/ws/rs/Path;") of the annotations of this class that
+     *         are visible at runtime.
+     */
+    public List<String> getAnnotationTypes()
+    {
+        return readAnnotationTypes( findClassAttribute( ATTRIBUTE_RUNTIME_VISIBLE_ANNOTATIONS ) );
+    }
+
+    /**
+     * @param offset the offset of an annotations attribute (pointing to its <code>attribute_length</code>) or
+     *            <code>-1</code> if not present.
+     * @return the {@link List} of type descriptors of the annotations contained in the attribute.
+     */
+    private List<String> readAnnotationTypes( int offset )
+    {
+        if ( offset < 0 )
+        {
+            return Collections.emptyList();
+        }
+        int count = readUnsignedShort( offset + 4 );
+        List<String> types = new ArrayList<String>( count );
+        int annotation = offset + 6;
+        for ( int i = 0; i < count; i++ )
+        {
+            types.add( getUtf8( readUnsignedShort( annotation ) ) );
+            annotation = skipAnnotation( annotation );
+        }
+        return types;
+    }
+
+    /**
+     * @param index the index of a numeric or string constant in the constant pool.
+     * @return the constant value as {@link Integer}, {@link Long}, {@link Float}, {@link Double} or {@link String}.
+     */
+    public Object getConstant( int index )
+    {
+        int offset = this.constantOffsets[index];
+        switch ( this.data[offset] )
+        {
+            case TAG_INTEGER:
+                return Integer.valueOf( readInt( offset + 1 ) );
+            case TAG_FLOAT:
+                return Float.valueOf( Float.intBitsToFloat( readInt( offset + 1 ) ) );
+            case TAG_LONG:
+                return Long.valueOf( readLong( offset + 1 ) );
+            case TAG_DOUBLE:
+                return Double.valueOf( Double.longBitsToDouble( readLong( offset + 1 ) ) );
+            case TAG_STRING:
+                return getUtf8( readUnsignedShort( offset + 1 ) );
+            case TAG_UTF8:
+                return getUtf8( index );
+            default:
+                throw new IllegalArgumentException( "Constant #" + index + " is no value!" );
+        }
+    }
+
+    private long readLong( int offset )
+    {
+        return ( ( (long) readInt( offset ) ) << 32 ) | ( readInt( offset + 4 ) & 0xFFFFFFFFL );
+    }
+
+    /**
+     * @param type the {@link Class}.
+     * @return the type descriptor of the given {@link Class} (e.g. "Ljava/lang/String;" or "I").
+     */
+    public static String getDescriptor( Class<?> type )
+    {
+        if ( type.isArray() )
+        {
+            return type.getName().replace( '.', '/' );
+        }
+        if ( type.isPrimitive() )
+        {
+            if ( type == int.class )
+            {
+                return "I";
+            }
+            else if ( type == long.class )
+            {
+                return "J";
+            }
+            else if ( type == boolean.class )
+            {
+                return "Z";
+            }
+            else if ( type == byte.class )
+            {
+                return "B";
+            }
+            else if ( type == char.class )
+            {
+                return "C";
+            }
+            else if ( type == short.class )
+            {
+                return "S";
+            }
+            else if ( type == float.class )
+            {
+                return "F";
+            }
+            else if ( type == double.class )
+            {
+                return "D";
+            }
+            return "V";
+        }
+        return "L" + type.getName().replace( '.', '/' ) + ";";
+    }
+
+    /**
+     * @param annotationStart the offset of an <code>annotation</code> structure.
+     * @return the offset after the annotation.
+     */
+    protected int skipAnnotation( int annotationStart )
+    {
+        int pairs = readUnsignedShort( annotationStart + 2 );
+        int offset = annotationStart + 4;
+        for ( int i = 0; i < pairs; i++ )
+        {
+            offset = skipElementValue( offset + 2 );
+        }
+        return offset;
+    }
+
+    /**
+     * @param valueStart the offset of an <code>element_value</code> structure.
+     * @return the offset after the element value.
+     */
+    protected int skipElementValue( int valueStart )
+    {
+        char tag = (char) this.data[valueStart];
+        int offset = valueStart + 1;
+        switch ( tag )
+        {
+            case 'e':
+                return offset + 4;
+            case '@':
+                return skipAnnotation( offset );
+            case '[':
+                int count = readUnsignedShort( offset );
+                offset += 2;
+                for ( int i = 0; i < count; i++ )
+                {
+                    offset = skipElementValue( offset );
+                }
+                return offset;
+            default:
+                // const_value_index or class_info_index
+                return offset + 2;
+        }
+    }
+
+    /**
+     * @return the offset of the <code>fields_count</code>.
+     */
+    protected int getFieldsOffset()
+    {
+        return this.fieldsOffset;
+    }
+
+    /**
+     * @return the offset of the <code>methods_count</code>.
+     */
+    protected int getMethodsOffset()
+    {
+        return this.methodsOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+
+}
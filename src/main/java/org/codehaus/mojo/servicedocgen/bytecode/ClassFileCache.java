@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache for the {@link ClassFile}s read from the resources of a {@link ClassLoader}. The class files are only read as
+ * resources so the classes are neither loaded nor initialized. This class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class ClassFileCache
+{
+
+    private static final ClassFile MISSING;
+
+    static
+    {
+        try
+        {
+            // smallest valid class file: magic, version, empty constant pool, flags, this, super, no members
+            MISSING = new ClassFile( new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 0, 0, 1,
+                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 } );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private final ClassLoader classloader;
+
+    private final ConcurrentMap<String, ClassFile> classFiles;
+
+    /**
+     * The constructor.
+     *
+     * @param classloader the {@link ClassLoader} to read the class files from.
+     */
+    public ClassFileCache( ClassLoader classloader )
+    {
+        super();
+        this.classloader = classloader;
+        this.classFiles = new ConcurrentHashMap<String, ClassFile>();
+    }
+
+    /**
+     * @param internalName the internal name of the class (e.g. "java/lang/String").
+     * @return the {@link ClassFile} or <code>null</code> if not found or invalid.
+     */
+    public ClassFile get( String internalName )
+    {
+        ClassFile classFile = this.classFiles.get( internalName );
+        if ( classFile == null )
+        {
+            classFile = read( internalName );
+            if ( classFile == null )
+            {
+                classFile = MISSING;
+            }
+            this.classFiles.putIfAbsent( internalName, classFile );
+        }
+        if ( classFile == MISSING )
+        {
+            return null;
+        }
+        return classFile;
+    }
+
+    private ClassFile read( String internalName )
+    {
+        InputStream in = this.classloader.getResourceAsStream( internalName + ".class" );
+        if ( in == null )
+        {
+            return null;
+        }
+        try
+        {
+            try
+            {
+                return ClassFile.read( in );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,651 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.classpath;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.security.SecureClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Attributes.Name;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * {@link ClassLoader} for the classpath of a project. Unlike {@link java.net.URLClassLoader} it opens each jar file
+ * only once and builds an index from package to the jar files containing it so a class or resource is looked up in
+ * the jar files that actually contain its package instead of probing the entire classpath. Directories (e.g.
+ * <code>target/classes</code>) are not indexed as their content may change and are always probed. The candidates are
+ * probed in the order of the classpath. Classes are defined with the {@link CodeSource} of their classpath element and
+ * packages with the attributes of the manifest of their jar file. The state of the class files defined from directories
+ * is recorded so it can be {@link #isModified() detected} if a loaded class became stale. After use the
+ * {@link ProjectClassLoader} has to be {@link #close() closed} to release the jar files.
+ *
+ * @see ProjectClassLoaderCache
+ * @author hohwille
+ */
+public class ProjectClassLoader
+    extends SecureClassLoader
+    implements Closeable
+{
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final List<ClasspathEntry> directories;
+
+    private final List<ClasspathEntry> jarFiles;
+
+    private final Map<String, List<ClasspathEntry>> packageIndex;
+
+    private final URLStreamHandler jarHandler;
+
+    /** The state of the class files and package directories the defined classes depend on. */
+    private final Map<File, Long> fileStates;
+
+    private volatile boolean closed;
+
+    /**
+     * The constructor.
+     *
+     * @param classpathElements the {@link List} of the classpath elements (directories or jar files).
+     * @param parent the parent {@link ClassLoader}.
+     * @throws IOException if a jar file could not be opened.
+     */
+    public ProjectClassLoader( List<String> classpathElements, ClassLoader parent )
+        throws IOException
+    {
+        super( parent );
+        this.directories = new ArrayList<ClasspathEntry>();
+        this.jarFiles = new ArrayList<ClasspathEntry>();
+        this.packageIndex = new HashMap<String, List<ClasspathEntry>>();
+        this.jarHandler = new JarEntryHandler();
+        this.fileStates = new ConcurrentHashMap<File, Long>();
+        try
+        {
+            int index = 0;
+            for ( String element : classpathElements )
+            {
+                File file = new File( element );
+                if ( file.isDirectory() )
+                {
+                    this.directories.add( new ClasspathEntry( index++, file, null ) );
+                }
+                else if ( file.isFile() )
+                {
+                    addJarFile( index++, file );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            close();
+            throw e;
+        }
+    }
+
+    private void addJarFile( int index, File file )
+        throws IOException
+    {
+        JarFile jarFile = new JarFile( file );
+        ClasspathEntry classpathEntry = new ClasspathEntry( index, file, jarFile );
+        this.jarFiles.add( classpathEntry );
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while ( entries.hasMoreElements() )
+        {
+            JarEntry entry = entries.nextElement();
+            if ( !entry.isDirectory() )
+            {
+                String packagePath = getPackagePath( entry.getName() );
+                List<ClasspathEntry> list = this.packageIndex.get( packagePath );
+                if ( list == null )
+                {
+                    list = new ArrayList<ClasspathEntry>( 1 );
+                    this.packageIndex.put( packagePath, list );
+                }
+                if ( list.isEmpty() || ( list.get( list.size() - 1 ) != classpathEntry ) )
+                {
+                    list.add( classpathEntry );
+                }
+            }
+        }
+    }
+
+    private static String getPackagePath( String resourceName )
+    {
+        int lastSlash = resourceName.lastIndexOf( '/' );
+        if ( lastSlash < 0 )
+        {
+            return "";
+        }
+        return resourceName.substring( 0, lastSlash );
+    }
+
+    /**
+     * @param resourceName the name of the resource.
+     * @return the {@link List} of the directories and the jar files that may contain the given resource in the order
+     *         of the classpath.
+     */
+    private List<ClasspathEntry> getCandidates( String resourceName )
+    {
+        List<ClasspathEntry> jars = this.packageIndex.get( getPackagePath( resourceName ) );
+        if ( jars == null )
+        {
+            return this.directories;
+        }
+        if ( this.directories.isEmpty() )
+        {
+            return jars;
+        }
+        // merge both lists that are already sorted by their index
+        List<ClasspathEntry> candidates = new ArrayList<ClasspathEntry>( this.directories.size() + jars.size() );
+        int d = 0;
+        int j = 0;
+        while ( ( d < this.directories.size() ) && ( j < jars.size() ) )
+        {
+            if ( this.directories.get( d ).index < jars.get( j ).index )
+            {
+                candidates.add( this.directories.get( d++ ) );
+            }
+            else
+            {
+                candidates.add( jars.get( j++ ) );
+            }
+        }
+        candidates.addAll( this.directories.subList( d, this.directories.size() ) );
+        candidates.addAll( jars.subList( j, jars.size() ) );
+        return candidates;
+    }
+
+    /**
+     * @param name the name of the resource.
+     * @return the first {@link ClasspathEntry} containing the given resource or <code>null</code> if not found.
+     */
+    private ClasspathEntry findEntry( String name )
+    {
+        if ( this.closed )
+        {
+            return null;
+        }
+        for ( ClasspathEntry entry : getCandidates( name ) )
+        {
+            if ( entry.contains( name, false ) )
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if a class file defined by this {@link ProjectClassLoader} from a directory has been
+     *         modified or deleted or a class file has been added to a directory that would now hide a defined class,
+     *         <code>false</code> otherwise. Only the files of the defined classes are checked so this is cheap.
+     */
+    public boolean isModified()
+    {
+        for ( Map.Entry<File, Long> entry : this.fileStates.entrySet() )
+        {
+            if ( getState( entry.getKey() ) != entry.getValue().longValue() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getState( File file )
+    {
+        return 31 * file.lastModified() + file.length();
+    }
+
+    /**
+     * Records the state of the files the class defined from the given {@link ClasspathEntry} depends on. These are the
+     * class file itself if it is located in a directory and the package directories of all preceding directories as a
+     * class file added there would hide the defined class.
+     *
+     * @param resourceName the name of the class file.
+     * @param entry the {@link ClasspathEntry} containing the class file.
+     */
+    private void recordState( String resourceName, ClasspathEntry entry )
+    {
+        String packagePath = null;
+        for ( ClasspathEntry directory : this.directories )
+        {
+            if ( directory == entry )
+            {
+                File file = new File( directory.file, resourceName );
+                this.fileStates.put( file, Long.valueOf( getState( file ) ) );
+                return;
+            }
+            if ( directory.index > entry.index )
+            {
+                return;
+            }
+            if ( packagePath == null )
+            {
+                packagePath = getPackagePath( resourceName );
+            }
+            File packageDirectory = new File( directory.file, packagePath );
+            this.fileStates.put( packageDirectory, Long.valueOf( getState( packageDirectory ) ) );
+        }
+    }
+
+    /**
+     * @return <code>true</code> if this {@link ProjectClassLoader} has been {@link #close() closed},
+     *         <code>false</code> otherwise.
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<?> findClass( String name )
+        throws ClassNotFoundException
+    {
+        String resourceName = name.replace( '.', '/' ) + CLASS_FILE_EXTENSION;
+        ClasspathEntry entry = findEntry( resourceName );
+        if ( entry == null )
+        {
+            throw new ClassNotFoundException( name );
+        }
+        // recorded before reading so a concurrent modification is detected
+        recordState( resourceName, entry );
+        byte[] bytes;
+        CodeSigner[] signers;
+        try
+        {
+            if ( entry.jarFile == null )
+            {
+                bytes = readFully( new FileInputStream( new File( entry.file, resourceName ) ) );
+                signers = null;
+            }
+            else
+            {
+                JarEntry jarEntry = entry.jarFile.getJarEntry( resourceName );
+                bytes = readFully( entry.jarFile.getInputStream( jarEntry ) );
+                // only available after the entry has been read completely
+                signers = jarEntry.getCodeSigners();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ClassNotFoundException( name, e );
+        }
+        int lastDot = name.lastIndexOf( '.' );
+        if ( lastDot > 0 )
+        {
+            String packageName = name.substring( 0, lastDot );
+            if ( getPackage( packageName ) == null )
+            {
+                try
+                {
+                    definePackage( packageName, entry );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    // defined concurrently
+                }
+            }
+        }
+        return defineClass( name, bytes, 0, bytes.length, new CodeSource( entry.url, signers ) );
+    }
+
+    /**
+     * Defines the given package with the attributes of the manifest of the given {@link ClasspathEntry} (if any) like
+     * {@link java.net.URLClassLoader}.
+     *
+     * @param packageName the name of the package.
+     * @param entry the {@link ClasspathEntry} containing the package.
+     */
+    private void definePackage( String packageName, ClasspathEntry entry )
+    {
+        Manifest manifest = entry.manifest;
+        if ( manifest == null )
+        {
+            definePackage( packageName, null, null, null, null, null, null, null );
+            return;
+        }
+        String path = packageName.replace( '.', '/' ) + "/";
+        URL sealBase = null;
+        if ( "true".equalsIgnoreCase( getAttribute( manifest, path, Name.SEALED ) ) )
+        {
+            sealBase = entry.url;
+        }
+        definePackage( packageName, getAttribute( manifest, path, Name.SPECIFICATION_TITLE ),
+                       getAttribute( manifest, path, Name.SPECIFICATION_VERSION ),
+                       getAttribute( manifest, path, Name.SPECIFICATION_VENDOR ),
+                       getAttribute( manifest, path, Name.IMPLEMENTATION_TITLE ),
+                       getAttribute( manifest, path, Name.IMPLEMENTATION_VERSION ),
+                       getAttribute( manifest, path, Name.IMPLEMENTATION_VENDOR ), sealBase );
+    }
+
+    /**
+     * @param manifest the {@link Manifest}.
+     * @param path the path of the package.
+     * @param name the {@link Name} of the attribute.
+     * @return the value of the attribute from the section of the package or from the main section as fallback.
+     */
+    private static String getAttribute( Manifest manifest, String path, Name name )
+    {
+        Attributes attributes = manifest.getAttributes( path );
+        if ( attributes != null )
+        {
+            String value = attributes.getValue( name );
+            if ( value != null )
+            {
+                return value;
+            }
+        }
+        return manifest.getMainAttributes().getValue( name );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected URL findResource( String name )
+    {
+        ClasspathEntry entry = findEntry( name );
+        if ( entry == null )
+        {
+            return null;
+        }
+        return toUrl( entry, name );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Enumeration<URL> findResources( String name )
+        throws IOException
+    {
+        List<URL> urls = new ArrayList<URL>();
+        if ( !this.closed )
+        {
+            for ( ClasspathEntry entry : getCandidates( name ) )
+            {
+                if ( entry.contains( name, true ) )
+                {
+                    urls.add( toUrl( entry, name ) );
+                }
+            }
+        }
+        return Collections.enumeration( urls );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Resources of this {@link ProjectClassLoader} are read directly from the jar files without using (and leaking)
+     * the global cache of {@link java.net.JarURLConnection}.
+     */
+    @Override
+    public InputStream getResourceAsStream( String name )
+    {
+        ClassLoader parent = getParent();
+        if ( parent != null )
+        {
+            InputStream in = parent.getResourceAsStream( name );
+            if ( in != null )
+            {
+                return in;
+            }
+        }
+        return openResource( name );
+    }
+
+    private InputStream openResource( String name )
+    {
+        ClasspathEntry entry = findEntry( name );
+        if ( entry == null )
+        {
+            return null;
+        }
+        try
+        {
+            if ( entry.jarFile == null )
+            {
+                return new FileInputStream( new File( entry.file, name ) );
+            }
+            JarEntry jarEntry = entry.jarFile.getJarEntry( name );
+            if ( jarEntry != null )
+            {
+                return entry.jarFile.getInputStream( jarEntry );
+            }
+        }
+        catch ( IOException e )
+        {
+            // e.g. closed concurrently
+        }
+        return null;
+    }
+
+    private static byte[] readFully( InputStream in )
+        throws IOException
+    {
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count = in.read( buffer );
+            while ( count >= 0 )
+            {
+                out.write( buffer, 0, count );
+                count = in.read( buffer );
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static URL toUrl( File file )
+    {
+        try
+        {
+            return file.toURI().toURL();
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private URL toUrl( ClasspathEntry entry, String name )
+    {
+        if ( entry.jarFile == null )
+        {
+            return toUrl( new File( entry.file, name ) );
+        }
+        try
+        {
+            return new URL( null, entry.jarUrl + name, this.jarHandler );
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Closes all jar files. Classes already loaded remain usable but no further classes or resources can be loaded
+     * from this {@link ProjectClassLoader}.
+     */
+    public void close()
+    {
+        this.closed = true;
+        for ( ClasspathEntry entry : this.jarFiles )
+        {
+            try
+            {
+                entry.jarFile.close();
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * {@link URLStreamHandler} for the URLs of the entries of the jar files that reads them via the open
+     * {@link JarFile} of this {@link ProjectClassLoader}.
+     */
+    private class JarEntryHandler
+        extends URLStreamHandler
+    {
+
+        @Override
+        protected URLConnection openConnection( URL url )
+            throws IOException
+        {
+            final String spec = url.toString();
+            return new URLConnection( url )
+            {
+
+                private InputStream in;
+
+                @Override
+                public void connect()
+                    throws IOException
+                {
+                    if ( this.in == null )
+                    {
+                        this.in = openJarEntry( spec );
+                    }
+                    this.connected = true;
+                }
+
+                @Override
+                public InputStream getInputStream()
+                    throws IOException
+                {
+                    connect();
+                    return this.in;
+                }
+            };
+        }
+
+    }
+
+    private InputStream openJarEntry( String spec )
+        throws IOException
+    {
+        if ( !this.closed )
+        {
+            for ( ClasspathEntry entry : this.jarFiles )
+            {
+                String prefix = entry.jarUrl;
+                if ( spec.startsWith( prefix ) )
+                {
+                    JarEntry jarEntry = entry.jarFile.getJarEntry( spec.substring( prefix.length() ) );
+                    if ( jarEntry != null )
+                    {
+                        return entry.jarFile.getInputStream( jarEntry );
+                    }
+                }
+            }
+        }
+        throw new IOException( "Resource not available: " + spec );
+    }
+
+    /**
+     * A directory or jar file of the classpath.
+     */
+    private static final class ClasspathEntry
+    {
+
+        /** The position in the classpath. */
+        private final int index;
+
+        private final File file;
+
+        /** The opened jar file or <code>null</code> for a directory. */
+        private final JarFile jarFile;
+
+        private final String jarUrl;
+
+        private final Manifest manifest;
+
+        /** The {@link URL} of the {@link CodeSource}. */
+        private final URL url;
+
+        private ClasspathEntry( int index, File file, JarFile jarFile )
+            throws IOException
+        {
+            super();
+            this.index = index;
+            this.file = file;
+            this.jarFile = jarFile;
+            this.url = toUrl( file );
+            if ( jarFile == null )
+            {
+                this.jarUrl = null;
+                this.manifest = null;
+            }
+            else
+            {
+                this.jarUrl = "jar:" + this.url + "!/";
+                this.manifest = jarFile.getManifest();
+            }
+        }
+
+        /**
+         * @param name the name of the resource.
+         * @param directories - <code>true</code> to also accept a directory with the given name in a classpath
+         *            directory, <code>false</code> otherwise.
+         * @return <code>true</code> if this entry contains the given resource, <code>false</code> otherwise.
+         */
+        private boolean contains( String name, boolean directories )
+        {
+            if ( this.jarFile == null )
+            {
+                File child = new File( this.file, name );
+                return directories ? child.exists() : child.isFile();
+            }
+            return ( this.jarFile.getJarEntry( name ) != null );
+        }
+
+    }
+
+}
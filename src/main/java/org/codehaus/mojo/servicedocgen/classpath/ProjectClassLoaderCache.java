@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.classpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache for the {@link ProjectClassLoader}s of the projects. It lives as long as the classloader of this plugin (e.g.
+ * across builds in a Maven daemon) so a {@link ProjectClassLoader} is reused as long as the fingerprint of the
+ * classpath is unchanged and none of its loaded classes is {@link ProjectClassLoader#isModified() stale}. The
+ * fingerprint covers the path of every classpath element and the size and modification time of every jar file. If a
+ * {@link ProjectClassLoader} can not be reused, the previous one of the project is
+ * {@link ProjectClassLoader#close() closed}. The {@link ProjectClassLoader}s of projects that are not used in the
+ * current session are closed when the session {@link #release(Object) releases} the cache.
+ *
+ * @author hohwille
+ */
+public final class ProjectClassLoaderCache
+{
+
+    private static final ProjectClassLoaderCache INSTANCE = new ProjectClassLoaderCache();
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * The constructor.
+     */
+    private ProjectClassLoaderCache()
+    {
+        super();
+        this.entries = new HashMap<String, Entry>();
+    }
+
+    /**
+     * @return the singleton instance.
+     */
+    public static ProjectClassLoaderCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * @param projectId the unique ID of the project.
+     * @param session the key of the current session (e.g. its start time). May be <code>null</code>.
+     * @param classpathElements the {@link List} of the classpath elements (directories or jar files).
+     * @param parent the parent {@link ClassLoader}.
+     * @return the cached {@link ProjectClassLoader} if the classpath is unchanged, otherwise a new
+     *         {@link ProjectClassLoader} (and the previous one is closed).
+     * @throws IOException if a jar file could not be opened.
+     */
+    public synchronized ProjectClassLoader get( String projectId, Object session, List<String> classpathElements,
+                                                ClassLoader parent )
+        throws IOException
+    {
+        String fingerprint = fingerprint( classpathElements );
+        Entry entry = this.entries.get( projectId );
+        if ( entry != null )
+        {
+            if ( entry.fingerprint.equals( fingerprint ) && ( entry.classloader.getParent() == parent )
+                && !entry.classloader.isClosed() && !entry.classloader.isModified() )
+            {
+                entry.session = session;
+                return entry.classloader;
+            }
+            this.entries.remove( projectId );
+            entry.classloader.close();
+        }
+        ProjectClassLoader classloader = new ProjectClassLoader( classpathElements, parent );
+        this.entries.put( projectId, new Entry( fingerprint, classloader, session ) );
+        return classloader;
+    }
+
+    /**
+     * Closes and removes the cached {@link ProjectClassLoader}s that have not been used in the given session (e.g.
+     * of projects removed from the build) so they do not remain open for the lifetime of this plugin.
+     *
+     * @param session the key of the current session as given to {@link #get(String, Object, List, ClassLoader)}.
+     */
+    public synchronized void release( Object session )
+    {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while ( iterator.hasNext() )
+        {
+            Entry entry = iterator.next();
+            if ( ( session == null ) ? ( entry.session != null ) : !session.equals( entry.session ) )
+            {
+                iterator.remove();
+                entry.classloader.close();
+            }
+        }
+    }
+
+    /**
+     * Closes and removes all cached {@link ProjectClassLoader}s.
+     */
+    public synchronized void clear()
+    {
+        for ( Entry entry : this.entries.values() )
+        {
+            entry.classloader.close();
+        }
+        this.entries.clear();
+    }
+
+    private static String fingerprint( List<String> classpathElements )
+    {
+        StringBuilder fingerprint = new StringBuilder();
+        for ( String element : classpathElements )
+        {
+            File file = new File( element );
+            fingerprint.append( element ).append( '|' );
+            // the content of directories is verified by the ProjectClassLoader for the loaded classes only
+            if ( !file.isDirectory() )
+            {
+                fingerprint.append( file.length() ).append( '|' ).append( file.lastModified() ).append( '|' );
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * A cached {@link ProjectClassLoader} with the fingerprint of its classpath.
+     */
+    private static class Entry
+    {
+
+        private final String fingerprint;
+
+        private final ProjectClassLoader classloader;
+
+        /** The key of the session that used the {@link #classloader} last. */
+        private Object session;
+
+        private Entry( String fingerprint, ProjectClassLoader classloader, Object session )
+        {
+            super();
+            this.fingerprint = fingerprint;
+            this.classloader = classloader;
+            this.session = session;
+        }
+
+    }
+
+}
@@ -62,8 +62,6 @@ public class ErrorDescriptor
 
     private transient Pattern errorNamePattern;
 
-    private transient Class<?> errorClass;
-
     private String jsonExample = DEFAULT_JSON_EXAMPLE;
 
     private String xmlExample = DEFAULT_XML_EXAMPLE;
@@ -191,22 +189,6 @@ public class ErrorDescriptor
         this.match = match;
     }
 
-    /**
-     * @return the errorClass
-     */
-    public Class<?> getErrorClass()
-    {
-        return this.errorClass;
-    }
-
-    /**
-     * @param errorClass is the errorClass to set
-     */
-    public void setErrorClass( Class<?> errorClass )
-    {
-        this.errorClass = errorClass;
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,7 @@
  */
 package org.codehaus.mojo.servicedocgen.descriptor;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -33,9 +34,11 @@ import org.codehaus.mojo.servicedocgen.introspection.JMethod;
  */
 public class OperationDescriptor
     extends AbstractDescriptor
-    implements Comparable<OperationDescriptor>
+    implements Serializable, Comparable<OperationDescriptor>
 {
 
+    private static final long serialVersionUID = 1L;
+
     private String id;
 
     private String path;
@@ -54,7 +57,7 @@ public class OperationDescriptor
 
     private List<ResponseDescriptor> responses;
 
-    private JMethod javaMethod;
+    private transient JMethod javaMethod;
 
     /**
      * @return the id
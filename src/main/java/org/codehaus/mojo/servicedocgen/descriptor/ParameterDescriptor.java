@@ -18,6 +18,8 @@
  */
 package org.codehaus.mojo.servicedocgen.descriptor;
 
+import java.io.Serializable;
+
 import org.codehaus.mojo.servicedocgen.introspection.JParameter;
 
 /**
@@ -28,8 +30,11 @@ import org.codehaus.mojo.servicedocgen.introspection.JParameter;
  */
 public class ParameterDescriptor
     extends AbstractDescriptor
+    implements Serializable
 {
 
+    private static final long serialVersionUID = 1L;
+
     private String name;
 
     private String location;
@@ -44,7 +49,9 @@ public class ParameterDescriptor
 
     private String javaScriptType;
 
-    private JParameter javaParameter;
+    private String schemaName;
+
+    private transient JParameter javaParameter;
 
     /**
      * @return the name
@@ -168,6 +175,24 @@ public class ParameterDescriptor
         this.javaScriptType = javaScriptType;
     }
 
+    /**
+     * @return the name of the OpenAPI schema (<code>#/components/schemas/{name}</code>) of the type of this
+     *         parameter (or of its component type for arrays and collections) or <code>null</code> if no schema has
+     *         been written for it (e.g. for a simple type).
+     */
+    public String getSchemaName()
+    {
+        return this.schemaName;
+    }
+
+    /**
+     * @param schemaName is the schemaName to set
+     */
+    public void setSchemaName( String schemaName )
+    {
+        this.schemaName = schemaName;
+    }
+
     /**
      * @return the javaParameter
      */
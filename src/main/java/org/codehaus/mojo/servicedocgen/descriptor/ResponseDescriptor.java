@@ -18,6 +18,8 @@
  */
 package org.codehaus.mojo.servicedocgen.descriptor;
 
+import java.io.Serializable;
+
 import org.codehaus.mojo.servicedocgen.introspection.JElement;
 
 /**
@@ -28,7 +30,10 @@ import org.codehaus.mojo.servicedocgen.introspection.JElement;
  */
 public class ResponseDescriptor
     extends AbstractDescriptor
+    implements Serializable
 {
+
+    private static final long serialVersionUID = 1L;
     private String statusCode;
 
     private String reason;
@@ -39,7 +44,9 @@ public class ResponseDescriptor
 
     private String javaScriptType;
 
-    private JElement javaElement;
+    private String schemaName;
+
+    private transient JElement javaElement;
 
     /**
      * @return the statusCode
@@ -121,6 +128,24 @@ public class ResponseDescriptor
         this.javaScriptType = javaScriptType;
     }
 
+    /**
+     * @return the name of the OpenAPI schema (<code>#/components/schemas/{name}</code>) of the type of this
+     *         response (or of its component type for arrays and collections) or <code>null</code> if no schema has
+     *         been written for it (e.g. for a simple type).
+     */
+    public String getSchemaName()
+    {
+        return this.schemaName;
+    }
+
+    /**
+     * @param schemaName is the schemaName to set
+     */
+    public void setSchemaName( String schemaName )
+    {
+        this.schemaName = schemaName;
+    }
+
     /**
      * @return the javaElement
      */
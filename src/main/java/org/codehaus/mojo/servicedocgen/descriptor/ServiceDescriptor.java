@@ -18,6 +18,7 @@
  */
 package org.codehaus.mojo.servicedocgen.descriptor;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,8 +36,11 @@ import org.codehaus.mojo.servicedocgen.introspection.JType;
  */
 public class ServiceDescriptor
     extends AbstractDescriptor
+    implements Serializable
 {
 
+    private static final long serialVersionUID = 1L;
+
     private String id;
 
     private String name;
@@ -51,7 +55,7 @@ public class ServiceDescriptor
 
     private Set<String> produces;
 
-    private JType javaType;
+    private transient JType javaType;
 
     /**
      * @return the id
@@ -303,6 +303,29 @@ public class ServicesDescriptor
         this.schemaDefinitionYaml = schemaDefinitionYaml;
     }
 
+    /**
+     * @return a copy of this descriptor with its own {@link #getServices() services} and {@link #getErrors() errors}
+     *         that may be completed independently of this descriptor.
+     */
+    public ServicesDescriptor copy()
+    {
+        ServicesDescriptor copy = new ServicesDescriptor();
+        copy.info = this.info;
+        copy.host = this.host;
+        copy.port = this.port;
+        copy.basePath = this.basePath;
+        copy.javadocs = this.javadocs;
+        copy.schemes = this.schemes;
+        copy.consumes = this.consumes;
+        copy.produces = this.produces;
+        copy.getServices().addAll( getServices() );
+        copy.getErrors().addAll( getErrors() );
+        copy.externalDocs = this.externalDocs;
+        copy.schemaDefinitionJson = this.schemaDefinitionJson;
+        copy.schemaDefinitionYaml = this.schemaDefinitionYaml;
+        return copy;
+    }
+
     /**
      * @return a new default instance of {@link ServiceDescriptor}.
      */
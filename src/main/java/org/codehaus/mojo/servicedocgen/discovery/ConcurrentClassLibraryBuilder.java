@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.thoughtworks.qdox.library.AbstractClassLibrary;
+import com.thoughtworks.qdox.library.ClassLibraryBuilder;
+import com.thoughtworks.qdox.library.OrderedClassLibraryBuilder;
+import com.thoughtworks.qdox.library.SourceFolderLibrary;
+import com.thoughtworks.qdox.library.SourceLibrary;
+
+/**
+ * Extends {@link OrderedClassLibraryBuilder} of QDox to use a {@link ConcurrentSourceLibrary} so source files can be
+ * parsed concurrently and a {@link SourceIndexLibrary} instead of a {@link SourceFolderLibrary} to resolve classes
+ * from source folders on demand. Class loaders have to be appended before any source (folder) is added so the
+ * libraries are chained like with the default builder of QDox.
+ *
+ * @see #getConcurrentSourceLibrary()
+ * @see #getSourceIndexLibrary()
+ * @author hohwille
+ */
+public class ConcurrentClassLibraryBuilder
+    extends OrderedClassLibraryBuilder
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Log log;
+
+    private SourceIndexLibrary sourceIndexLibrary;
+
+    /**
+     * The constructor.
+     *
+     * @param log the {@link Log} for the {@link SourceIndexLibrary}.
+     */
+    public ConcurrentClassLibraryBuilder( Log log )
+    {
+        super();
+        this.log = log;
+    }
+
+    /**
+     * @return the {@link ConcurrentSourceLibrary} where sources are added to.
+     */
+    public ConcurrentSourceLibrary getConcurrentSourceLibrary()
+    {
+        return (ConcurrentSourceLibrary) getSourceLibrary();
+    }
+
+    /**
+     * @return the {@link SourceIndexLibrary} resolving classes from source folders on demand. It is configured like
+     *         the {@link #getConcurrentSourceLibrary() source library} (e.g. with the same encoding).
+     */
+    public SourceIndexLibrary getSourceIndexLibrary()
+    {
+        SourceLibrary sourceLibrary = getSourceLibrary();
+        this.sourceIndexLibrary.setEncoding( sourceLibrary.getEncoding() );
+        this.sourceIndexLibrary.setErrorHandler( sourceLibrary.getErrorHandler() );
+        this.sourceIndexLibrary.setDebugLexer( sourceLibrary.isDebugLexer() );
+        this.sourceIndexLibrary.setDebugParser( sourceLibrary.isDebugParser() );
+        return this.sourceIndexLibrary;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClassLibraryBuilder appendSourceFolder( File sourceFolder )
+    {
+        getSourceIndexLibrary().addSourceFolder( sourceFolder );
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected SourceLibrary newSourceLibrary( AbstractClassLibrary parent )
+    {
+        this.sourceIndexLibrary = new SourceIndexLibrary( parent, this.log );
+        return new ConcurrentSourceLibrary( this.sourceIndexLibrary );
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.thoughtworks.qdox.library.AbstractClassLibrary;
+import com.thoughtworks.qdox.library.SourceLibrary;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Extends {@link SourceLibrary} so that parsing and registering of a source file can be separated. Parsing via
+ * {@link #parseSource(File)} does not modify this library and may therefore be called from multiple threads
+ * concurrently. The results have to be {@link #registerSource(File, JavaSource) registered} afterwards from a single
+ * thread.
+ *
+ * @author hohwille
+ */
+public class ConcurrentSourceLibrary
+    extends SourceLibrary
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String PACKAGE_INFO = "package-info.java";
+
+    /**
+     * The constructor.
+     *
+     * @param parent the parent {@link AbstractClassLibrary}.
+     */
+    public ConcurrentSourceLibrary( AbstractClassLibrary parent )
+    {
+        super( parent );
+    }
+
+    /**
+     * Parses the given source file without {@link #registerSource(File, JavaSource) registering} it. This method is
+     * thread-safe.
+     *
+     * @param file the Java source {@link File} to parse.
+     * @return the parsed {@link JavaSource} or <code>null</code> for <code>package-info.java</code>.
+     * @throws IOException if the file could not be read.
+     */
+    public JavaSource parseSource( File file )
+        throws IOException
+    {
+        if ( PACKAGE_INFO.equals( file.getName() ) )
+        {
+            return null;
+        }
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            return parse( in, file.toURI().toURL() );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Registers a {@link JavaSource} previously {@link #parseSource(File) parsed}. The result is the same as if the
+     * file had been added via {@link #addSource(File)}. This method is NOT thread-safe.
+     *
+     * @param file the Java source {@link File} that has been parsed.
+     * @param source the {@link JavaSource} {@link #parseSource(File) parsed} from the given <code>file</code>. May be
+     *            <code>null</code>.
+     * @return the registered {@link JavaSource} or <code>null</code> if <code>source</code> was <code>null</code>.
+     * @throws IOException if the file could not be read.
+     */
+    public JavaSource registerSource( File file, JavaSource source )
+        throws IOException
+    {
+        if ( source == null )
+        {
+            return null;
+        }
+        if ( getJavaPackage( source.getPackageName() ) == null )
+        {
+            File packageInfo = new File( file.getParentFile(), PACKAGE_INFO );
+            if ( packageInfo.exists() )
+            {
+                // the package meta-data can only be registered by QDox itself...
+                return addSource( file );
+            }
+        }
+        registerJavaSource( source );
+        return source;
+    }
+
+}
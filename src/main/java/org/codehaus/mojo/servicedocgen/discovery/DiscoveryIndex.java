@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DiscoveryIndex} persists the result of service discovery per source file so an incremental build only has
+ * to parse the source files that changed since the previous build. Each source file is identified by its path and
+ * fingerprinted by its size, last modification time and a hash of its content. If only the modification time changed
+ * (e.g. after a fresh checkout) the content hash decides if the file is unchanged.
+ *
+ * @see ServiceScanner#setIndexFile(File)
+ * @author hohwille
+ */
+public class DiscoveryIndex
+{
+
+    private static final String HEADER = "#servicedocgen-discovery-index:1:";
+
+    private static final String HASH_ALGORITHM = "MD5";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final char SEPARATOR = '\t';
+
+    private static final String NAME_SEPARATOR = ",";
+
+    private final File file;
+
+    private final String key;
+
+    private final Map<String, Entry> loadedEntries;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * The constructor.
+     *
+     * @param file the index {@link File}.
+     * @param key the key of the configuration the discovery depends on. If it differs from the key of the persisted
+     *            index, the persisted index is discarded.
+     */
+    public DiscoveryIndex( File file, String key )
+    {
+        super();
+        this.file = file;
+        this.key = key;
+        this.loadedEntries = new HashMap<String, Entry>();
+        this.entries = new LinkedHashMap<String, Entry>();
+    }
+
+    /**
+     * @return the index {@link File}.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Loads the persisted index (if present and created for the same configuration).
+     *
+     * @throws IOException on I/O error.
+     */
+    public void load()
+        throws IOException
+    {
+        this.loadedEntries.clear();
+        if ( !this.file.isFile() )
+        {
+            return;
+        }
+        BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( this.file ), ENCODING ) );
+        try
+        {
+            String line = reader.readLine();
+            if ( !( HEADER + this.key ).equals( line ) )
+            {
+                return;
+            }
+            line = reader.readLine();
+            while ( line != null )
+            {
+                Entry entry = Entry.parse( line );
+                if ( entry == null )
+                {
+                    // corrupt index
+                    this.loadedEntries.clear();
+                    return;
+                }
+                this.loadedEntries.put( entry.path, entry );
+                line = reader.readLine();
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param sourceFile the source {@link File}.
+     * @return the {@link List} of the qualified names of the services declared in the given source file as recorded by
+     *         the persisted index or <code>null</code> if the file is not indexed, has changed since or can not be read
+     *         (e.g. because it has been deleted in the meantime).
+     */
+    public List<String> getServiceClassNames( File sourceFile )
+    {
+        String path = sourceFile.getAbsolutePath();
+        Entry entry = this.loadedEntries.get( path );
+        if ( ( entry == null ) || ( entry.size != sourceFile.length() ) )
+        {
+            return null;
+        }
+        long lastModified = sourceFile.lastModified();
+        if ( entry.lastModified != lastModified )
+        {
+            String hash = hashOrNull( sourceFile );
+            if ( !entry.hash.equals( hash ) )
+            {
+                return null;
+            }
+            entry = new Entry( path, entry.size, lastModified, entry.hash, entry.serviceClassNames );
+        }
+        this.entries.put( path, entry );
+        return entry.serviceClassNames;
+    }
+
+    /**
+     * Records the result of the discovery for the given source file. If the file can not be read anymore (e.g. because
+     * it has been deleted in the meantime) it is dropped from the index.
+     *
+     * @param sourceFile the scanned source {@link File}.
+     * @param serviceClassNames the {@link List} of the qualified names of the services declared in the given file.
+     */
+    public void put( File sourceFile, List<String> serviceClassNames )
+    {
+        String path = sourceFile.getAbsolutePath();
+        long size = sourceFile.length();
+        long lastModified = sourceFile.lastModified();
+        String hash = hashOrNull( sourceFile );
+        if ( hash == null )
+        {
+            this.entries.remove( path );
+        }
+        else
+        {
+            this.entries.put( path, new Entry( path, size, lastModified, hash, serviceClassNames ) );
+        }
+    }
+
+    /**
+     * Persists all entries {@link #put(File, List) recorded} or reused since the index was {@link #load() loaded}.
+     * Entries of source files not visited (e.g. deleted files) are dropped.
+     *
+     * @throws IOException on I/O error.
+     */
+    public void save()
+        throws IOException
+    {
+        File parent = this.file.getParentFile();
+        if ( ( parent != null ) && !parent.isDirectory() && !parent.mkdirs() )
+        {
+            throw new IOException( "Could not create directory " + parent );
+        }
+        Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( this.file ), ENCODING ) );
+        try
+        {
+            writer.write( HEADER );
+            writer.write( this.key );
+            writer.write( '\n' );
+            for ( Entry entry : this.entries.values() )
+            {
+                entry.write( writer );
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * @param sourceFile the source {@link File}.
+     * @return the hash of the content of the given file or <code>null</code> if it could not be read.
+     */
+    private static String hashOrNull( File sourceFile )
+    {
+        try
+        {
+            return hash( sourceFile );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private static String hash( File sourceFile )
+        throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( HASH_ALGORITHM );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+        InputStream in = new FileInputStream( sourceFile );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int count = in.read( buffer );
+            while ( count >= 0 )
+            {
+                digest.update( buffer, 0, count );
+                count = in.read( buffer );
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        StringBuilder sb = new StringBuilder();
+        for ( byte b : digest.digest() )
+        {
+            sb.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            sb.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * An entry of the index for a single source file.
+     */
+    private static class Entry
+    {
+
+        private final String path;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        private final List<String> serviceClassNames;
+
+        private Entry( String path, long size, long lastModified, String hash, List<String> serviceClassNames )
+        {
+            super();
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.serviceClassNames = serviceClassNames;
+        }
+
+        private static Entry parse( String line )
+        {
+            String[] segments = line.split( String.valueOf( SEPARATOR ), -1 );
+            if ( segments.length != 5 )
+            {
+                return null;
+            }
+            try
+            {
+                List<String> names;
+                if ( segments[4].length() == 0 )
+                {
+                    names = Collections.emptyList();
+                }
+                else
+                {
+                    names = Arrays.asList( segments[4].split( NAME_SEPARATOR ) );
+                }
+                return new Entry( segments[0], Long.parseLong( segments[1] ), Long.parseLong( segments[2] ),
+                                  segments[3], names );
+            }
+            catch ( NumberFormatException e )
+            {
+                return null;
+            }
+        }
+
+        private void write( Writer writer )
+            throws IOException
+        {
+            writer.write( this.path );
+            writer.write( SEPARATOR );
+            writer.write( Long.toString( this.size ) );
+            writer.write( SEPARATOR );
+            writer.write( Long.toString( this.lastModified ) );
+            writer.write( SEPARATOR );
+            writer.write( this.hash );
+            writer.write( SEPARATOR );
+            String separator = "";
+            for ( String name : this.serviceClassNames )
+            {
+                writer.write( separator );
+                writer.write( name );
+                separator = NAME_SEPARATOR;
+            }
+            writer.write( '\n' );
+        }
+
+    }
+
+}
@@ -0,0 +1,809 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Minimal reader of a Jandex annotation index (<code>META-INF/jandex.idx</code>) that only collects the classes
+ * annotated with a given annotation. The index is read sequentially without creating a model of the indexed classes.
+ * The index versions 2-3 and 6-13 are supported (written by Jandex 1.x up to 3.x).
+ *
+ * @author hohwille
+ */
+public final class JandexIndexReader
+{
+
+    /** The path of the Jandex index relative to the classes directory. */
+    public static final String INDEX_PATH = "META-INF/jandex.idx";
+
+    private static final int MAGIC = 0xBABE1F15;
+
+    private static final int MIN_VERSION_V1 = 2;
+
+    private static final int MAX_VERSION_V1 = 3;
+
+    private static final int MIN_VERSION_V2 = 6;
+
+    private static final int MAX_VERSION_V2 = 13;
+
+    private static final int TAG_NULL = 0;
+
+    private static final int TAG_FIELD = 1;
+
+    private static final int TAG_METHOD = 2;
+
+    private static final int TAG_METHOD_PARAMETER = 3;
+
+    private static final int TAG_CLASS = 4;
+
+    private static final int TAG_EMPTY_TYPE = 5;
+
+    private static final int TAG_CLASS_EXTENDS_TYPE = 6;
+
+    private static final int TAG_TYPE_PARAMETER = 7;
+
+    private static final int TAG_TYPE_PARAMETER_BOUND = 8;
+
+    private static final int TAG_METHOD_PARAMETER_TYPE = 9;
+
+    private static final int TAG_THROWS_TYPE = 10;
+
+    private static final int TAG_RECORD_COMPONENT = 11;
+
+    private static final int VALUE_BYTE = 1;
+
+    private static final int VALUE_SHORT = 2;
+
+    private static final int VALUE_INT = 3;
+
+    private static final int VALUE_CHAR = 4;
+
+    private static final int VALUE_FLOAT = 5;
+
+    private static final int VALUE_DOUBLE = 6;
+
+    private static final int VALUE_LONG = 7;
+
+    private static final int VALUE_BOOLEAN = 8;
+
+    private static final int VALUE_STRING = 9;
+
+    private static final int VALUE_CLASS = 10;
+
+    private static final int VALUE_ENUM = 11;
+
+    private static final int VALUE_ARRAY = 12;
+
+    private static final int VALUE_NESTED = 13;
+
+    private static final int KIND_CLASS = 0;
+
+    private static final int KIND_ARRAY = 1;
+
+    private static final int KIND_PRIMITIVE = 2;
+
+    private static final int KIND_VOID = 3;
+
+    private static final int KIND_TYPE_VARIABLE = 4;
+
+    private static final int KIND_UNRESOLVED_TYPE_VARIABLE = 5;
+
+    private static final int KIND_WILDCARD_TYPE = 6;
+
+    private static final int KIND_PARAMETERIZED_TYPE = 7;
+
+    private static final int KIND_TYPE_VARIABLE_REFERENCE = 8;
+
+    private static final int HAS_ENCLOSING_METHOD = 1;
+
+    private final DataInputStream in;
+
+    private final String annotationName;
+
+    private final Set<String> annotatedClasses;
+
+    private int version;
+
+    private String[] strings;
+
+    private String[] names;
+
+    private boolean[] typeListsRead;
+
+    private boolean[] annotationsRead;
+
+    /** The name of the class whose annotations are currently read or <code>null</code>. */
+    private String currentClass;
+
+    private JandexIndexReader( InputStream in, String annotationName )
+    {
+        super();
+        this.in = new DataInputStream( new BufferedInputStream( in ) );
+        this.annotationName = annotationName;
+        this.annotatedClasses = new TreeSet<String>();
+    }
+
+    /**
+     * @param indexFile the Jandex index file.
+     * @param annotationName the qualified name of the annotation.
+     * @return the {@link Class#getName() names} of the classes annotated with the given annotation at type level.
+     * @throws IOException if the index could not be read or has an unsupported version.
+     */
+    public static Set<String> readAnnotatedClasses( File indexFile, String annotationName )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( indexFile );
+        try
+        {
+            return readAnnotatedClasses( in, annotationName );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * @param in the {@link InputStream} to read the Jandex index from. Will not be closed.
+     * @param annotationName the qualified name of the annotation.
+     * @return the {@link Class#getName() names} of the classes annotated with the given annotation at type level.
+     * @throws IOException if the index could not be read or has an unsupported version.
+     */
+    public static Set<String> readAnnotatedClasses( InputStream in, String annotationName )
+        throws IOException
+    {
+        JandexIndexReader reader = new JandexIndexReader( in, annotationName );
+        reader.read();
+        return reader.annotatedClasses;
+    }
+
+    private void read()
+        throws IOException
+    {
+        if ( this.in.readInt() != MAGIC )
+        {
+            throw new IOException( "Not a Jandex index!" );
+        }
+        this.version = this.in.readUnsignedByte();
+        if ( ( this.version >= MIN_VERSION_V1 ) && ( this.version <= MAX_VERSION_V1 ) )
+        {
+            readV1();
+        }
+        else if ( ( this.version >= MIN_VERSION_V2 ) && ( this.version <= MAX_VERSION_V2 ) )
+        {
+            readV2();
+        }
+        else
+        {
+            throw new IOException( "Unsupported Jandex index version " + this.version + "!" );
+        }
+    }
+
+    private int readPacked()
+        throws IOException
+    {
+        int value = 0;
+        int b;
+        do
+        {
+            b = this.in.readByte();
+            value = ( value << 7 ) | ( b & 0x7F );
+        }
+        while ( ( b & 0x80 ) == 0x80 );
+        return value;
+    }
+
+    private void skipPacked( int count )
+        throws IOException
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            readPacked();
+        }
+    }
+
+    private void skipFully( int length )
+        throws IOException
+    {
+        int remaining = length;
+        while ( remaining > 0 )
+        {
+            int skipped = this.in.skipBytes( remaining );
+            if ( skipped <= 0 )
+            {
+                // force EOFException
+                this.in.readByte();
+                skipped = 1;
+            }
+            remaining = remaining - skipped;
+        }
+    }
+
+    private static String getName( String prefix, String local, boolean inner )
+    {
+        if ( prefix == null )
+        {
+            return local;
+        }
+        return prefix + ( inner ? '$' : '.' ) + local;
+    }
+
+    private void addIfMatching( String annotation )
+    {
+        if ( ( this.currentClass != null ) && this.annotationName.equals( annotation ) )
+        {
+            this.annotatedClasses.add( this.currentClass );
+        }
+    }
+
+    // --- version 2-3 ---
+
+    private void readV1()
+        throws IOException
+    {
+        // class table with the null entry first
+        int entries = readPacked() + 1;
+        this.names = new String[entries];
+        int[] prefixes = new int[entries];
+        int lastDepth = -1;
+        int current = 0;
+        for ( int i = 1; i < entries; i++ )
+        {
+            int depth = readPacked();
+            String local = this.in.readUTF();
+            if ( depth <= lastDepth )
+            {
+                while ( lastDepth-- >= depth )
+                {
+                    current = prefixes[current];
+                }
+            }
+            prefixes[i] = current;
+            this.names[i] = getName( this.names[current], local, false );
+            current = i;
+            lastDepth = depth;
+        }
+        // string table
+        int stringCount = readPacked();
+        for ( int i = 0; i < stringCount; i++ )
+        {
+            this.in.readUTF();
+        }
+        int classCount = readPacked();
+        for ( int i = 0; i < classCount; i++ )
+        {
+            readClassV1();
+        }
+    }
+
+    private void readClassV1()
+        throws IOException
+    {
+        String className = this.names[readPacked()];
+        // super class
+        readPacked();
+        // flags
+        this.in.readShort();
+        if ( this.version >= 3 )
+        {
+            // has no-args constructor
+            this.in.readBoolean();
+        }
+        skipPacked( readPacked() );
+        int annotationCount = readPacked();
+        for ( int i = 0; i < annotationCount; i++ )
+        {
+            String annotation = this.names[readPacked()];
+            int targetCount = readPacked();
+            for ( int j = 0; j < targetCount; j++ )
+            {
+                int tag = readPacked();
+                switch ( tag )
+                {
+                    case TAG_FIELD:
+                        readPacked();
+                        readTypeV1();
+                        this.in.readShort();
+                        break;
+                    case TAG_METHOD:
+                        readMethodV1();
+                        break;
+                    case TAG_METHOD_PARAMETER:
+                        readMethodV1();
+                        readPacked();
+                        break;
+                    case TAG_CLASS:
+                        if ( this.annotationName.equals( annotation ) )
+                        {
+                            this.annotatedClasses.add( className );
+                        }
+                        break;
+                    default:
+                        throw new IOException( "Invalid annotation target tag " + tag + "!" );
+                }
+                readAnnotationValuesV1();
+            }
+        }
+    }
+
+    private void readMethodV1()
+        throws IOException
+    {
+        // name
+        readPacked();
+        int parameterCount = readPacked();
+        for ( int i = 0; i < parameterCount; i++ )
+        {
+            readTypeV1();
+        }
+        // return type
+        readTypeV1();
+        // flags
+        this.in.readShort();
+    }
+
+    private void readTypeV1()
+        throws IOException
+    {
+        // kind and name
+        this.in.readByte();
+        readPacked();
+    }
+
+    private void readAnnotationValuesV1()
+        throws IOException
+    {
+        int count = readPacked();
+        for ( int i = 0; i < count; i++ )
+        {
+            // name
+            readPacked();
+            int tag = this.in.readByte();
+            if ( tag == VALUE_CLASS )
+            {
+                readTypeV1();
+            }
+            else if ( tag == VALUE_NESTED )
+            {
+                readPacked();
+                readAnnotationValuesV1();
+            }
+            else
+            {
+                readAnnotationValue( tag, false );
+            }
+        }
+    }
+
+    /**
+     * Reads an annotation value except for {@link #VALUE_CLASS} and {@link #VALUE_NESTED} that differ between the
+     * index versions.
+     *
+     * @param tag the tag of the value.
+     * @param v2 <code>true</code> for version 6 and above, <code>false</code> otherwise.
+     */
+    private void readAnnotationValue( int tag, boolean v2 )
+        throws IOException
+    {
+        switch ( tag )
+        {
+            case VALUE_BYTE:
+            case VALUE_BOOLEAN:
+                this.in.readByte();
+                break;
+            case VALUE_SHORT:
+            case VALUE_INT:
+            case VALUE_CHAR:
+            case VALUE_STRING:
+                readPacked();
+                break;
+            case VALUE_FLOAT:
+                this.in.readFloat();
+                break;
+            case VALUE_DOUBLE:
+                this.in.readDouble();
+                break;
+            case VALUE_LONG:
+                this.in.readLong();
+                break;
+            case VALUE_ENUM:
+                readPacked();
+                readPacked();
+                break;
+            case VALUE_ARRAY:
+                if ( v2 )
+                {
+                    readAnnotationValuesV2();
+                }
+                else
+                {
+                    readAnnotationValuesV1();
+                }
+                break;
+            default:
+                throw new IOException( "Invalid annotation value tag " + tag + "!" );
+        }
+    }
+
+    // --- version 6-13 ---
+
+    private void readV2()
+        throws IOException
+    {
+        // sizes of annotations, implementors, subinterfaces and subclasses
+        skipPacked( ( this.version >= 11 ) ? 4 : 3 );
+        int usersCount = 0;
+        if ( this.version >= 10 )
+        {
+            usersCount = readPacked();
+        }
+        // byte table
+        int byteCount = readPacked();
+        for ( int i = 0; i < byteCount; i++ )
+        {
+            skipFully( readPacked() );
+        }
+        // string table with the null entry first
+        this.strings = new String[readPacked() + 1];
+        for ( int i = 1; i < this.strings.length; i++ )
+        {
+            this.strings[i] = this.in.readUTF();
+        }
+        readNameTable();
+        int typeCount = readPacked() + 1;
+        this.typeListsRead = new boolean[readPacked() + 1];
+        this.annotationsRead = new boolean[readPacked() + 1];
+        for ( int i = 1; i < typeCount; i++ )
+        {
+            readTypeEntry();
+        }
+        // already read type lists are omitted
+        for ( int i = 1; i < this.typeListsRead.length; i++ )
+        {
+            if ( !this.typeListsRead[i] )
+            {
+                this.typeListsRead[i] = true;
+                skipPacked( readPacked() );
+            }
+        }
+        for ( int i = 0; i < usersCount; i++ )
+        {
+            readPacked();
+            skipPacked( readPacked() );
+        }
+        int methodCount = readPacked();
+        for ( int i = 0; i < methodCount; i++ )
+        {
+            readMethodEntry();
+        }
+        int fieldCount = readPacked();
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            // name, flags and type
+            skipPacked( 3 );
+            readAnnotations();
+        }
+        if ( this.version >= 10 )
+        {
+            int recordComponentCount = readPacked();
+            for ( int i = 0; i < recordComponentCount; i++ )
+            {
+                // name and type
+                skipPacked( 2 );
+                readAnnotations();
+            }
+        }
+        // the modules following the classes are not needed
+        int classCount = readPacked();
+        for ( int i = 0; i < classCount; i++ )
+        {
+            readClassEntry();
+        }
+    }
+
+    private void readNameTable()
+        throws IOException
+    {
+        // null is the implicit first entry
+        int entries = readPacked() + 1;
+        this.names = new String[entries];
+        int[] prefixes = new int[entries];
+        int lastDepth = -1;
+        int current = 0;
+        for ( int i = 1; i < entries; i++ )
+        {
+            if ( this.version >= 11 )
+            {
+                int prefixOffset = readPacked();
+                boolean inner = ( ( prefixOffset & 1 ) == 1 );
+                prefixOffset = prefixOffset >> 1;
+                int prefix = ( prefixOffset == 0 ) ? 0 : i - prefixOffset;
+                this.names[i] = getName( this.names[prefix], this.strings[readPacked()], inner );
+            }
+            else
+            {
+                int depth = readPacked();
+                boolean inner = ( ( depth & 1 ) == 1 );
+                depth = depth >> 1;
+                String local = this.strings[readPacked()];
+                if ( depth <= lastDepth )
+                {
+                    while ( lastDepth-- >= depth )
+                    {
+                        current = prefixes[current];
+                    }
+                }
+                prefixes[i] = current;
+                this.names[i] = getName( this.names[current], local, inner );
+                current = i;
+                lastDepth = depth;
+            }
+        }
+    }
+
+    private void readTypeEntry()
+        throws IOException
+    {
+        int kind = this.in.readUnsignedByte();
+        switch ( kind )
+        {
+            case KIND_CLASS:
+            case KIND_UNRESOLVED_TYPE_VARIABLE:
+                // name or identifier
+                readPacked();
+                break;
+            case KIND_ARRAY:
+            case KIND_WILDCARD_TYPE:
+                // dimensions and component type or extends flag and bound
+                skipPacked( 2 );
+                break;
+            case KIND_PRIMITIVE:
+                this.in.readUnsignedByte();
+                break;
+            case KIND_VOID:
+                break;
+            case KIND_TYPE_VARIABLE:
+                // identifier and bounds
+                readPacked();
+                readTypeListReference();
+                break;
+            case KIND_PARAMETERIZED_TYPE:
+                // name, owner and arguments
+                skipPacked( 2 );
+                readTypeListReference();
+                break;
+            case KIND_TYPE_VARIABLE_REFERENCE:
+                // identifier, position and (since version 12) class name
+                skipPacked( ( this.version >= 12 ) ? 3 : 2 );
+                break;
+            default:
+                throw new IOException( "Invalid type kind " + kind + "!" );
+        }
+        readAnnotations();
+    }
+
+    private void readTypeListReference()
+        throws IOException
+    {
+        int reference = readPacked();
+        if ( !this.typeListsRead[reference] )
+        {
+            this.typeListsRead[reference] = true;
+            skipPacked( readPacked() );
+        }
+    }
+
+    private void readAnnotations()
+        throws IOException
+    {
+        int count = readPacked();
+        for ( int i = 0; i < count; i++ )
+        {
+            int reference = readPacked();
+            if ( !this.annotationsRead[reference] )
+            {
+                this.annotationsRead[reference] = true;
+                readAnnotationEntry();
+            }
+        }
+    }
+
+    private void readAnnotationEntry()
+        throws IOException
+    {
+        String annotation = this.names[readPacked()];
+        int tag = this.in.readByte();
+        switch ( tag )
+        {
+            case TAG_CLASS:
+                addIfMatching( annotation );
+                break;
+            case TAG_NULL:
+            case TAG_FIELD:
+            case TAG_METHOD:
+            case TAG_RECORD_COMPONENT:
+                break;
+            case TAG_METHOD_PARAMETER:
+                readPacked();
+                break;
+            case TAG_EMPTY_TYPE:
+            case TAG_CLASS_EXTENDS_TYPE:
+            case TAG_TYPE_PARAMETER:
+            case TAG_METHOD_PARAMETER_TYPE:
+            case TAG_THROWS_TYPE:
+                skipPacked( 2 );
+                break;
+            case TAG_TYPE_PARAMETER_BOUND:
+                skipPacked( 3 );
+                break;
+            default:
+                throw new IOException( "Invalid annotation target tag " + tag + "!" );
+        }
+        readAnnotationValuesV2();
+        if ( this.version >= 11 )
+        {
+            // visible
+            this.in.readBoolean();
+        }
+    }
+
+    private void readAnnotationValuesV2()
+        throws IOException
+    {
+        int count = readPacked();
+        for ( int i = 0; i < count; i++ )
+        {
+            readAnnotationValueV2();
+        }
+    }
+
+    private void readAnnotationValueV2()
+        throws IOException
+    {
+        // name
+        readPacked();
+        int tag = this.in.readByte();
+        if ( tag == VALUE_CLASS )
+        {
+            readPacked();
+        }
+        else if ( tag == VALUE_NESTED )
+        {
+            int reference = readPacked();
+            if ( !this.annotationsRead[reference] )
+            {
+                this.annotationsRead[reference] = true;
+                String className = this.currentClass;
+                this.currentClass = null;
+                readAnnotationEntry();
+                this.currentClass = className;
+            }
+        }
+        else
+        {
+            readAnnotationValue( tag, true );
+        }
+    }
+
+    private void readMethodEntry()
+        throws IOException
+    {
+        // name, flags, type parameters, receiver type, return type and parameters
+        skipPacked( 6 );
+        if ( this.version >= 11 )
+        {
+            // descriptor parameters
+            readPacked();
+        }
+        // exceptions
+        readPacked();
+        if ( ( this.version >= 7 ) && ( this.in.readByte() > 0 ) )
+        {
+            // default value
+            readAnnotationValueV2();
+        }
+        if ( this.version >= 8 )
+        {
+            // parameter names
+            skipPacked( readPacked() );
+        }
+        readAnnotations();
+    }
+
+    private void readClassEntry()
+        throws IOException
+    {
+        String className = this.names[readPacked()];
+        // flags
+        readPacked();
+        if ( this.version >= 11 )
+        {
+            // has no-args constructor
+            this.in.readBoolean();
+        }
+        // super type, type parameters and interfaces
+        skipPacked( 3 );
+        boolean hasNesting = true;
+        boolean hasEnclosingMethod = true;
+        if ( this.version >= 9 )
+        {
+            int nestingMask = this.in.readUnsignedByte();
+            hasNesting = ( nestingMask > 0 );
+            hasEnclosingMethod = ( ( nestingMask & 2 ) == 2 );
+        }
+        if ( hasNesting )
+        {
+            // enclosing class and simple name
+            skipPacked( 2 );
+            if ( this.version >= 13 )
+            {
+                // enclosing class in initializer
+                readPacked();
+            }
+            if ( hasEnclosingMethod
+                && ( ( this.version >= 9 ) || ( this.in.readUnsignedByte() == HAS_ENCLOSING_METHOD ) ) )
+            {
+                // name, class, return type and parameters
+                skipPacked( 4 );
+            }
+        }
+        if ( this.version >= 11 )
+        {
+            // member classes
+            skipPacked( readPacked() );
+        }
+        if ( this.version >= 12 )
+        {
+            // permitted subclasses
+            skipPacked( readPacked() );
+        }
+        int annotationCount = readPacked();
+        // fields
+        skipPacked( readPacked() );
+        if ( this.version >= 10 )
+        {
+            // field positions
+            readPacked();
+        }
+        // methods
+        skipPacked( readPacked() );
+        if ( this.version >= 10 )
+        {
+            // method positions, record components and record component positions
+            readPacked();
+            skipPacked( readPacked() );
+            readPacked();
+        }
+        this.currentClass = className;
+        for ( int i = 0; i < annotationCount; i++ )
+        {
+            readAnnotations();
+        }
+        this.currentClass = null;
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Filter for the packages to scan for services. The packages are given as directory paths relative to the source (or
+ * classes) folder (e.g. <code>com/example/internal</code>) and matched against glob patterns where <code>*</code>
+ * matches any characters except <code>/</code>, <code>?</code> matches a single character and <code>**</code> matches
+ * any number of directories (e.g. <code>**&#47;internal/**</code>). Dots in patterns are treated like slashes so
+ * <code>com.example.**</code> also works.<br>
+ * The filter is applied during the directory walk: directories that can not contain an included package or that are
+ * excluded with all their sub-packages (pattern ending with <code>/**</code>) are not entered at all.
+ *
+ * @author hohwille
+ */
+public class PackageFilter
+{
+
+    private static final String ANY_DIRECTORIES = "**";
+
+    private final List<Segment[]> includes;
+
+    private final List<Segment[]> excludes;
+
+    /**
+     * The constructor.
+     *
+     * @param includes the {@link List} of glob patterns for the packages to include. If empty, all packages are
+     *            included. May be <code>null</code>.
+     * @param excludes the {@link List} of glob patterns for the packages to exclude. May be <code>null</code>.
+     */
+    public PackageFilter( List<String> includes, List<String> excludes )
+    {
+        super();
+        this.includes = compile( includes );
+        this.excludes = compile( excludes );
+    }
+
+    private static List<Segment[]> compile( List<String> patterns )
+    {
+        if ( ( patterns == null ) || patterns.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+        List<Segment[]> result = new ArrayList<Segment[]>( patterns.size() );
+        for ( String pattern : patterns )
+        {
+            String path = pattern.trim().replace( '.', '/' ).replace( '\\', '/' );
+            String[] segments = split( path );
+            Segment[] compiled = new Segment[segments.length];
+            for ( int i = 0; i < segments.length; i++ )
+            {
+                if ( ANY_DIRECTORIES.equals( segments[i] ) )
+                {
+                    compiled[i] = Segment.ANY_DIRECTORIES;
+                }
+                else
+                {
+                    compiled[i] = new Segment( compileSegment( segments[i] ) );
+                }
+            }
+            result.add( compiled );
+        }
+        return result;
+    }
+
+    private static Pattern compileSegment( String segment )
+    {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for ( int i = 0; i < segment.length(); i++ )
+        {
+            char c = segment.charAt( i );
+            if ( ( c == '*' ) || ( c == '?' ) )
+            {
+                if ( i > start )
+                {
+                    regex.append( Pattern.quote( segment.substring( start, i ) ) );
+                }
+                if ( c == '*' )
+                {
+                    regex.append( ".*" );
+                }
+                else
+                {
+                    regex.append( '.' );
+                }
+                start = i + 1;
+            }
+        }
+        if ( start < segment.length() )
+        {
+            regex.append( Pattern.quote( segment.substring( start ) ) );
+        }
+        return Pattern.compile( regex.toString() );
+    }
+
+    private static String[] split( String path )
+    {
+        if ( path.length() == 0 )
+        {
+            return new String[0];
+        }
+        List<String> segments = new ArrayList<String>();
+        for ( String segment : path.split( "/" ) )
+        {
+            if ( segment.length() > 0 )
+            {
+                segments.add( segment );
+            }
+        }
+        return segments.toArray( new String[segments.size()] );
+    }
+
+    /**
+     * @return <code>true</code> if this filter accepts all packages, <code>false</code> otherwise.
+     */
+    public boolean isAcceptAll()
+    {
+        return this.includes.isEmpty() && this.excludes.isEmpty();
+    }
+
+    /**
+     * @param path the package as directory path relative to the source folder (e.g. <code>com/example/api</code>).
+     * @return <code>true</code> if the classes of the given package shall be scanned, <code>false</code> otherwise.
+     */
+    public boolean isIncluded( String path )
+    {
+        String[] segments = split( path );
+        if ( !this.includes.isEmpty() && !matchesAny( this.includes, segments, false ) )
+        {
+            return false;
+        }
+        return !matchesAny( this.excludes, segments, false );
+    }
+
+    /**
+     * @param path the directory path relative to the source folder (e.g. <code>com/example</code>).
+     * @return <code>true</code> if the given directory (or one of its sub-directories) may contain an
+     *         {@link #isIncluded(String) included} package, <code>false</code> if it can be skipped.
+     */
+    public boolean isTraversable( String path )
+    {
+        String[] segments = split( path );
+        for ( Segment[] exclude : this.excludes )
+        {
+            // only prune if all sub-packages are excluded as well
+            if ( ( exclude.length > 0 ) && exclude[exclude.length - 1].isAnyDirectories()
+                && match( exclude, 0, segments, 0, false ) )
+            {
+                return false;
+            }
+        }
+        return this.includes.isEmpty() || matchesAny( this.includes, segments, true );
+    }
+
+    private static boolean matchesAny( List<Segment[]> patterns, String[] segments, boolean prefix )
+    {
+        for ( Segment[] pattern : patterns )
+        {
+            if ( match( pattern, 0, segments, 0, prefix ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param pattern the compiled pattern segments.
+     * @param p the current index in <code>pattern</code>.
+     * @param segments the path segments.
+     * @param s the current index in <code>segments</code>.
+     * @param prefix <code>true</code> if it is sufficient that the path is the beginning of a matching path.
+     * @return <code>true</code> if the path matches, <code>false</code> otherwise.
+     */
+    private static boolean match( Segment[] pattern, int p, String[] segments, int s, boolean prefix )
+    {
+        if ( s == segments.length )
+        {
+            if ( prefix )
+            {
+                return true;
+            }
+            for ( int i = p; i < pattern.length; i++ )
+            {
+                if ( !pattern[i].isAnyDirectories() )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if ( p == pattern.length )
+        {
+            return false;
+        }
+        Segment segmentPattern = pattern[p];
+        if ( segmentPattern.isAnyDirectories() )
+        {
+            // match zero or more directories
+            for ( int i = s; i <= segments.length; i++ )
+            {
+                if ( match( pattern, p + 1, segments, i, prefix ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if ( segmentPattern.matches( segments[s] ) )
+        {
+            return match( pattern, p + 1, segments, s + 1, prefix );
+        }
+        return false;
+    }
+
+    /**
+     * A compiled segment of a glob pattern that either matches a single directory name or any number of directories
+     * (<code>**</code>).
+     */
+    private static final class Segment
+    {
+
+        private static final Segment ANY_DIRECTORIES = new Segment( null );
+
+        private final Pattern pattern;
+
+        private Segment( Pattern pattern )
+        {
+            super();
+            this.pattern = pattern;
+        }
+
+        private boolean isAnyDirectories()
+        {
+            return ( this.pattern == null );
+        }
+
+        private boolean matches( String directoryName )
+        {
+            return this.pattern.matcher( directoryName ).matches();
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+/**
+ * The strategy used by {@link ServiceScanner} to discover services.
+ *
+ * @author hohwille
+ */
+public enum ServiceDiscovery
+{
+
+    /**
+     * Read the classes annotated with {@link javax.ws.rs.Path} from the Jandex annotation index
+     * (<code>META-INF/jandex.idx</code>) of the classes directory if present and use {@link #source} otherwise.
+     *
+     * @see JandexIndexReader
+     */
+    auto,
+
+    /** Parse the Java source files and check the parsed classes. */
+    source,
+
+    /**
+     * Read the compiled class files and only resolve the matching classes from source-code.
+     *
+     * @see org.codehaus.mojo.servicedocgen.bytecode.ClassFile
+     */
+    bytecode
+}
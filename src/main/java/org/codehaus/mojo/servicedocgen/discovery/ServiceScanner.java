@@ -0,0 +1,638 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.Path;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.servicedocgen.Util;
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFile;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaAnnotation;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * {@link ServiceScanner} discovers the (JAX-RS annotated) services from the source-code of a project. If configured
+ * with more than one {@link #setThreads(int) thread}, the source files are parsed concurrently while the result is
+ * identical to sequential scanning. If {@link #setPrefilter(boolean) pre-filtering} is enabled, only source files
+ * accepted by {@link ServiceSourceFilter} are parsed during the scan. Alternatively services can be discovered from
+ * the compiled class files via {@link #scanClasses(List, File)} or from a Jandex annotation index via
+ * {@link #scanIndex(List, File)}. With an {@link #setIndexFile(File) index file} the discovery is incremental and
+ * only source files changed since the previous scan are parsed.
+ *
+ * @see #scan(List, String)
+ * @author hohwille
+ */
+public class ServiceScanner
+{
+
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final String PATH_DESCRIPTOR = "L" + Path.class.getName().replace( '.', '/' ) + ";";
+
+    private final Log log;
+
+    private final Pattern classnamePattern;
+
+    private final ConcurrentClassLibraryBuilder libraryBuilder;
+
+    private final JavaProjectBuilder builder;
+
+    private final String encoding;
+
+    private int threads;
+
+    private FileFilter prefilter;
+
+    private File indexFile;
+
+    private PackageFilter packageFilter;
+
+    /**
+     * The constructor.
+     *
+     * @param log the {@link Log}.
+     * @param classnamePattern the {@link Pattern} that service classes have to match.
+     * @param encoding the encoding of the source files. May be <code>null</code> for default.
+     */
+    public ServiceScanner( Log log, Pattern classnamePattern, String encoding )
+    {
+        super();
+        this.log = log;
+        this.classnamePattern = classnamePattern;
+        this.encoding = encoding;
+        this.libraryBuilder = new ConcurrentClassLibraryBuilder( log );
+        this.libraryBuilder.appendDefaultClassLoaders();
+        this.builder = new JavaProjectBuilder( this.libraryBuilder );
+        if ( !Util.isEmpty( encoding ) )
+        {
+            this.builder.setEncoding( encoding );
+        }
+        this.threads = 1;
+    }
+
+    /**
+     * @return the {@link JavaProjectBuilder} containing the scanned source-code.
+     */
+    public JavaProjectBuilder getBuilder()
+    {
+        return this.builder;
+    }
+
+    /**
+     * @return the number of threads used to parse source files.
+     */
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * @param threads is the new value of {@link #getThreads()}. A value less or equal to <code>1</code> will parse
+     *            sequentially.
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * @return <code>true</code> if source files are pre-filtered by {@link ServiceSourceFilter} before they are parsed,
+     *         <code>false</code> otherwise.
+     */
+    public boolean isPrefilter()
+    {
+        return ( this.prefilter != null );
+    }
+
+    /**
+     * @param prefilter is the new value of {@link #isPrefilter()}.
+     */
+    public void setPrefilter( boolean prefilter )
+    {
+        if ( prefilter )
+        {
+            this.prefilter = new ServiceSourceFilter( this.classnamePattern, this.encoding );
+        }
+        else
+        {
+            this.prefilter = null;
+        }
+    }
+
+    /**
+     * @return the {@link PackageFilter} that restricts the packages to scan or <code>null</code> to scan all packages.
+     */
+    public PackageFilter getPackageFilter()
+    {
+        return this.packageFilter;
+    }
+
+    /**
+     * @param packageFilter is the new value of {@link #getPackageFilter()}.
+     */
+    public void setPackageFilter( PackageFilter packageFilter )
+    {
+        if ( ( packageFilter != null ) && packageFilter.isAcceptAll() )
+        {
+            this.packageFilter = null;
+        }
+        else
+        {
+            this.packageFilter = packageFilter;
+        }
+    }
+
+    /**
+     * @return the {@link File} of the persistent {@link DiscoveryIndex} or <code>null</code> if discovery is not
+     *         incremental.
+     */
+    public File getIndexFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+     * @param indexFile is the new value of {@link #getIndexFile()}. If not <code>null</code>, {@link #scan(List, String)}
+     *            only parses the source files that changed since the index was written.
+     */
+    public void setIndexFile( File indexFile )
+    {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Scans the given source folders for services.
+     *
+     * @param sourceRoots the {@link List} of source folders to scan.
+     * @param serviceClassName the fully qualified classname of the service or <code>null</code> for auto-discovery.
+     * @return the {@link List} of discovered service classes.
+     * @throws IOException on I/O error.
+     */
+    public List<JavaClass> scan( List<String> sourceRoots, String serviceClassName )
+        throws IOException
+    {
+        DiscoveryIndex index = null;
+        if ( ( this.indexFile != null ) && ( serviceClassName == null ) )
+        {
+            // the result of a file depends on this configuration
+            index = new DiscoveryIndex( this.indexFile, getIndexKey() );
+            loadIndex( index );
+        }
+        List<JavaClass> serviceClassList = new ArrayList<JavaClass>();
+        for ( String sourceDir : sourceRoots )
+        {
+            File sourceFolder = new File( sourceDir );
+            if ( sourceFolder.isDirectory() )
+            {
+                if ( serviceClassName == null )
+                {
+                    List<File> javaFiles = new ArrayList<File>();
+                    collectJavaFilesRecursive( sourceFolder, javaFiles );
+                    // classes are resolved from source on demand without probing the file-system
+                    Map<String, File> sourceIndex = new HashMap<String, File>( javaFiles.size() );
+                    for ( File file : javaFiles )
+                    {
+                        sourceIndex.put( SourceIndexLibrary.getClassName( sourceFolder, file ), file );
+                    }
+                    this.libraryBuilder.getSourceIndexLibrary().addSourceFiles( sourceIndex );
+                    if ( this.packageFilter != null )
+                    {
+                        // types from filtered packages (e.g. transfer-objects) still need to be resolved from source
+                        this.builder.addSourceFolder( sourceFolder );
+                    }
+                    scanFiles( javaFiles, index, serviceClassList );
+                }
+                else
+                {
+                    this.builder.addSourceFolder( sourceFolder );
+                }
+            }
+        }
+        if ( serviceClassName != null )
+        {
+            JavaClass type = this.builder.getClassByName( serviceClassName );
+            boolean isService = isServiceClass( type );
+            if ( isService )
+            {
+                serviceClassList.add( type );
+                this.log.info( "Discovered service: " + type );
+            }
+        }
+        if ( index != null )
+        {
+            saveIndex( index );
+        }
+        return serviceClassList;
+    }
+
+    /**
+     * @return the key of the configuration the result of the discovery of a single source file depends on.
+     */
+    String getIndexKey()
+    {
+        return this.classnamePattern.pattern() + "|prefilter=" + isPrefilter() + "|encoding=" + this.encoding;
+    }
+
+    private void loadIndex( DiscoveryIndex index )
+    {
+        try
+        {
+            index.load();
+        }
+        catch ( IOException e )
+        {
+            this.log.warn( "Could not read discovery index " + index.getFile() + " - scanning all files.", e );
+        }
+    }
+
+    private void saveIndex( DiscoveryIndex index )
+    {
+        try
+        {
+            index.save();
+        }
+        catch ( IOException e )
+        {
+            this.log.warn( "Could not write discovery index " + index.getFile(), e );
+        }
+    }
+
+    private void scanFiles( List<File> javaFiles, DiscoveryIndex index, List<JavaClass> serviceClasses )
+        throws IOException
+    {
+        List<File> parseFiles = javaFiles;
+        Map<File, List<String>> indexedFiles = Collections.emptyMap();
+        if ( index != null )
+        {
+            parseFiles = new ArrayList<File>();
+            indexedFiles = new HashMap<File, List<String>>();
+            for ( File file : javaFiles )
+            {
+                List<String> serviceClassNames = index.getServiceClassNames( file );
+                if ( serviceClassNames == null )
+                {
+                    parseFiles.add( file );
+                }
+                else
+                {
+                    indexedFiles.put( file, serviceClassNames );
+                }
+            }
+            this.log.debug( "Discovery index is up-to-date for " + indexedFiles.size() + " of " + javaFiles.size()
+                + " files." );
+        }
+        Map<File, JavaSource> sources;
+        if ( this.threads > 1 )
+        {
+            sources = parseConcurrently( parseFiles );
+        }
+        else
+        {
+            sources = parseSequentially( parseFiles );
+        }
+        // collect in the order of the files so the result is identical to a full or sequential scan
+        for ( File file : javaFiles )
+        {
+            List<String> serviceClassNames = indexedFiles.get( file );
+            if ( serviceClassNames != null )
+            {
+                for ( String className : serviceClassNames )
+                {
+                    this.log.info( "Found service: " + className );
+                    serviceClasses.add( this.builder.getClassByName( className ) );
+                }
+            }
+            else if ( sources.containsKey( file ) )
+            {
+                List<JavaClass> sourceServices = getServiceClasses( sources.get( file ) );
+                serviceClasses.addAll( sourceServices );
+                if ( index != null )
+                {
+                    List<String> classNames = new ArrayList<String>( sourceServices.size() );
+                    for ( JavaClass type : sourceServices )
+                    {
+                        classNames.add( type.getFullyQualifiedName() );
+                    }
+                    index.put( file, classNames );
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the compiled class files of the given classes directory for services. Only the constant pool and the
+     * class-level annotations are read so no class is loaded. The discovered services are then resolved from the given
+     * source folders (what requires the source files to be present for the javadoc).
+     *
+     * @param sourceRoots the {@link List} of source folders to resolve the discovered services from.
+     * @param classesDirectory the directory with the compiled classes (e.g. <code>target/classes</code>).
+     * @return the {@link List} of discovered service classes.
+     * @throws IOException on I/O error.
+     */
+    public List<JavaClass> scanClasses( List<String> sourceRoots, File classesDirectory )
+        throws IOException
+    {
+        List<File> classFiles = new ArrayList<File>();
+        collectFilesRecursive( classesDirectory, "", CLASS_FILE_EXTENSION, classFiles );
+        List<String> classNames = new ArrayList<String>();
+        for ( File file : classFiles )
+        {
+            String className = getServiceClassName( file );
+            if ( className != null )
+            {
+                classNames.add( className );
+            }
+        }
+        return getServiceClasses( sourceRoots, classNames );
+    }
+
+    /**
+     * Discovers the services from the given annotation index instead of scanning the source or class files. The
+     * classes annotated with {@link Path} are read from the index and filtered by the classname {@link Pattern} and
+     * the {@link #setPackageFilter(PackageFilter) package filter}. The discovered services are then resolved from the
+     * given source folders.
+     *
+     * @param sourceRoots the {@link List} of source folders to resolve the discovered services from.
+     * @param jandexIndex the Jandex index file (<code>META-INF/jandex.idx</code>).
+     * @return the {@link List} of discovered service classes.
+     * @throws IOException if the index could not be read or has an unsupported version.
+     * @see JandexIndexReader
+     */
+    public List<JavaClass> scanIndex( List<String> sourceRoots, File jandexIndex )
+        throws IOException
+    {
+        List<String> classNames = new ArrayList<String>();
+        for ( String className : JandexIndexReader.readAnnotatedClasses( jandexIndex, Path.class.getName() ) )
+        {
+            // nested classes can not be services
+            if ( className.indexOf( '$' ) < 0 )
+            {
+                int lastDot = className.lastIndexOf( '.' );
+                String packagePath = ( lastDot < 0 ) ? "" : className.substring( 0, lastDot ).replace( '.', '/' );
+                if ( this.classnamePattern.matcher( className.substring( lastDot + 1 ) ).matches()
+                    && ( ( this.packageFilter == null ) || this.packageFilter.isIncluded( packagePath ) ) )
+                {
+                    classNames.add( className );
+                }
+            }
+        }
+        return getServiceClasses( sourceRoots, classNames );
+    }
+
+    private List<JavaClass> getServiceClasses( List<String> sourceRoots, List<String> classNames )
+    {
+        for ( String sourceDir : sourceRoots )
+        {
+            File sourceFolder = new File( sourceDir );
+            if ( sourceFolder.isDirectory() )
+            {
+                this.builder.addSourceFolder( sourceFolder );
+            }
+        }
+        List<JavaClass> serviceClassList = new ArrayList<JavaClass>();
+        for ( String className : classNames )
+        {
+            JavaClass type = this.builder.getClassByName( className );
+            if ( type.getSource() == null )
+            {
+                this.log.warn( "Source code not found for service: " + className );
+            }
+            else
+            {
+                this.log.info( "Found service: " + type.getName() );
+                serviceClassList.add( type );
+            }
+        }
+        return serviceClassList;
+    }
+
+    private String getServiceClassName( File file )
+    {
+        String filename = file.getName();
+        // nested classes can not be services
+        if ( filename.indexOf( '$' ) >= 0 )
+        {
+            return null;
+        }
+        String simpleName = filename.substring( 0, filename.length() - CLASS_FILE_EXTENSION.length() );
+        if ( !this.classnamePattern.matcher( simpleName ).matches() )
+        {
+            return null;
+        }
+        ClassFile classFile;
+        try
+        {
+            classFile = ClassFile.read( file );
+        }
+        catch ( IOException e )
+        {
+            this.log.debug( "Error reading class file: " + file, e );
+            return null;
+        }
+        if ( !classFile.containsUtf8( PATH_DESCRIPTOR ) || classFile.isNested() )
+        {
+            return null;
+        }
+        if ( classFile.getAnnotationTypes().contains( PATH_DESCRIPTOR ) )
+        {
+            return classFile.getName();
+        }
+        return null;
+    }
+
+    private void collectJavaFilesRecursive( File sourceDir, List<File> javaFiles )
+    {
+        collectFilesRecursive( sourceDir, "", JAVA_FILE_EXTENSION, javaFiles );
+    }
+
+    private void collectFilesRecursive( File directory, String path, String extension, List<File> files )
+    {
+        File[] children = directory.listFiles();
+        if ( children == null )
+        {
+            this.log.debug( "Directory does not exist: " + directory );
+            return;
+        }
+        boolean included = ( this.packageFilter == null ) || this.packageFilter.isIncluded( path );
+        for ( File file : children )
+        {
+            String name = file.getName();
+            if ( file.isDirectory() )
+            {
+                String childPath = path.length() == 0 ? name : path + "/" + name;
+                if ( ( this.packageFilter == null ) || this.packageFilter.isTraversable( childPath ) )
+                {
+                    collectFilesRecursive( file, childPath, extension, files );
+                }
+                else
+                {
+                    this.log.debug( "Skipping directory excluded by package filter: " + file );
+                }
+            }
+            else if ( included && name.endsWith( extension ) )
+            {
+                files.add( file );
+            }
+        }
+    }
+
+    private Map<File, JavaSource> parseSequentially( List<File> javaFiles )
+    {
+        Map<File, JavaSource> sources = new HashMap<File, JavaSource>();
+        for ( File file : javaFiles )
+        {
+            try
+            {
+                JavaSource source = null;
+                if ( isCandidate( file ) )
+                {
+                    source = this.builder.addSource( file );
+                }
+                sources.put( file, source );
+            }
+            catch ( Exception e )
+            {
+                this.log.debug( "Error parsing file: " + file, e );
+            }
+        }
+        return sources;
+    }
+
+    private Map<File, JavaSource> parseConcurrently( List<File> javaFiles )
+        throws IOException
+    {
+        Map<File, JavaSource> sources = new HashMap<File, JavaSource>();
+        final ConcurrentSourceLibrary sourceLibrary = this.libraryBuilder.getConcurrentSourceLibrary();
+        ExecutorService executor = Executors.newFixedThreadPool( this.threads );
+        try
+        {
+            List<Future<JavaSource>> futures = new ArrayList<Future<JavaSource>>( javaFiles.size() );
+            for ( final File file : javaFiles )
+            {
+                futures.add( executor.submit( new Callable<JavaSource>()
+                {
+                    @Override
+                    public JavaSource call()
+                        throws Exception
+                    {
+                        if ( isCandidate( file ) )
+                        {
+                            return sourceLibrary.parseSource( file );
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+            // register in the order of the files so the result is identical to sequential scanning
+            for ( int i = 0; i < javaFiles.size(); i++ )
+            {
+                File file = javaFiles.get( i );
+                try
+                {
+                    sources.put( file, sourceLibrary.registerSource( file, futures.get( i ).get() ) );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException( "Interrupted while parsing " + file );
+                }
+                catch ( Exception e )
+                {
+                    this.log.debug( "Error parsing file: " + file, e );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return sources;
+    }
+
+    private boolean isCandidate( File file )
+    {
+        if ( ( this.prefilter == null ) || this.prefilter.accept( file ) )
+        {
+            return true;
+        }
+        this.log.debug( "Skipping file rejected by pre-filter: " + file );
+        return false;
+    }
+
+    private List<JavaClass> getServiceClasses( JavaSource source )
+    {
+        if ( source == null )
+        {
+            return Collections.emptyList();
+        }
+        List<JavaClass> serviceClasses = new ArrayList<JavaClass>();
+        for ( JavaClass type : source.getClasses() )
+        {
+            boolean isService = isServiceClass( type );
+            if ( isService )
+            {
+                serviceClasses.add( type );
+            }
+        }
+        return serviceClasses;
+    }
+
+    /**
+     * @param type the {@link JavaClass} to check.
+     * @return <code>true</code> if the given {@link JavaClass} is a service (matches the classname {@link Pattern} and
+     *         is annotated with {@link Path}), <code>false</code> otherwise.
+     */
+    public boolean isServiceClass( JavaClass type )
+    {
+        if ( this.classnamePattern.matcher( type.getName() ).matches() )
+        {
+            this.log.debug( "Class matches: " + type.getName() );
+            for ( JavaAnnotation annotation : type.getAnnotations() )
+            {
+                if ( Path.class.getName().equals( annotation.getType().getFullyQualifiedName() ) )
+                {
+                    this.log.info( "Found service: " + type.getName() );
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.Path;
+
+import org.codehaus.mojo.servicedocgen.Util;
+
+/**
+ * {@link FileFilter} that cheaply rejects Java source files that can not contain a service before they are parsed. A
+ * file is only accepted if its name (the name of its top-level type) matches the classname {@link Pattern} and its
+ * content contains the tokens <code>javax.ws.rs</code> and <code>Path</code> (required to {@link Path annotate} a
+ * service). Rejected files are not parsed during the scan but can still be resolved on demand from their source folder.
+ *
+ * @author hohwille
+ */
+public class ServiceSourceFilter
+    implements FileFilter
+{
+
+    private static final String ASCII = "US-ASCII";
+
+    private static final byte[] TOKEN_PACKAGE = getAsciiBytes( "javax.ws.rs" );
+
+    private static final byte[] TOKEN_PATH = getAsciiBytes( Path.class.getSimpleName() );
+
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final Pattern classnamePattern;
+
+    private final boolean scanContent;
+
+    /**
+     * The constructor.
+     *
+     * @param classnamePattern the {@link Pattern} that service classes have to match.
+     * @param encoding the encoding of the source files. May be <code>null</code> for default. If the encoding is not
+     *            ASCII compatible (e.g. UTF-16) the content of the files is not checked.
+     */
+    public ServiceSourceFilter( Pattern classnamePattern, String encoding )
+    {
+        super();
+        this.classnamePattern = classnamePattern;
+        this.scanContent = isAsciiCompatible( encoding );
+    }
+
+    private static byte[] getAsciiBytes( String token )
+    {
+        return token.getBytes( Charset.forName( ASCII ) );
+    }
+
+    private static boolean isAsciiCompatible( String encoding )
+    {
+        Charset charset;
+        if ( Util.isEmpty( encoding ) )
+        {
+            charset = Charset.defaultCharset();
+        }
+        else
+        {
+            charset = Charset.forName( encoding );
+        }
+        return Arrays.equals( TOKEN_PACKAGE, "javax.ws.rs".getBytes( charset ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean accept( File file )
+    {
+        String filename = file.getName();
+        if ( !filename.endsWith( JAVA_FILE_EXTENSION ) )
+        {
+            return false;
+        }
+        String simpleName = filename.substring( 0, filename.length() - JAVA_FILE_EXTENSION.length() );
+        if ( !this.classnamePattern.matcher( simpleName ).matches() )
+        {
+            return false;
+        }
+        if ( !this.scanContent )
+        {
+            return true;
+        }
+        try
+        {
+            return containsServiceTokens( file );
+        }
+        catch ( IOException e )
+        {
+            // let the parser report the problem...
+            return true;
+        }
+    }
+
+    private boolean containsServiceTokens( File file )
+        throws IOException
+    {
+        FileInputStream in = new FileInputStream( file );
+        try
+        {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if ( size > Integer.MAX_VALUE )
+            {
+                return true;
+            }
+            // source files are small so reading to the heap is cheaper than mapping (and does not lock the file)
+            ByteBuffer buffer = ByteBuffer.allocate( (int) size );
+            int read = 0;
+            while ( buffer.hasRemaining() && ( read >= 0 ) )
+            {
+                read = channel.read( buffer );
+            }
+            buffer.flip();
+            return ( indexOf( buffer, TOKEN_PACKAGE ) >= 0 ) && ( indexOf( buffer, TOKEN_PATH ) >= 0 );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * @param buffer the {@link ByteBuffer} to search.
+     * @param token the bytes to search for.
+     * @return the index of the first occurrence of <code>token</code> in <code>buffer</code> or <code>-1</code> if not
+     *         found.
+     */
+    static int indexOf( ByteBuffer buffer, byte[] token )
+    {
+        int last = buffer.limit() - token.length;
+        byte first = token[0];
+        for ( int i = 0; i <= last; i++ )
+        {
+            if ( buffer.get( i ) == first )
+            {
+                int j = 1;
+                while ( ( j < token.length ) && ( buffer.get( i + j ) == token[j] ) )
+                {
+                    j++;
+                }
+                if ( j == token.length )
+                {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.thoughtworks.qdox.library.AbstractClassLibrary;
+import com.thoughtworks.qdox.library.SourceFolderLibrary;
+import com.thoughtworks.qdox.library.SourceLibrary;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Replacement for {@link SourceFolderLibrary} that resolves classes on demand from an index of the source files by
+ * qualified class name. A source file is only parsed when one of its classes is requested for the first time. Unlike
+ * {@link SourceFolderLibrary} the parsed file is registered with all its classes (so it is never parsed twice) and the
+ * configured {@link #setEncoding(String) encoding} is used. Source folders that have been
+ * {@link #addSourceFiles(Map) indexed} are never probed on the file-system.
+ *
+ * @author hohwille
+ */
+public class SourceIndexLibrary
+    extends SourceLibrary
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String JAVA_FILE_EXTENSION = ".java";
+
+    private final transient Log log;
+
+    private final List<File> sourceFolders;
+
+    private final Map<String, File> sourceFiles;
+
+    private final Set<File> parsedFiles;
+
+    /**
+     * The constructor.
+     *
+     * @param parent the parent {@link AbstractClassLibrary}.
+     * @param log the {@link Log} to warn about source files that could not be read.
+     */
+    public SourceIndexLibrary( AbstractClassLibrary parent, Log log )
+    {
+        super( parent );
+        this.log = log;
+        this.sourceFolders = new ArrayList<File>();
+        this.sourceFiles = new HashMap<String, File>();
+        this.parsedFiles = new HashSet<File>();
+    }
+
+    /**
+     * Adds a source folder that has not been indexed. Classes are resolved from it by probing the file-system for the
+     * source file derived from the class name (like {@link SourceFolderLibrary}).
+     *
+     * @param sourceFolder the source folder to add.
+     */
+    public void addSourceFolder( File sourceFolder )
+    {
+        this.sourceFolders.add( sourceFolder );
+    }
+
+    /**
+     * Adds the complete index of the source files of a source folder. The source folder does not need to be
+     * {@link #addSourceFolder(File) added}.
+     *
+     * @param index the {@link Map} with the source {@link File}s by the qualified names of their top-level class.
+     */
+    public void addSourceFiles( Map<String, File> index )
+    {
+        for ( Map.Entry<String, File> entry : index.entrySet() )
+        {
+            if ( !this.sourceFiles.containsKey( entry.getKey() ) )
+            {
+                this.sourceFiles.put( entry.getKey(), entry.getValue() );
+            }
+        }
+    }
+
+    /**
+     * @param sourceFolder the source folder.
+     * @param sourceFile the Java source {@link File} located in the given <code>sourceFolder</code>.
+     * @return the qualified name of the top-level class declared in the given <code>sourceFile</code> according to its
+     *         path.
+     */
+    public static String getClassName( File sourceFolder, File sourceFile )
+    {
+        String folderPath = sourceFolder.getPath();
+        String path = sourceFile.getPath();
+        int start = folderPath.length();
+        if ( ( path.length() > start ) && ( path.charAt( start ) == File.separatorChar ) )
+        {
+            start++;
+        }
+        String relativePath = path.substring( start, path.length() - JAVA_FILE_EXTENSION.length() );
+        return relativePath.replace( File.separatorChar, '.' );
+    }
+
+    /**
+     * @param name the qualified name of a (potentially nested) class.
+     * @return the source {@link File} declaring the given class or <code>null</code> if not found.
+     */
+    public File getSourceFile( String name )
+    {
+        String topLevelName = name;
+        int dollarIndex = name.indexOf( '$' );
+        if ( dollarIndex > 0 )
+        {
+            topLevelName = name.substring( 0, dollarIndex );
+        }
+        File file = this.sourceFiles.get( topLevelName );
+        if ( file == null )
+        {
+            String path = topLevelName.replace( '.', File.separatorChar ) + JAVA_FILE_EXTENSION;
+            for ( File sourceFolder : this.sourceFolders )
+            {
+                File candidate = new File( sourceFolder, path );
+                if ( candidate.isFile() )
+                {
+                    return candidate;
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected JavaClass resolveJavaClass( String name )
+    {
+        JavaClass result = super.resolveJavaClass( name );
+        if ( result != null )
+        {
+            return result;
+        }
+        File file = getSourceFile( name );
+        if ( ( file == null ) || !this.parsedFiles.add( file ) )
+        {
+            return null;
+        }
+        JavaSource source;
+        try
+        {
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                source = parse( in, file.toURI().toURL() );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            this.log.warn( "Could not read source file " + file + " - JavaDoc of " + name + " is not available.", e );
+            return null;
+        }
+        registerJavaSource( source );
+        result = super.resolveJavaClass( name );
+        if ( result == null )
+        {
+            result = source.getClassByName( name );
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean containsClassReference( String name )
+    {
+        return super.containsClassReference( name ) || ( getSourceFile( name ) != null );
+    }
+
+}
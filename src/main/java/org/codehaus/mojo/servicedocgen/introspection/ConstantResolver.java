@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFile;
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFileCache;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+
+/**
+ * Resolves the values of compile-time constants without loading or initializing classes. The constants of a class
+ * (including the inherited ones) are read once from the {@link ClassFile#ATTRIBUTE_CONSTANT_VALUE ConstantValue}
+ * attributes of the class files. If no class file is available, simple literal initializers of the source fields are
+ * used instead. This class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class ConstantResolver
+{
+
+    private final ClassFileCache classFileCache;
+
+    private final JavaProjectBuilder builder;
+
+    private final ConcurrentMap<String, Map<String, Object>> constants;
+
+    /**
+     * The constructor.
+     *
+     * @param classFileCache the {@link ClassFileCache} to read the class files from.
+     * @param builder the {@link JavaProjectBuilder} for source-code analysis.
+     */
+    public ConstantResolver( ClassFileCache classFileCache, JavaProjectBuilder builder )
+    {
+        super();
+        this.classFileCache = classFileCache;
+        this.builder = builder;
+        this.constants = new ConcurrentHashMap<String, Map<String, Object>>();
+    }
+
+    /**
+     * @param className the {@link Class#getName() qualified name} of the class.
+     * @param fieldName the name of the field declared or inherited by the class.
+     * @return the value of the field or <code>null</code> if it is not a (resolvable) compile-time constant.
+     */
+    public Object getConstant( String className, String fieldName )
+    {
+        return getConstants( className ).get( fieldName );
+    }
+
+    private Map<String, Object> getConstants( String className )
+    {
+        Map<String, Object> map = this.constants.get( className );
+        if ( map == null )
+        {
+            String internalName = className.replace( '.', '/' );
+            if ( this.classFileCache.get( internalName ) == null )
+            {
+                map = getSourceConstants( className );
+            }
+            else
+            {
+                map = new HashMap<String, Object>();
+                collectConstants( internalName, map, new HashSet<String>() );
+            }
+            this.constants.putIfAbsent( className, map );
+        }
+        return map;
+    }
+
+    /**
+     * Collects the constants in the order of field resolution: the class itself, its super-interfaces and then its
+     * super-class. The first constant found for a name wins.
+     */
+    private void collectConstants( String internalName, Map<String, Object> map, Set<String> visited )
+    {
+        if ( ( internalName == null ) || !visited.add( internalName ) )
+        {
+            return;
+        }
+        ClassFile classFile = this.classFileCache.get( internalName );
+        if ( classFile == null )
+        {
+            return;
+        }
+        for ( Map.Entry<String, Object> entry : classFile.getConstants().entrySet() )
+        {
+            if ( !map.containsKey( entry.getKey() ) )
+            {
+                map.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        for ( String interfaceName : classFile.getInterfaceInternalNames() )
+        {
+            collectConstants( interfaceName, map, visited );
+        }
+        collectConstants( classFile.getSuperInternalName(), map, visited );
+    }
+
+    private Map<String, Object> getSourceConstants( String className )
+    {
+        Map<String, Object> map = new HashMap<String, Object>();
+        synchronized ( this.builder )
+        {
+            JavaClass sourceClass = this.builder.getClassByName( className );
+            if ( sourceClass == null )
+            {
+                return Collections.emptyMap();
+            }
+            for ( JavaField field : sourceClass.getFields() )
+            {
+                if ( field.isStatic() && field.isFinal() )
+                {
+                    Object value =
+                        parseLiteral( field.getType().getFullyQualifiedName(), field.getInitializationExpression() );
+                    if ( value != null )
+                    {
+                        map.put( field.getName(), value );
+                    }
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @param typeName the qualified name of the field type.
+     * @param expression the initializer expression of the field.
+     * @return the value of the given expression if it is a single literal without escape sequences (and of a type
+     *         that can be a compile-time constant) or <code>null</code> otherwise.
+     */
+    private static Object parseLiteral( String typeName, String expression )
+    {
+        if ( expression == null )
+        {
+            return null;
+        }
+        String literal = expression.trim();
+        if ( literal.isEmpty() || ( literal.indexOf( '\\' ) >= 0 ) )
+        {
+            return null;
+        }
+        if ( "java.lang.String".equals( typeName ) )
+        {
+            int end = literal.length() - 1;
+            if ( ( end > 0 ) && ( literal.charAt( 0 ) == '"' ) && ( literal.indexOf( '"', 1 ) == end ) )
+            {
+                return literal.substring( 1, end );
+            }
+            return null;
+        }
+        if ( "char".equals( typeName ) )
+        {
+            if ( ( literal.length() == 3 ) && ( literal.charAt( 0 ) == '\'' ) && ( literal.charAt( 2 ) == '\'' ) )
+            {
+                return Character.valueOf( literal.charAt( 1 ) );
+            }
+            return null;
+        }
+        if ( "boolean".equals( typeName ) )
+        {
+            if ( "true".equals( literal ) || "false".equals( literal ) )
+            {
+                return Boolean.valueOf( literal );
+            }
+            return null;
+        }
+        return parseNumber( typeName, literal.replace( "_", "" ) );
+    }
+
+    private static Object parseNumber( String typeName, String literal )
+    {
+        char first = literal.charAt( 0 );
+        if ( !Character.isDigit( first ) && ( first != '-' ) && ( first != '.' ) )
+        {
+            // e.g. a reference to another constant
+            return null;
+        }
+        String number = literal;
+        char last = Character.toLowerCase( number.charAt( number.length() - 1 ) );
+        if ( ( last == 'l' ) || ( last == 'f' ) || ( last == 'd' ) )
+        {
+            number = number.substring( 0, number.length() - 1 );
+        }
+        int digits = ( number.startsWith( "-" ) ) ? 1 : 0;
+        if ( ( number.length() > digits + 1 ) && ( number.charAt( digits ) == '0' )
+            && Character.isDigit( number.charAt( digits + 1 ) ) && !number.contains( "." ) )
+        {
+            // octal literal
+            return null;
+        }
+        try
+        {
+            if ( "int".equals( typeName ) )
+            {
+                return Integer.valueOf( number );
+            }
+            else if ( "long".equals( typeName ) )
+            {
+                return Long.valueOf( number );
+            }
+            else if ( "short".equals( typeName ) )
+            {
+                return Short.valueOf( number );
+            }
+            else if ( "byte".equals( typeName ) )
+            {
+                return Byte.valueOf( number );
+            }
+            else if ( "double".equals( typeName ) )
+            {
+                return Double.valueOf( number );
+            }
+            else if ( "float".equals( typeName ) )
+            {
+                return Float.valueOf( number );
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // not a simple decimal literal (e.g. hex, octal or an expression)
+        }
+        return null;
+    }
+
+}
@@ -86,7 +86,7 @@ public class JMethod
         GenericType<?> byteType = type.getByteType();
         ReflectionUtil reflectionUtil = type.getReflectionUtil();
         JavaDocHelper javaDocHelper = type.getJavaDocHelper();
-        this.sourceMethod = findSourceMethod( sourceType, byteMethod );
+        this.sourceMethod = type.getSourceMethodIndex().get( byteMethod );
 
         // get source information
         List<JavaParameter> parameterSourceInfos = null;
@@ -171,32 +171,6 @@ public class JMethod
         return list.get( index );
     }
 
-    private static JavaMethod findSourceMethod( JavaClass sourceClass, Method byteMethod )
-    {
-        for ( JavaMethod sourceMethod : sourceClass.getMethods() )
-        {
-            if ( sourceMethod.getName().equals( byteMethod.getName() ) )
-            {
-                List<JavaParameter> sourceParameters = sourceMethod.getParameters();
-                Class<?>[] byteParameters = byteMethod.getParameterTypes();
-                if ( sourceParameters.size() == byteParameters.length )
-                {
-                    for ( int i = 0; i < byteParameters.length; i++ )
-                    {
-                        String byteTypeName = byteParameters[i].getName();
-                        String sourceTypeName = sourceParameters.get( i ).getType().getFullyQualifiedName();
-                        if ( !byteTypeName.equals( sourceTypeName ) )
-                        {
-                            return null;
-                        }
-                    }
-                    return sourceMethod;
-                }
-            }
-        }
-        return null;
-    }
-
     private static Map<String, String> getTagListAsMap( List<DocletTag> tagList, boolean simpleName )
     {
         Map<String, String> map = new HashMap<String, String>();
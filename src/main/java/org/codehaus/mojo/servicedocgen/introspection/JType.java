@@ -37,6 +37,8 @@ public class JType
 
     private final JavaDocHelper javaDocHelper;
 
+    private final SourceMethodIndex sourceMethodIndex;
+
     /**
      * The constructor.
      *
@@ -52,6 +54,7 @@ public class JType
                                                                                                sourceType.getComment() ) );
         this.reflectionUtil = reflectionUtil;
         this.javaDocHelper = javaDocHelper;
+        this.sourceMethodIndex = new SourceMethodIndex( sourceType );
     }
 
     /**
@@ -70,6 +73,15 @@ public class JType
         return this.javaDocHelper;
     }
 
+    /**
+     * @return the {@link SourceMethodIndex} of the {@link #getSourceType() source type} shared by all {@link JMethod}s
+     *         of this type.
+     */
+    SourceMethodIndex getSourceMethodIndex()
+    {
+        return this.sourceMethodIndex;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -22,13 +22,14 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sf.mmm.util.filter.api.CharFilter;
 import net.sf.mmm.util.reflect.api.GenericType;
@@ -36,6 +37,7 @@ import net.sf.mmm.util.scanner.base.CharSequenceScanner;
 
 import org.apache.velocity.tools.generic.EscapeTool;
 import org.codehaus.mojo.servicedocgen.Util;
+import org.codehaus.mojo.servicedocgen.bytecode.ClassFileCache;
 import org.codehaus.mojo.servicedocgen.descriptor.JavaDocDescriptor;
 
 import com.thoughtworks.qdox.JavaProjectBuilder;
@@ -55,8 +57,6 @@ public class JavaDocHelper
 
     private static final String CODE_END = "</code>";
 
-    private static final Pattern PATTERN_JAVADOC_TAG = Pattern.compile( "\\{@([a-zA-Z]+) ([^}]*)\\}" );
-
     private static final String TAG_LINK = "link";
 
     private static final String TAG_LINKPLAIN = "linkplain";
@@ -67,6 +67,8 @@ public class JavaDocHelper
 
     private static final String TAG_VALUE = "value";
 
+    private static final String[] TAGS = { TAG_LINK, TAG_LINKPLAIN, TAG_CODE, TAG_LITERAL, TAG_VALUE };
+
     private static final Set<String> JAVA_LANG_TYPES =
         new HashSet<String>( Arrays.asList( "AbstractMethodError", "AbstractStringBuilder", "Appendable",
                                             "ArithmeticException", "ArrayIndexOutOfBoundsException",
@@ -189,7 +191,9 @@ public class JavaDocHelper
         }
     };
 
-    private final List<JavaDocDescriptor> javaDocs;
+    private final PackageNode javaDocUrls;
+
+    private final ConcurrentMap<JavaSource, ConcurrentMap<String, String>> qualifiedNames;
 
     private final EscapeTool escapeTool;
 
@@ -197,6 +201,12 @@ public class JavaDocHelper
 
     private final ClassLoader classloader;
 
+    private final ConstantResolver constantResolver;
+
+    private final ConcurrentMap<Key, String> comments;
+
+    private final ConcurrentMap<Key, String> values;
+
     /**
      * The constructor.
      *
@@ -205,11 +215,26 @@ public class JavaDocHelper
      * @param javaDocs the configured {@link List} of {@link JavaDocDescriptor}s.
      */
     public JavaDocHelper( ClassLoader classloader, JavaProjectBuilder builder, List<JavaDocDescriptor> javaDocs )
+    {
+        this( classloader, builder, javaDocs, new ClassFileCache( classloader ) );
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param classloader the {@link ClassLoader} used to load byte-code classes dynamically.
+     * @param builder the {@link JavaProjectBuilder} for source-code analysis.
+     * @param javaDocs the configured {@link List} of {@link JavaDocDescriptor}s.
+     * @param classFileCache the {@link ClassFileCache} for the class files of the given {@link ClassLoader}.
+     */
+    public JavaDocHelper( ClassLoader classloader, JavaProjectBuilder builder, List<JavaDocDescriptor> javaDocs,
+                          ClassFileCache classFileCache )
     {
         super();
         this.classloader = classloader;
         this.builder = builder;
-        this.javaDocs = new ArrayList<JavaDocDescriptor>();
+        this.constantResolver = new ConstantResolver( classFileCache, builder );
+        List<JavaDocDescriptor> javaDocList = new ArrayList<JavaDocDescriptor>();
         Map<String, JavaDocDescriptor> map = new HashMap<String, JavaDocDescriptor>();
         for ( JavaDocDescriptor javaDocDescriptor : javaDocs )
         {
@@ -225,21 +250,29 @@ public class JavaDocHelper
             JavaDocDescriptor overridden = map.remove( javaDocDescriptor.getPackagePrefix() );
             if ( overridden == null )
             {
-                this.javaDocs.add( javaDocDescriptor );
+                javaDocList.add( javaDocDescriptor );
             }
             else
             {
-                this.javaDocs.add( overridden );
+                javaDocList.add( overridden );
             }
         }
         for ( JavaDocDescriptor javaDocDescriptor : javaDocs )
         {
             if ( map.containsKey( javaDocDescriptor.getPackagePrefix() ) )
             {
-                this.javaDocs.add( javaDocDescriptor );
+                javaDocList.add( javaDocDescriptor );
             }
         }
+        this.javaDocUrls = new PackageNode();
+        for ( JavaDocDescriptor javaDocDescriptor : javaDocList )
+        {
+            this.javaDocUrls.put( javaDocDescriptor.getPackagePrefix(), javaDocDescriptor.getUrl() );
+        }
+        this.qualifiedNames = new ConcurrentHashMap<JavaSource, ConcurrentMap<String, String>>();
         this.escapeTool = new EscapeTool();
+        this.comments = new ConcurrentHashMap<Key, String>();
+        this.values = new ConcurrentHashMap<Key, String>();
     }
 
     /**
@@ -249,13 +282,34 @@ public class JavaDocHelper
      */
     public String getQualifiedName( JavaSource source, String simpleName )
     {
-        for ( String importStatement : source.getImports() )
+        ConcurrentMap<String, String> nameMap = this.qualifiedNames.get( source );
+        if ( nameMap == null )
         {
-            if ( simpleName.equals( Util.getSimpleName( importStatement ) ) )
+            nameMap = new ConcurrentHashMap<String, String>();
+            List<String> imports = source.getImports();
+            // the first import wins as before
+            for ( int i = imports.size() - 1; i >= 0; i-- )
             {
-                return importStatement;
+                String importStatement = imports.get( i );
+                nameMap.put( Util.getSimpleName( importStatement ), importStatement );
             }
+            ConcurrentMap<String, String> existing = this.qualifiedNames.putIfAbsent( source, nameMap );
+            if ( existing != null )
+            {
+                nameMap = existing;
+            }
+        }
+        String qualifiedName = nameMap.get( simpleName );
+        if ( qualifiedName == null )
+        {
+            qualifiedName = getQualifiedNameWithoutImport( source, simpleName );
+            nameMap.put( simpleName, qualifiedName );
         }
+        return qualifiedName;
+    }
+
+    private static String getQualifiedNameWithoutImport( JavaSource source, String simpleName )
+    {
         String packageName = source.getPackageName();
         if ( packageName.isEmpty() )
         {
@@ -270,7 +324,8 @@ public class JavaDocHelper
     }
 
     /**
-     * Parses JavaDoc and resolves tags such as @link, @linkplain, @literal, @value, or @code.
+     * Parses JavaDoc and resolves tags such as @link, @linkplain, @literal, @value, or @code. The result is cached so
+     * the same comment (e.g. of an interface inherited by many implementations) is only parsed once.
      *
      * @param sourceType the {@link JavaClass} from source-code analysis.
      * @param byteType the {@link GenericType} from byte-code analysis.
@@ -283,43 +338,271 @@ public class JavaDocHelper
         {
             return "";
         }
-        String comment = javadoc.trim().replace( "\n", " " ).replace( "\r", "" );
-        Matcher matcher = PATTERN_JAVADOC_TAG.matcher( comment );
-        StringBuffer buffer = new StringBuffer();
-        while ( matcher.find() )
+        // the byte type is only relevant to resolve values of its own fields
+        Class<?> valueType = null;
+        if ( javadoc.contains( "{@" + TAG_VALUE ) )
+        {
+            valueType = byteType.getAssignmentClass();
+        }
+        String sourceTypeName = null;
+        if ( sourceType != null )
+        {
+            sourceTypeName = sourceType.getFullyQualifiedName();
+        }
+        Key key = new Key( sourceTypeName, valueType, javadoc );
+        String html = this.comments.get( key );
+        if ( html == null )
+        {
+            html = renderJavaDoc( sourceType, byteType, javadoc );
+            this.comments.put( key, html );
+        }
+        return html;
+    }
+
+    /**
+     * Renders the given JavaDoc in a single pass without caching. Line breaks are normalized to spaces on the fly and
+     * inline tags are dispatched directly. Braces nested in the text of an inline tag are balanced.
+     *
+     * @param sourceType the {@link JavaClass} from source-code analysis.
+     * @param byteType the {@link GenericType} from byte-code analysis.
+     * @param javadoc the JavaDoc comment to parse.
+     * @return the given JavaDoc comment transformed to a pure HTML fragment.
+     */
+    String renderJavaDoc( JavaClass sourceType, GenericType<?> byteType, String javadoc )
+    {
+        int start = 0;
+        int end = javadoc.length();
+        while ( ( start < end ) && ( javadoc.charAt( start ) <= ' ' ) )
+        {
+            start++;
+        }
+        while ( ( end > start ) && ( javadoc.charAt( end - 1 ) <= ' ' ) )
+        {
+            end--;
+        }
+        StringBuilder buffer = new StringBuilder( end - start + 32 );
+        int i = start;
+        while ( i < end )
+        {
+            char c = javadoc.charAt( i );
+            if ( ( c == '{' ) && ( i + 1 < end ) && ( javadoc.charAt( i + 1 ) == '@' ) )
+            {
+                int next = appendTag( buffer, sourceType, byteType, javadoc, i + 2, end );
+                if ( next > 0 )
+                {
+                    i = next;
+                    continue;
+                }
+            }
+            appendNormalized( buffer, c );
+            i++;
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Collects the classes of the constants referenced by <code>{@literal {@value}}</code> tags of the given JavaDoc.
+     * The values of these constants are part of the {@link #parseJavaDoc(JavaClass, GenericType, String) parsed}
+     * comment even though the classes are no dependencies of the signature.
+     *
+     * @param sourceType the {@link JavaClass} from source-code analysis.
+     * @param javadoc the JavaDoc comment to scan.
+     * @param classNames the {@link Collection} where to add the {@link Class#getName() qualified names} of the
+     *            referenced classes. Fields of <code>sourceType</code> itself (<code>{@literal {@value #FIELD}}</code>)
+     *            are omitted.
+     */
+    public void collectValueReferences( JavaClass sourceType, String javadoc, Collection<String> classNames )
+    {
+        if ( ( javadoc == null ) || ( sourceType == null ) )
+        {
+            return;
+        }
+        String tagStart = "{@" + TAG_VALUE;
+        int start = javadoc.indexOf( tagStart );
+        while ( start >= 0 )
         {
-            String tag = matcher.group( 1 );
-            String text = matcher.group( 2 );
-            String replacement;
-            if ( TAG_LINK.equals( tag ) )
+            start = start + tagStart.length();
+            int end = javadoc.indexOf( '}', start );
+            if ( end < 0 )
             {
-                replacement = parseLink( sourceType, text, false );
+                return;
             }
-            else if ( TAG_LINKPLAIN.equals( tag ) )
+            String text = javadoc.substring( start, end ).trim();
+            int hashIndex = text.indexOf( '#' );
+            if ( hashIndex > 0 )
             {
-                replacement = parseLink( sourceType, text, true );
+                String className = text.substring( 0, hashIndex );
+                if ( !className.contains( "." ) )
+                {
+                    className = getQualifiedName( sourceType.getParentSource(), className );
+                }
+                classNames.add( className );
             }
-            else if ( TAG_CODE.equals( tag ) )
+            start = javadoc.indexOf( tagStart, end );
+        }
+    }
+
+    /**
+     * @param buffer the {@link StringBuilder} where to append the rendered tag.
+     * @param sourceType the {@link JavaClass} from source-code analysis.
+     * @param byteType the {@link GenericType} from byte-code analysis.
+     * @param javadoc the JavaDoc comment.
+     * @param nameStart the index of the tag name (after <code>{@literal {@}</code>).
+     * @param end the end index of the JavaDoc comment.
+     * @return the index after the closing brace of the tag or <code>-1</code> if there is no valid tag at
+     *         <code>nameStart</code> and nothing has been appended.
+     */
+    private int appendTag( StringBuilder buffer, JavaClass sourceType, GenericType<?> byteType, String javadoc,
+                           int nameStart, int end )
+    {
+        int i = nameStart;
+        while ( ( i < end ) && isLetter( javadoc.charAt( i ) ) )
+        {
+            i++;
+        }
+        int nameEnd = i;
+        while ( ( i < end ) && ( javadoc.charAt( i ) == '\r' ) )
+        {
+            i++;
+        }
+        if ( ( nameEnd == nameStart ) || ( i >= end )
+            || ( ( javadoc.charAt( i ) != ' ' ) && ( javadoc.charAt( i ) != '\n' ) ) )
+        {
+            return -1;
+        }
+        int textStart = i + 1;
+        int textEnd = -1;
+        int firstClose = -1;
+        int depth = 0;
+        for ( i = textStart; i < end; i++ )
+        {
+            char c = javadoc.charAt( i );
+            if ( c == '{' )
             {
-                replacement = CODE_START + text + CODE_END;
+                depth++;
             }
-            else if ( TAG_LITERAL.equals( tag ) )
+            else if ( c == '}' )
             {
-                replacement = CODE_START + this.escapeTool.html( text ) + CODE_END;
+                if ( firstClose < 0 )
+                {
+                    firstClose = i;
+                }
+                if ( depth == 0 )
+                {
+                    textEnd = i;
+                    break;
+                }
+                depth--;
             }
-            else if ( TAG_VALUE.equals( tag ) )
+        }
+        if ( textEnd < 0 )
+        {
+            if ( firstClose < 0 )
             {
-                replacement = resolveValue( sourceType, byteType, text );
+                return -1;
             }
-            else
+            // unbalanced braces - end at the first closing brace
+            textEnd = firstClose;
+        }
+        String tag = getTag( javadoc, nameStart, nameEnd );
+        // getTag returns the constants so identity is sufficient
+        if ( tag == TAG_CODE )
+        {
+            buffer.append( CODE_START );
+            for ( i = textStart; i < textEnd; i++ )
             {
-                // unknown tag...
-                replacement = text;
+                appendNormalized( buffer, javadoc.charAt( i ) );
             }
-            matcher.appendReplacement( buffer, replacement );
+            buffer.append( CODE_END );
         }
-        matcher.appendTail( buffer );
-        return buffer.toString();
+        else
+        {
+            String text = getNormalized( javadoc, textStart, textEnd );
+            buffer.append( resolveTag( sourceType, byteType, tag, text ) );
+        }
+        return textEnd + 1;
+    }
+
+    /**
+     * @param sourceType the {@link JavaClass} from source-code analysis.
+     * @param byteType the {@link GenericType} from byte-code analysis.
+     * @param tag the name of the inline tag or <code>null</code> if unknown.
+     * @param text the text of the inline tag.
+     * @return the rendered inline tag.
+     */
+    String resolveTag( JavaClass sourceType, GenericType<?> byteType, String tag, String text )
+    {
+        if ( TAG_LINK.equals( tag ) )
+        {
+            return parseLink( sourceType, text, false );
+        }
+        else if ( TAG_LINKPLAIN.equals( tag ) )
+        {
+            return parseLink( sourceType, text, true );
+        }
+        else if ( TAG_CODE.equals( tag ) )
+        {
+            return CODE_START + text + CODE_END;
+        }
+        else if ( TAG_LITERAL.equals( tag ) )
+        {
+            return CODE_START + this.escapeTool.html( text ) + CODE_END;
+        }
+        else if ( TAG_VALUE.equals( tag ) )
+        {
+            return resolveValue( sourceType, byteType, text );
+        }
+        // unknown tag...
+        return text;
+    }
+
+    private static String getTag( String javadoc, int start, int end )
+    {
+        int length = end - start;
+        for ( String tag : TAGS )
+        {
+            if ( ( tag.length() == length ) && javadoc.regionMatches( start, tag, 0, length ) )
+            {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    private static String getNormalized( String javadoc, int start, int end )
+    {
+        for ( int i = start; i < end; i++ )
+        {
+            char c = javadoc.charAt( i );
+            if ( ( c == '\n' ) || ( c == '\r' ) )
+            {
+                StringBuilder buffer = new StringBuilder( end - start );
+                buffer.append( javadoc, start, i );
+                for ( int j = i; j < end; j++ )
+                {
+                    appendNormalized( buffer, javadoc.charAt( j ) );
+                }
+                return buffer.toString();
+            }
+        }
+        return javadoc.substring( start, end );
+    }
+
+    private static void appendNormalized( StringBuilder buffer, char c )
+    {
+        if ( c == '\n' )
+        {
+            buffer.append( ' ' );
+        }
+        else if ( c != '\r' )
+        {
+            buffer.append( c );
+        }
+    }
+
+    private static boolean isLetter( char c )
+    {
+        return ( ( c >= 'a' ) && ( c <= 'z' ) ) || ( ( c >= 'A' ) && ( c <= 'Z' ) );
     }
 
     private String resolveValue( JavaClass sourceClass, GenericType<?> byteClass, String text )
@@ -328,7 +611,8 @@ public class JavaDocHelper
         if ( hashIndex == 0 )
         {
             String fieldName = text.substring( 1 );
-            return getFieldValue( byteClass.getAssignmentClass(), fieldName );
+            Class<?> type = byteClass.getAssignmentClass();
+            return getFieldValue( type.getName(), type, fieldName );
         }
         else if ( hashIndex > 0 )
         {
@@ -338,22 +622,58 @@ public class JavaDocHelper
             {
                 className = getQualifiedName( sourceClass.getParentSource(), className );
             }
-            try
+            return getFieldValue( className, null, fieldName );
+        }
+
+        return text;
+    }
+
+    /**
+     * @param className the {@link Class#getName() qualified name} of the class declaring or inheriting the field.
+     * @param type the {@link Class} for the given <code>className</code> or <code>null</code> to load it only if
+     *            required.
+     * @param fieldName the name of the field.
+     * @return the value of the field as {@link String} or the <code>fieldName</code> if it could not be resolved.
+     */
+    private String getFieldValue( String className, Class<?> type, String fieldName )
+    {
+        Key key = new Key( className, null, fieldName );
+        String value = this.values.get( key );
+        if ( value == null )
+        {
+            Object constant = this.constantResolver.getConstant( className, fieldName );
+            if ( constant == null )
             {
-                Class<?> clazz = this.classloader.loadClass( className );
-                return getFieldValue( clazz, fieldName );
+                // no compile-time constant (e.g. enum or non-final field) so we have to load the class
+                value = resolveFieldValue( className, type, fieldName );
             }
-            catch ( ClassNotFoundException e )
+            else
             {
-                return fieldName;
+                value = Util.toString( constant, fieldName );
             }
+            this.values.put( key, value );
         }
+        return value;
+    }
 
-        return text;
+    private String resolveFieldValue( String className, Class<?> type, String fieldName )
+    {
+        if ( type != null )
+        {
+            return resolveFieldValue( type, fieldName );
+        }
+        try
+        {
+            return resolveFieldValue( this.classloader.loadClass( className ), fieldName );
+        }
+        catch ( ClassNotFoundException e )
+        {
+            return fieldName;
+        }
     }
 
     @SuppressWarnings( { "unchecked", "rawtypes" } )
-    private String getFieldValue( Class<?> type, String fieldName )
+    private String resolveFieldValue( Class<?> type, String fieldName )
     {
         Class<?> clazz = type;
         if ( clazz.isEnum() )
@@ -520,18 +840,137 @@ public class JavaDocHelper
     }
 
     /**
-     * @param qualifiedName
-     * @return
+     * @param qualifiedName the qualified name of a type.
+     * @return the URL of the JavaDoc for the longest {@link JavaDocDescriptor#getPackagePrefix() package prefix} of the
+     *         given type or <code>null</code> if no prefix matches.
+     */
+    String findJavaDocUrl( String qualifiedName )
+    {
+        return this.javaDocUrls.get( qualifiedName );
+    }
+
+    /**
+     * A node of the trie of package segments mapping package prefixes to JavaDoc URLs.
      */
-    private String findJavaDocUrl( String qualifiedName )
+    private static final class PackageNode
     {
-        for ( JavaDocDescriptor javaDocDescriptor : this.javaDocs )
+
+        private final Map<String, PackageNode> children = new HashMap<String, PackageNode>();
+
+        private String url;
+
+        private void put( String packagePrefix, String prefixUrl )
         {
-            if ( qualifiedName.startsWith( javaDocDescriptor.getPackagePrefix() ) )
+            PackageNode node = this;
+            int start = 0;
+            int length = packagePrefix.length();
+            while ( start < length )
             {
-                return javaDocDescriptor.getUrl();
+                int end = packagePrefix.indexOf( '.', start );
+                if ( end < 0 )
+                {
+                    end = length;
+                }
+                String segment = packagePrefix.substring( start, end );
+                PackageNode child = node.children.get( segment );
+                if ( child == null )
+                {
+                    child = new PackageNode();
+                    node.children.put( segment, child );
+                }
+                node = child;
+                start = end + 1;
             }
+            node.url = prefixUrl;
         }
-        return null;
+
+        private String get( String qualifiedName )
+        {
+            PackageNode node = this;
+            String longestUrl = this.url;
+            int start = 0;
+            int length = qualifiedName.length();
+            while ( start < length )
+            {
+                int end = qualifiedName.indexOf( '.', start );
+                if ( end < 0 )
+                {
+                    end = length;
+                }
+                node = node.children.get( qualifiedName.substring( start, end ) );
+                if ( node == null )
+                {
+                    break;
+                }
+                if ( node.url != null )
+                {
+                    longestUrl = node.url;
+                }
+                start = end + 1;
+            }
+            return longestUrl;
+        }
+
+    }
+
+    /**
+     * The key of a cached comment or value.
+     */
+    private static final class Key
+    {
+
+        private final String typeName;
+
+        private final Class<?> type;
+
+        private final String text;
+
+        private Key( String typeName, Class<?> type, String text )
+        {
+            super();
+            this.typeName = typeName;
+            this.type = type;
+            this.text = text;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = this.text.hashCode();
+            if ( this.typeName != null )
+            {
+                hash = 31 * hash + this.typeName.hashCode();
+            }
+            if ( this.type != null )
+            {
+                hash = 31 * hash + this.type.hashCode();
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( obj == this )
+            {
+                return true;
+            }
+            if ( !( obj instanceof Key ) )
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            if ( this.type != other.type )
+            {
+                return false;
+            }
+            if ( ( this.typeName == null ) ? ( other.typeName != null ) : !this.typeName.equals( other.typeName ) )
+            {
+                return false;
+            }
+            return this.text.equals( other.text );
+        }
+
     }
+
 }
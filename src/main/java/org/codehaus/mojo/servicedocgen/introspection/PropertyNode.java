@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * A readable property of a {@link TypeNode}.
+ *
+ * @author hohwille
+ */
+public class PropertyNode
+{
+
+    private final String name;
+
+    private final GenericType<?> propertyType;
+
+    private final GenericType<?> returnType;
+
+    /**
+     * The constructor.
+     *
+     * @param name - see {@link #getName()}.
+     * @param propertyType - see {@link #getPropertyType()}.
+     * @param returnType - see {@link #getReturnType()}.
+     */
+    PropertyNode( String name, GenericType<?> propertyType, GenericType<?> returnType )
+    {
+        super();
+        this.name = name;
+        this.propertyType = propertyType;
+        this.returnType = returnType;
+    }
+
+    /**
+     * @return the name of the property.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * @return the {@link GenericType} of the property.
+     */
+    public GenericType<?> getPropertyType()
+    {
+        return this.propertyType;
+    }
+
+    /**
+     * @return the {@link GenericType} returned by the getter (or field) of the property.
+     */
+    public GenericType<?> getReturnType()
+    {
+        return this.returnType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return this.name + ":" + this.propertyType;
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaParameter;
+import com.thoughtworks.qdox.model.JavaType;
+import com.thoughtworks.qdox.model.JavaTypeVariable;
+
+/**
+ * Index of the {@link JavaMethod}s of a {@link JavaClass} by their name and erased parameter types. It is created once
+ * per {@link JType} and used to find the {@link JavaMethod source method} of each {@link Method} in constant time
+ * (also for overloaded methods). Both sides use the binary name of the erased parameter types (e.g.
+ * <code>Outer$Inner[]</code>) so nested types, arrays and varargs are matched consistently.
+ *
+ * @author hohwille
+ */
+public class SourceMethodIndex
+{
+
+    private static final String OBJECT = "java.lang.Object";
+
+    private static final String ARRAY_SUFFIX = "[]";
+
+    private final Map<String, JavaMethod> methods;
+
+    /**
+     * The constructor.
+     *
+     * @param sourceClass the {@link JavaClass} to index. May be <code>null</code> for an empty index.
+     */
+    public SourceMethodIndex( JavaClass sourceClass )
+    {
+        super();
+        this.methods = new HashMap<String, JavaMethod>();
+        if ( sourceClass != null )
+        {
+            for ( JavaMethod sourceMethod : sourceClass.getMethods() )
+            {
+                this.methods.put( getSignature( sourceMethod ), sourceMethod );
+            }
+        }
+    }
+
+    /**
+     * @param byteMethod the {@link Method} to find.
+     * @return the {@link JavaMethod} declared in the indexed {@link JavaClass} with the same name and erased parameter
+     *         types or <code>null</code> if not found.
+     */
+    public JavaMethod get( Method byteMethod )
+    {
+        return this.methods.get( getSignature( byteMethod ) );
+    }
+
+    private static String getSignature( Method byteMethod )
+    {
+        StringBuilder signature = new StringBuilder( byteMethod.getName() );
+        signature.append( '(' );
+        for ( Class<?> parameterType : byteMethod.getParameterTypes() )
+        {
+            int dimensions = 0;
+            Class<?> componentType = parameterType;
+            while ( componentType.isArray() )
+            {
+                componentType = componentType.getComponentType();
+                dimensions++;
+            }
+            signature.append( componentType.getName() );
+            for ( int i = 0; i < dimensions; i++ )
+            {
+                signature.append( ARRAY_SUFFIX );
+            }
+            signature.append( ',' );
+        }
+        signature.append( ')' );
+        return signature.toString();
+    }
+
+    private static String getSignature( JavaMethod sourceMethod )
+    {
+        StringBuilder signature = new StringBuilder( sourceMethod.getName() );
+        signature.append( '(' );
+        for ( JavaParameter parameter : sourceMethod.getParameters() )
+        {
+            JavaClass type = parameter.getJavaClass();
+            signature.append( getErasure( type, sourceMethod ) );
+            for ( int i = 0; i < type.getDimensions(); i++ )
+            {
+                signature.append( ARRAY_SUFFIX );
+            }
+            if ( parameter.isVarArgs() )
+            {
+                signature.append( ARRAY_SUFFIX );
+            }
+            signature.append( ',' );
+        }
+        signature.append( ')' );
+        return signature.toString();
+    }
+
+    /**
+     * @param type the {@link JavaClass} of a parameter type.
+     * @param sourceMethod the {@link JavaMethod} declaring the parameter.
+     * @return the {@link #getBinaryName(JavaClass) binary name} of the erasure if the given type is a type variable,
+     *         otherwise the binary name of the given type (without array dimensions).
+     */
+    private static String getErasure( JavaClass type, JavaMethod sourceMethod )
+    {
+        String typeName = getBinaryName( type );
+        if ( typeName.indexOf( '.' ) >= 0 )
+        {
+            return typeName;
+        }
+        JavaTypeVariable<?> typeVariable = findTypeVariable( typeName, sourceMethod.getTypeParameters() );
+        JavaClass declaringClass = sourceMethod.getDeclaringClass();
+        while ( ( typeVariable == null ) && ( declaringClass != null ) )
+        {
+            typeVariable = findTypeVariable( typeName, declaringClass.getTypeParameters() );
+            if ( declaringClass.isStatic() )
+            {
+                break;
+            }
+            declaringClass = declaringClass.getDeclaringClass();
+        }
+        if ( typeVariable == null )
+        {
+            // primitive type or unresolved type
+            return typeName;
+        }
+        List<JavaType> bounds = typeVariable.getBounds();
+        if ( ( bounds == null ) || bounds.isEmpty() )
+        {
+            return OBJECT;
+        }
+        // the bound may be another type variable
+        JavaType bound = bounds.get( 0 );
+        if ( bound instanceof JavaClass )
+        {
+            return getErasure( (JavaClass) bound, sourceMethod );
+        }
+        return bound.getFullyQualifiedName();
+    }
+
+    /**
+     * @param type the {@link JavaClass} of a type.
+     * @return the binary name of the given type as returned by {@link Class#getName()} for the component type (e.g.
+     *         <code>java.util.Map$Entry</code> for <code>Map.Entry[]</code>). It is derived from the declaring classes
+     *         rather than from {@link JavaClass#getFullyQualifiedName()} whose format of nested types differs between
+     *         QDox versions.
+     */
+    private static String getBinaryName( JavaClass type )
+    {
+        JavaClass declaringClass = type.getDeclaringClass();
+        if ( declaringClass != null )
+        {
+            return getBinaryName( declaringClass ) + '$' + type.getName();
+        }
+        String packageName = type.getPackageName();
+        if ( ( packageName == null ) || packageName.isEmpty() )
+        {
+            return type.getName();
+        }
+        return packageName + '.' + type.getName();
+    }
+
+    private static JavaTypeVariable<?> findTypeVariable( String name, List<? extends JavaTypeVariable<?>> typeVariables )
+    {
+        if ( typeVariables != null )
+        {
+            for ( JavaTypeVariable<?> typeVariable : typeVariables )
+            {
+                if ( typeVariable.getName().equals( name ) )
+                {
+                    return typeVariable;
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptor;
+import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptorBuilder;
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * The graph of the types (transfer-objects) used by the analyzed services. Each type is introspected only once per
+ * analysis and represented as a {@link TypeNode} with its {@link PropertyNode properties}. Examples, schemas and any
+ * other traversal of the types are derived from these nodes instead of walking the {@link PojoDescriptor}s again.<br>
+ * Properties may be introspected in two ways: via the configured {@link PojoDescriptorBuilder} (getters or fields as
+ * used for examples) and via fields (as always used for schemas). If both are the same, the nodes are shared. This
+ * class is thread-safe.
+ *
+ * @author hohwille
+ */
+public class TypeGraph
+{
+
+    private final PojoDescriptorBuilder propertyDescriptorBuilder;
+
+    private final PojoDescriptorBuilder fieldDescriptorBuilder;
+
+    private final ConcurrentMap<GenericType<?>, TypeNode> propertyNodes;
+
+    private final ConcurrentMap<GenericType<?>, TypeNode> fieldNodes;
+
+    /**
+     * The constructor.
+     *
+     * @param propertyDescriptorBuilder the configured {@link PojoDescriptorBuilder} for {@link #getNode(GenericType)}.
+     * @param fieldDescriptorBuilder the {@link PojoDescriptorBuilder} introspecting fields for
+     *            {@link #getFieldNode(GenericType)}. May be the same as <code>propertyDescriptorBuilder</code>.
+     */
+    public TypeGraph( PojoDescriptorBuilder propertyDescriptorBuilder, PojoDescriptorBuilder fieldDescriptorBuilder )
+    {
+        super();
+        this.propertyDescriptorBuilder = propertyDescriptorBuilder;
+        this.fieldDescriptorBuilder = fieldDescriptorBuilder;
+        this.propertyNodes = new ConcurrentHashMap<GenericType<?>, TypeNode>();
+        if ( fieldDescriptorBuilder == propertyDescriptorBuilder )
+        {
+            this.fieldNodes = this.propertyNodes;
+        }
+        else
+        {
+            this.fieldNodes = new ConcurrentHashMap<GenericType<?>, TypeNode>();
+        }
+    }
+
+    /**
+     * @param type the {@link GenericType} of a bean.
+     * @return the {@link TypeNode} with the properties as introspected by the configured {@link PojoDescriptorBuilder}.
+     */
+    public TypeNode getNode( GenericType<?> type )
+    {
+        return getNode( type, this.propertyDescriptorBuilder, this.propertyNodes );
+    }
+
+    /**
+     * @param type the {@link GenericType} of a bean.
+     * @return the {@link TypeNode} with the properties as introspected from the fields.
+     */
+    public TypeNode getFieldNode( GenericType<?> type )
+    {
+        return getNode( type, this.fieldDescriptorBuilder, this.fieldNodes );
+    }
+
+    private static TypeNode getNode( GenericType<?> type, PojoDescriptorBuilder descriptorBuilder,
+                                     ConcurrentMap<GenericType<?>, TypeNode> nodes )
+    {
+        TypeNode node = nodes.get( type );
+        if ( node == null )
+        {
+            PojoDescriptor<?> pojoDescriptor;
+            // the builder caches its descriptors in a map that is not thread-safe
+            synchronized ( descriptorBuilder )
+            {
+                pojoDescriptor = descriptorBuilder.getDescriptor( type );
+            }
+            node = new TypeNode( type, pojoDescriptor );
+            TypeNode existing = nodes.putIfAbsent( type, node );
+            if ( existing != null )
+            {
+                node = existing;
+            }
+        }
+        return node;
+    }
+
+}
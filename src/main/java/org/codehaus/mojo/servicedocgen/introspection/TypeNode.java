@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.mmm.util.pojo.descriptor.api.PojoDescriptor;
+import net.sf.mmm.util.pojo.descriptor.api.PojoPropertyDescriptor;
+import net.sf.mmm.util.pojo.descriptor.api.accessor.PojoPropertyAccessorNonArg;
+import net.sf.mmm.util.pojo.descriptor.api.accessor.PojoPropertyAccessorNonArgMode;
+import net.sf.mmm.util.reflect.api.GenericType;
+
+/**
+ * A node of the {@link TypeGraph} representing a bean type with its readable {@link PropertyNode properties}. The
+ * edges of the graph are the {@link PropertyNode#getPropertyType() property types}.
+ *
+ * @author hohwille
+ */
+public class TypeNode
+{
+
+    private static final Comparator<PropertyNode> NAME_COMPARATOR = new Comparator<PropertyNode>()
+    {
+        @Override
+        public int compare( PropertyNode o1, PropertyNode o2 )
+        {
+            return o1.getName().compareTo( o2.getName() );
+        }
+    };
+
+    private final GenericType<?> type;
+
+    private final List<PropertyNode> properties;
+
+    private final List<PropertyNode> sortedProperties;
+
+    /**
+     * The constructor.
+     *
+     * @param type - see {@link #getType()}.
+     * @param pojoDescriptor the {@link PojoDescriptor} of the type.
+     */
+    TypeNode( GenericType<?> type, PojoDescriptor<?> pojoDescriptor )
+    {
+        super();
+        this.type = type;
+        List<PropertyNode> propertyList = new ArrayList<PropertyNode>();
+        for ( PojoPropertyDescriptor propertyDescriptor : pojoDescriptor.getPropertyDescriptors() )
+        {
+            PojoPropertyAccessorNonArg getter = propertyDescriptor.getAccessor( PojoPropertyAccessorNonArgMode.GET );
+            if ( getter != null )
+            {
+                propertyList.add( new PropertyNode( propertyDescriptor.getName(), getter.getPropertyType(),
+                                                    getter.getReturnType() ) );
+            }
+        }
+        this.properties = Collections.unmodifiableList( propertyList );
+        List<PropertyNode> sortedList = new ArrayList<PropertyNode>( propertyList );
+        Collections.sort( sortedList, NAME_COMPARATOR );
+        this.sortedProperties = Collections.unmodifiableList( sortedList );
+    }
+
+    /**
+     * @return the {@link GenericType} of the bean.
+     */
+    public GenericType<?> getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * @return the {@link List} of the readable {@link PropertyNode properties} in the order of introspection.
+     */
+    public List<PropertyNode> getProperties()
+    {
+        return this.properties;
+    }
+
+    /**
+     * @return the {@link List} of the readable {@link PropertyNode properties} sorted by
+     *         {@link PropertyNode#getName() name}.
+     */
+    public List<PropertyNode> getSortedProperties()
+    {
+        return this.sortedProperties;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return this.type + this.properties.toString();
+    }
+
+}
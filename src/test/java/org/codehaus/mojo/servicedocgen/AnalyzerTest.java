@@ -19,11 +19,18 @@
 package org.codehaus.mojo.servicedocgen;
 
 import java.io.File;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 
+import javax.ws.rs.POST;
 import javax.ws.rs.core.MediaType;
 
+import net.sf.mmm.util.lang.api.AbstractSimpleDatatype;
+import net.sf.mmm.util.reflect.api.GenericType;
+import net.sf.mmm.util.reflect.api.ReflectionUtil;
+import net.sf.mmm.util.reflect.base.ReflectionUtilImpl;
+
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.assertj.core.api.Assertions;
 import org.codehaus.mojo.servicedocgen.descriptor.Descriptor;
@@ -33,7 +40,11 @@ import org.codehaus.mojo.servicedocgen.descriptor.ParameterDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ResponseDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ServiceDescriptor;
 import org.codehaus.mojo.servicedocgen.descriptor.ServicesDescriptor;
+import org.codehaus.mojo.servicedocgen.example.DemoItemApi;
+import org.codehaus.mojo.servicedocgen.example.DemoItemCrudApi;
 import org.codehaus.mojo.servicedocgen.example.DemoRestService;
+import org.codehaus.mojo.servicedocgen.example.DemoSearchApi;
+import org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo;
 import org.junit.Test;
 
 import com.thoughtworks.qdox.JavaProjectBuilder;
@@ -239,15 +250,352 @@ public class AnalyzerTest
         assertThat( operation4.getJavaMethod().getName() ).isEqualTo( "saveString" );
     }
 
+    /**
+     * Test of {@link Analyzer#createServiceDescriptors(List)}, {@link Analyzer#addSchemas(Analyzer)} and
+     * {@link Analyzer#completeServicesDescriptor(List)} as used to aggregate multiple projects.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testAggregate()
+        throws Exception
+    {
+        // given
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        builder.addSourceFolder( new File( "src/test/java" ) );
+        List<JavaClass> serviceClasses = Arrays.asList( builder.getClassByName( DemoRestService.class.getName() ) );
+        Analyzer moduleAnalyzer = getAnalyzer( builder );
+        Analyzer aggregateAnalyzer = getAnalyzer( builder );
+        // when
+        List<ServiceDescriptor> services = moduleAnalyzer.createServiceDescriptors( serviceClasses );
+        aggregateAnalyzer.addSchemas( moduleAnalyzer );
+        ServicesDescriptor descriptor = aggregateAnalyzer.completeServicesDescriptor( services );
+        // then
+        assertThat( descriptor.getServices() ).containsExactlyElementsOf( services );
+        ServicesDescriptor expected = analyze( DemoRestService.class.getName() );
+        assertThat( descriptor.getSchemaDefinitionJson() ).isNotEmpty().isEqualTo( expected.getSchemaDefinitionJson() );
+        assertThat( descriptor.getSchemaDefinitionYaml() ).isEqualTo( expected.getSchemaDefinitionYaml() );
+    }
+
+    /**
+     * Test of {@link Analyzer#createServiceDescriptors(List)} with multiple {@link Analyzer#setThreads(int) threads}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testConcurrent()
+        throws Exception
+    {
+        // given
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        builder.addSourceFolder( new File( "src/test/java" ) );
+        JavaClass serviceClass = builder.getClassByName( DemoRestService.class.getName() );
+        List<JavaClass> serviceClasses = Arrays.asList( serviceClass, serviceClass, serviceClass );
+        Analyzer analyzer = getAnalyzer( builder );
+        analyzer.setThreads( 3 );
+        // when
+        ServicesDescriptor descriptor = analyzer.createServicesDescriptor( serviceClasses );
+        // then
+        ServicesDescriptor expected = analyze( DemoRestService.class.getName() );
+        List<OperationDescriptor> expectedOperations = expected.getServices().get( 0 ).getOperations();
+        assertThat( descriptor.getServices() ).hasSize( 3 );
+        for ( ServiceDescriptor service : descriptor.getServices() )
+        {
+            List<OperationDescriptor> operations = service.getOperations();
+            assertThat( operations ).hasSameSizeAs( expectedOperations );
+            for ( int i = 0; i < operations.size(); i++ )
+            {
+                assertThat( operations.get( i ).getPath() ).isEqualTo( expectedOperations.get( i ).getPath() );
+                assertThat( operations.get( i ).getDescription() ).isEqualTo( expectedOperations.get( i ).getDescription() );
+            }
+        }
+        assertThat( descriptor.getSchemaDefinitionJson() ).isEqualTo( expected.getSchemaDefinitionJson() );
+        assertThat( descriptor.getSchemaDefinitionYaml() ).isEqualTo( expected.getSchemaDefinitionYaml() );
+    }
+
+    /**
+     * Test of {@link Analyzer#createServicesDescriptor(List)} with an {@link AnalysisIndex} restoring an unchanged
+     * service.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testIncremental()
+        throws Exception
+    {
+        // given
+        File indexFile = new File( "target/servicedocgen-test/analysis.idx" );
+        indexFile.delete();
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        ServicesDescriptor expected = analyze( DemoRestService.class.getName(), new AnalysisIndex( indexFile, "key",
+                                                                                                  classloader ) );
+        assertThat( indexFile ).isFile();
+        // when
+        ServicesDescriptor descriptor =
+            analyze( DemoRestService.class.getName(), new AnalysisIndex( indexFile, "key", classloader ) );
+        // then
+        ServiceDescriptor service = descriptor.getServices().get( 0 );
+        ServiceDescriptor expectedService = expected.getServices().get( 0 );
+        assertThat( expectedService.getJavaType().getComment() ).isNotEmpty();
+        assertThat( service.getJavaType().getComment() ).isEqualTo( expectedService.getJavaType().getComment() );
+        assertThat( service.getDescription() ).isEqualTo( expectedService.getDescription() );
+        List<OperationDescriptor> operations = service.getOperations();
+        assertThat( operations ).hasSameSizeAs( expectedService.getOperations() );
+        for ( int i = 0; i < operations.size(); i++ )
+        {
+            OperationDescriptor operation = operations.get( i );
+            OperationDescriptor expectedOperation = expectedService.getOperations().get( i );
+            assertThat( operation.getPath() ).isEqualTo( expectedOperation.getPath() );
+            assertThat( operation.getDescription() ).isEqualTo( expectedOperation.getDescription() );
+            assertThat( operation.getJavaMethod().getByteMethod() ).isEqualTo( expectedOperation.getJavaMethod().getByteMethod() );
+            assertThat( operation.getJavaMethod().getComment() ).isEqualTo( expectedOperation.getJavaMethod().getComment() );
+            assertThat( operation.getJavaMethod().getReturns().getComment() ).isEqualTo( expectedOperation.getJavaMethod().getReturns().getComment() );
+            List<ParameterDescriptor> parameters = operation.getParameters();
+            assertThat( parameters ).hasSameSizeAs( expectedOperation.getParameters() );
+            for ( int j = 0; j < parameters.size(); j++ )
+            {
+                ParameterDescriptor parameter = parameters.get( j );
+                ParameterDescriptor expectedParameter = expectedOperation.getParameters().get( j );
+                assertThat( parameter.getName() ).isEqualTo( expectedParameter.getName() );
+                assertThat( parameter.getExample() ).isEqualTo( expectedParameter.getExample() );
+                assertThat( parameter.getJavaParameter().getByteTypeString() ).isEqualTo( expectedParameter.getJavaParameter().getByteTypeString() );
+                assertThat( parameter.getJavaParameter().getComment() ).isEqualTo( expectedParameter.getJavaParameter().getComment() );
+            }
+            List<ResponseDescriptor> responses = operation.getResponses();
+            assertThat( responses ).hasSameSizeAs( expectedOperation.getResponses() );
+            for ( int j = 0; j < responses.size(); j++ )
+            {
+                ResponseDescriptor response = responses.get( j );
+                ResponseDescriptor expectedResponse = expectedOperation.getResponses().get( j );
+                assertThat( response.getStatusCode() ).isEqualTo( expectedResponse.getStatusCode() );
+                assertThat( response.getExample() ).isEqualTo( expectedResponse.getExample() );
+                assertThat( response.getJavaElement().getByteTypeString() ).isEqualTo( expectedResponse.getJavaElement().getByteTypeString() );
+            }
+        }
+        assertThat( descriptor.getSchemaDefinitionJson() ).isEqualTo( expected.getSchemaDefinitionJson() );
+        assertThat( descriptor.getSchemaDefinitionYaml() ).isEqualTo( expected.getSchemaDefinitionYaml() );
+    }
+
+    /**
+     * Test of {@link Analyzer#createServicesDescriptor(List)} using {@link DemoItemApi} with two schemas of the same
+     * simple name from different packages.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testSchemaNames()
+        throws Exception
+    {
+        // when
+        ServicesDescriptor descriptor = analyze( DemoItemApi.class.getName() );
+        // then
+        List<OperationDescriptor> operations = descriptor.getServices().get( 0 ).getOperations();
+        assertThat( operations ).hasSize( 2 );
+        OperationDescriptor findV1 = operations.get( 0 );
+        OperationDescriptor saveV2 = operations.get( 1 );
+        assertThat( findV1.getJavaMethod().getName() ).isEqualTo( "findItemV1" );
+        assertThat( findV1.getParameters().get( 0 ).getSchemaName() ).isNull();
+        String v1Name = findV1.getResponses().get( 0 ).getSchemaName();
+        String v2Name = saveV2.getResponses().get( 0 ).getSchemaName();
+        assertThat( saveV2.getParameters().get( 0 ).getSchemaName() ).isEqualTo( v2Name );
+        assertThat( v1Name ).isNotEqualTo( v2Name );
+        String v2QualifiedName = org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo.class.getName();
+        assertThat( Arrays.asList( v1Name, v2Name ) ).containsOnly( "DemoItemTo", v2QualifiedName );
+        String json = descriptor.getSchemaDefinitionJson();
+        assertThat( json ).contains( "'" + v1Name + "': {\n" ).contains( "'" + v2Name + "': {\n" );
+        assertThat( getSchema( json, v1Name ) ).contains( "'name'" ).doesNotContain( "'count'" );
+        assertThat( getSchema( json, v2Name ) ).contains( "'count'" ).doesNotContain( "'name'" );
+        String yaml = descriptor.getSchemaDefinitionYaml();
+        assertThat( yaml ).contains( "    " + v1Name + ":\n" ).contains( "    " + v2Name + ":\n" );
+    }
+
+    /**
+     * Test of {@link Analyzer#createServicesDescriptor(List)} using {@link DemoItemApi} that the schema names are
+     * assigned even if no schema definitions are written.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testSchemaNamesWithoutDefinitions()
+        throws Exception
+    {
+        // given
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        builder.addSourceFolder( new File( "src/main/java" ) );
+        builder.addSourceFolder( new File( "src/test/java" ) );
+        Analyzer analyzer = getAnalyzer( builder );
+        analyzer.setSchemaJson( false );
+        analyzer.setSchemaYaml( false );
+        // when
+        JavaClass serviceClass = builder.getClassByName( DemoItemApi.class.getName() );
+        ServicesDescriptor descriptor = analyzer.createServicesDescriptor( Arrays.asList( serviceClass ) );
+        // then
+        assertThat( descriptor.getSchemaDefinitionJson() ).isEmpty();
+        assertThat( descriptor.getSchemaDefinitionYaml() ).isEmpty();
+        List<OperationDescriptor> operations = descriptor.getServices().get( 0 ).getOperations();
+        assertThat( operations.get( 0 ).getResponses().get( 0 ).getSchemaName() ).isEqualTo( "DemoItemTo" );
+        assertThat( operations.get( 1 ).getParameters().get( 0 ).getSchemaName() )
+            .isEqualTo( org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo.class.getName() );
+    }
+
+    private static String getSchema( String json, String schemaName )
+    {
+        String schema = json.substring( json.indexOf( "'" + schemaName + "': {\n" ) );
+        return schema.substring( 0, schema.indexOf( "\n      },\n" ) );
+    }
+
+    /**
+     * Test of {@link Analyzer#createServicesDescriptor(List)} using {@link DemoSearchApi} that the source method of
+     * overloaded operations is found for arrays, varargs and nested types.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testOverloadedOperations()
+        throws Exception
+    {
+        // when
+        ServicesDescriptor descriptor = analyze( DemoSearchApi.class.getName() );
+        // then
+        List<OperationDescriptor> operations = descriptor.getServices().get( 0 ).getOperations();
+        assertThat( operations ).hasSize( 5 );
+        assertThat( getOperation( operations, "/name" ).getDescription() ).isEqualTo( "Searches by name." );
+        assertThat( getOperation( operations, "/ids" ).getDescription() ).isEqualTo( "Searches by ids." );
+        assertThat( getOperation( operations, "/filter" ).getDescription() ).isEqualTo( "Searches by filter." );
+        OperationDescriptor filters = getOperation( operations, "/filters" );
+        assertThat( filters.getDescription() ).isEqualTo( "Searches by any of the filters." );
+        assertThat( filters.getParameters().get( 0 ).getDescription() ).isEqualTo( "the filter criteria." );
+        assertThat( getOperation( operations, "/range" ).getDescription() ).isEqualTo( "Searches by range." );
+    }
+
+    private static OperationDescriptor getOperation( List<OperationDescriptor> operations, String path )
+    {
+        for ( OperationDescriptor operation : operations )
+        {
+            if ( operation.getPath().endsWith( path ) )
+            {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException( path );
+    }
+
+    /**
+     * Test of {@link AnalysisIndex#isSerializable(String)} that only accepts the classes of persisted descriptors.
+     */
+    @Test
+    public void testIncrementalSerializableClasses()
+    {
+        assertThat( AnalysisIndex.isSerializable( ServiceDescriptor.class.getName() ) ).isTrue();
+        assertThat( AnalysisIndex.isSerializable( ErrorDescriptor.Match.class.getName() ) ).isTrue();
+        assertThat( AnalysisIndex.isSerializable( "java.util.ArrayList" ) ).isTrue();
+        assertThat( AnalysisIndex.isSerializable( "[Ljava.lang.String;" ) ).isTrue();
+        assertThat( AnalysisIndex.isSerializable( "[B" ) ).isTrue();
+        assertThat( AnalysisIndex.isSerializable( "java.util.PriorityQueue" ) ).isFalse();
+        assertThat( AnalysisIndex.isSerializable( "[Ljava.lang.Object;" ) ).isFalse();
+        assertThat( AnalysisIndex.isSerializable( Analyzer.class.getName() ) ).isFalse();
+    }
+
+    /**
+     * Test of {@link Analyzer#createServicesDescriptor(List)} using {@link DemoItemCrudApi} that implements a generic
+     * interface so the compiler generates a bridge method with the annotations of its operation that has to be
+     * ignored.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testBridgeMethod()
+        throws Exception
+    {
+        // given
+        Method bridge = DemoItemCrudApi.class.getMethod( "save", Object.class );
+        assertThat( bridge.isBridge() ).isTrue();
+        assertThat( bridge.isAnnotationPresent( POST.class ) ).isTrue();
+        // when
+        ServicesDescriptor descriptor = analyze( DemoItemCrudApi.class.getName() );
+        // then
+        ServiceDescriptor service = descriptor.getServices().get( 0 );
+        assertThat( service.getBasePath() ).isEqualTo( "/crud" );
+        List<OperationDescriptor> operations = service.getOperations();
+        assertThat( operations ).hasSize( 1 );
+        OperationDescriptor operation = operations.get( 0 );
+        assertThat( operation.getHttpMethod() ).isEqualTo( "post" );
+        Method method = operation.getJavaMethod().getByteMethod();
+        assertThat( method.isBridge() ).isFalse();
+        assertThat( method.getParameterTypes() ).containsExactly( DemoItemTo.class );
+        assertThat( operation.getResponses().get( 0 ).getSchemaName() ).isEqualTo( "DemoItemTo" );
+    }
+
+    /**
+     * Test of {@link Analyzer#getJavaScriptType(GenericType, boolean)} classifying the same types twice so the second
+     * time the {@link JavaScriptTypeCache} is used.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testJavaScriptTypeCached()
+        throws Exception
+    {
+        // given
+        Analyzer analyzer = getAnalyzer( new JavaProjectBuilder() );
+        ReflectionUtil reflectionUtil = ReflectionUtilImpl.getInstance();
+        GenericType<?> countType =
+            reflectionUtil.createGenericType( DemoValues.class.getDeclaredField( "count" ).getGenericType() );
+        GenericType<?> labelType =
+            reflectionUtil.createGenericType( DemoValues.class.getDeclaredField( "label" ).getGenericType() );
+        GenericType<?> stringType = reflectionUtil.createGenericType( String.class );
+        for ( int i = 0; i < 2; i++ )
+        {
+            // when + then
+            assertThat( analyzer.getJavaScriptType( countType, true ) ).isEqualTo( JavaScriptType.INTEGER );
+            assertThat( analyzer.getJavaScriptType( labelType, true ) ).isEqualTo( JavaScriptType.STRING );
+            assertThat( analyzer.getJavaScriptType( stringType, true ) ).isEqualTo( JavaScriptType.STRING );
+        }
+    }
+
     private ServicesDescriptor analyze( String className )
         throws Exception
+    {
+        return analyze( className, null );
+    }
+
+    private ServicesDescriptor analyze( String className, AnalysisIndex analysisIndex )
+        throws Exception
     {
         JavaProjectBuilder builder = new JavaProjectBuilder();
         builder.addSourceFolder( new File( "src/main/java" ) );
         builder.addSourceFolder( new File( "src/test/java" ) );
         Analyzer analyzer = getAnalyzer( builder );
+        analyzer.setAnalysisIndex( analysisIndex );
         JavaClass serviceClass = builder.getClassByName( className );
         List<JavaClass> serviceClasses = Arrays.asList( serviceClass );
         return analyzer.createServicesDescriptor( serviceClasses );
     }
+
+    /**
+     * Generic {@link net.sf.mmm.util.lang.api.SimpleDatatype} classified by its value type.
+     *
+     * @param <V> the type of the value.
+     */
+    private abstract static class DemoValue<V>
+        extends AbstractSimpleDatatype<V>
+    {
+
+        private static final long serialVersionUID = 1L;
+
+    }
+
+    /**
+     * Holder of {@link DemoValue}s with different value types.
+     */
+    @SuppressWarnings( "unused" )
+    private static class DemoValues
+    {
+
+        private DemoValue<Long> count;
+
+        private DemoValue<String> label;
+
+    }
+
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.mmm.util.reflect.base.ReflectionUtilImpl;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.descriptor.ErrorDescriptor;
+import org.codehaus.mojo.servicedocgen.descriptor.ErrorDescriptor.Match;
+import org.junit.Test;
+
+/**
+ * Test of {@link ErrorIndex}.
+ *
+ * @author hohwille
+ */
+public class ErrorIndexTest
+    extends Assertions
+{
+
+    private static ErrorDescriptor createError( String errorName, Match match )
+    {
+        ErrorDescriptor errorDescriptor = new ErrorDescriptor();
+        errorDescriptor.setErrorName( errorName );
+        errorDescriptor.setMatch( match );
+        return errorDescriptor;
+    }
+
+    /**
+     * Test of {@link ErrorIndex#get(Class)} resolving the same error classes twice so the second time the cached
+     * match is used.
+     */
+    @Test
+    public void testGetCached()
+    {
+        // given
+        ErrorDescriptor ioError = createError( IOException.class.getName(), Match.assignable );
+        ErrorDescriptor stateError = createError( "IllegalStateException", Match.regex );
+        Map<ErrorDescriptor, Class<?>> errorClasses = new HashMap<ErrorDescriptor, Class<?>>();
+        errorClasses.put( ioError, IOException.class );
+        ErrorIndex errorIndex =
+            new ErrorIndex( Arrays.asList( ioError, stateError ), errorClasses, ReflectionUtilImpl.getInstance() );
+        for ( int i = 0; i < 2; i++ )
+        {
+            // when + then
+            assertThat( errorIndex.get( FileNotFoundException.class ) ).isSameAs( ioError );
+            assertThat( errorIndex.get( IOException.class ) ).isSameAs( ioError );
+            assertThat( errorIndex.get( IllegalStateException.class ) ).isSameAs( stateError );
+            assertThat( errorIndex.get( UnsupportedOperationException.class ) ).isNull();
+        }
+    }
+
+}
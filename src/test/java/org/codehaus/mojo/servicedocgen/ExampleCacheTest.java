@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen;
+
+import java.lang.reflect.Method;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+import net.sf.mmm.util.reflect.api.ReflectionUtil;
+import net.sf.mmm.util.reflect.base.ReflectionUtilImpl;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.example.DemoItemApi;
+import org.codehaus.mojo.servicedocgen.example.DemoSearchApi;
+import org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo;
+import org.junit.Test;
+
+/**
+ * Test of {@link ExampleCache}.
+ *
+ * @author hohwille
+ */
+public class ExampleCacheTest
+    extends Assertions
+{
+
+    /**
+     * Test of {@link ExampleCache} with the same type used by the operations of different services.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testCrossService()
+        throws Exception
+    {
+        // given
+        ReflectionUtil reflectionUtil = ReflectionUtilImpl.getInstance();
+        GenericType<?> itemApiType = reflectionUtil.createGenericType( DemoItemApi.class );
+        GenericType<?> searchApiType = reflectionUtil.createGenericType( DemoSearchApi.class );
+        Method findItem = DemoItemApi.class.getMethod( "findItemV1", long.class );
+        Method search = DemoSearchApi.class.getMethod( "search", DemoSearchApi.Filter.class );
+        GenericType<?> itemType = reflectionUtil.createGenericType( findItem.getGenericReturnType(), itemApiType );
+        GenericType<?> searchType =
+            reflectionUtil.createGenericType( search.getGenericReturnType(), searchApiType ).getTypeArgument( 0 );
+        assertThat( itemType.getAssignmentClass() ).isSameAs( DemoItemTo.class );
+        assertThat( searchType.getAssignmentClass() ).isSameAs( DemoItemTo.class );
+        ExampleCache cache = new ExampleCache();
+        String example = "{\"name\": \"text\"}";
+
+        // when
+        cache.put( itemType, true, JavaScriptType.OBJECT, example );
+
+        // then
+        assertThat( cache.get( itemType, true, JavaScriptType.OBJECT ) ).isEqualTo( example );
+        assertThat( cache.get( searchType, true, JavaScriptType.OBJECT ) ).isEqualTo( example );
+        assertThat( cache.get( searchType, false, JavaScriptType.OBJECT ) ).isNull();
+        GenericType<?> otherType =
+            reflectionUtil.createGenericType( org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo.class );
+        assertThat( cache.get( otherType, true, JavaScriptType.OBJECT ) ).isNull();
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.bytecode;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.example.DemoRestService;
+import org.codehaus.mojo.servicedocgen.introspection.JavaDocHelper;
+import org.junit.Test;
+
+/**
+ * Test of {@link ClassFile} reading annotation types, method names and constants.
+ *
+ * @author hohwille
+ */
+public class ClassFileTest
+    extends Assertions
+{
+
+    /**
+     * Test of {@link ClassFile#getAnnotationTypes()} and {@link ClassFile#getMethodNames(String)} as used to filter
+     * the candidates for service operations via {@link ClassFileCache}.
+     */
+    @Test
+    public void testOperationCandidates()
+    {
+        // given
+        ClassFileCache cache = new ClassFileCache( DemoRestService.class.getClassLoader() );
+        // when
+        ClassFile classFile = cache.get( "org/codehaus/mojo/servicedocgen/example/DemoRestService" );
+        // then
+        assertThat( cache.get( "org/codehaus/mojo/servicedocgen/example/Missing" ) ).isNull();
+        assertThat( classFile.getName() ).isEqualTo( DemoRestService.class.getName() );
+        assertThat( classFile.getAnnotationTypes() ).contains( "Ljavax/ws/rs/Path;" );
+        assertThat( classFile.getMethodNames( "Ljavax/ws/rs/Path;" ) ).contains( "findString", "saveString" );
+        assertThat( classFile.getMethodNames( null ) ).contains( "findString", "testError" );
+    }
+
+    /**
+     * Test of {@link ClassFile#getConstants()}.
+     */
+    @Test
+    public void testConstants()
+    {
+        // given
+        ClassFileCache cache = new ClassFileCache( JavaDocHelper.class.getClassLoader() );
+        // when
+        ClassFile classFile = cache.get( "org/codehaus/mojo/servicedocgen/introspection/JavaDocHelper" );
+        // then
+        assertThat( classFile.getConstants() ).containsEntry( "JAVADOC_JAVASE_URL", JavaDocHelper.JAVADOC_JAVASE_URL )
+            .containsEntry( "TAG_VALUE", "value" ).doesNotContainKey( "JAVADOCS" );
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.classpath;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.example.DemoRestService;
+import org.junit.Test;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+
+/**
+ * Test of {@link ProjectClassLoader} and {@link ProjectClassLoaderCache}.
+ *
+ * @author hohwille
+ */
+public class ProjectClassLoaderTest
+    extends Assertions
+{
+
+    private static final ClassLoader BOOTSTRAP_PARENT = ClassLoader.getSystemClassLoader().getParent();
+
+    private static List<String> getClasspath()
+        throws Exception
+    {
+        String jar = new File( JavaProjectBuilder.class.getProtectionDomain().getCodeSource().getLocation().toURI() ).getPath();
+        return Arrays.asList( new File( "target/test-classes" ).getAbsolutePath(), jar );
+    }
+
+    /**
+     * Test of {@link ProjectClassLoader} loading classes and resources from directories and jar files.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testLoadAndClose()
+        throws Exception
+    {
+        // given
+        ProjectClassLoader classloader = new ProjectClassLoader( getClasspath(), BOOTSTRAP_PARENT );
+        // when
+        Class<?> jarClass = classloader.loadClass( JavaProjectBuilder.class.getName() );
+        Class<?> directoryClass = classloader.loadClass( DemoRestService.class.getName() );
+        URL jarResource = classloader.getResource( "com/thoughtworks/qdox/JavaProjectBuilder.class" );
+        InputStream in = jarResource.openStream();
+        int firstByte = in.read();
+        in.close();
+        // then
+        assertThat( jarClass.getClassLoader() ).isSameAs( classloader );
+        assertThat( jarClass ).isNotSameAs( JavaProjectBuilder.class );
+        assertThat( directoryClass.getClassLoader() ).isSameAs( classloader );
+        assertThat( firstByte ).isEqualTo( 0xCA );
+        assertThat( classloader.getResource( "com/thoughtworks/qdox/Missing.class" ) ).isNull();
+        classloader.close();
+        assertThat( classloader.isClosed() ).isTrue();
+        assertThat( classloader.getResourceAsStream( "com/thoughtworks/qdox/JavaProjectBuilder.class" ) ).isNull();
+    }
+
+    /**
+     * Test of {@link ProjectClassLoader} preserving the order of the classpath and defining classes and packages with
+     * their {@link java.security.CodeSource} and manifest.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testClasspathOrder()
+        throws Exception
+    {
+        // given
+        String className = DemoRestService.class.getName();
+        String resourceName = className.replace( '.', '/' ) + ".class";
+        File directory = new File( "target/test-classes" ).getAbsoluteFile();
+        File jar = new File( "target/classloader-test/order.jar" ).getAbsoluteFile();
+        jar.getParentFile().mkdirs();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+        manifest.getMainAttributes().put( Attributes.Name.IMPLEMENTATION_VERSION, "4.2" );
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ), manifest );
+        out.putNextEntry( new JarEntry( resourceName ) );
+        InputStream in = new FileInputStream( new File( directory, resourceName ) );
+        byte[] buffer = new byte[4096];
+        for ( int count = in.read( buffer ); count >= 0; count = in.read( buffer ) )
+        {
+            out.write( buffer, 0, count );
+        }
+        in.close();
+        out.close();
+        // when
+        ProjectClassLoader jarFirst =
+            new ProjectClassLoader( Arrays.asList( jar.getPath(), directory.getPath() ), BOOTSTRAP_PARENT );
+        ProjectClassLoader directoryFirst =
+            new ProjectClassLoader( Arrays.asList( directory.getPath(), jar.getPath() ), BOOTSTRAP_PARENT );
+        Class<?> jarClass = jarFirst.loadClass( className );
+        Class<?> directoryClass = directoryFirst.loadClass( className );
+        // then
+        assertThat( jarFirst.getResource( resourceName ).getProtocol() ).isEqualTo( "jar" );
+        assertThat( directoryFirst.getResource( resourceName ).getProtocol() ).isEqualTo( "file" );
+        assertThat( jarClass.getProtectionDomain().getCodeSource().getLocation() ).isEqualTo( jar.toURI().toURL() );
+        assertThat( directoryClass.getProtectionDomain().getCodeSource().getLocation() ).isEqualTo( directory.toURI().toURL() );
+        assertThat( jarClass.getPackage().getImplementationVersion() ).isEqualTo( "4.2" );
+        assertThat( directoryClass.getPackage().getImplementationVersion() ).isNull();
+        jarFirst.close();
+        directoryFirst.close();
+    }
+
+    private static void copy( File source, File target )
+        throws Exception
+    {
+        target.getParentFile().mkdirs();
+        InputStream in = new FileInputStream( source );
+        OutputStream out = new FileOutputStream( target );
+        byte[] buffer = new byte[4096];
+        for ( int count = in.read( buffer ); count >= 0; count = in.read( buffer ) )
+        {
+            out.write( buffer, 0, count );
+        }
+        in.close();
+        out.close();
+    }
+
+    /**
+     * Test of {@link ProjectClassLoaderCache#get(String, Object, List, ClassLoader)}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testCache()
+        throws Exception
+    {
+        // given
+        ProjectClassLoaderCache cache = ProjectClassLoaderCache.getInstance();
+        String className = DemoRestService.class.getName();
+        String resourceName = className.replace( '.', '/' ) + ".class";
+        File directory = new File( "target/classloader-test/cache" ).getAbsoluteFile();
+        File preceding = new File( "target/classloader-test/preceding" ).getAbsoluteFile();
+        File classFile = new File( directory, resourceName );
+        File hidingFile = new File( preceding, resourceName );
+        hidingFile.delete();
+        new File( preceding, "org/codehaus/mojo/servicedocgen/example" ).mkdirs();
+        File precedingPackage = hidingFile.getParentFile();
+        // package directory timestamps may be coarse
+        precedingPackage.setLastModified( 1000000000000L );
+        copy( new File( "target/test-classes", resourceName ), classFile );
+        classFile.setLastModified( 1000000000000L );
+        List<String> classpath = Arrays.asList( preceding.getPath(), directory.getPath() );
+        // when
+        ProjectClassLoader classloader1 = cache.get( "test", "session1", classpath, BOOTSTRAP_PARENT );
+        classloader1.loadClass( className );
+        new File( directory, "Unused.class" ).createNewFile();
+        ProjectClassLoader classloader2 = cache.get( "test", "session1", classpath, BOOTSTRAP_PARENT );
+        classFile.setLastModified( 2000000000000L );
+        ProjectClassLoader classloader3 = cache.get( "test", "session1", classpath, BOOTSTRAP_PARENT );
+        classloader3.loadClass( className );
+        copy( classFile, hidingFile );
+        ProjectClassLoader classloader4 = cache.get( "test", "session1", classpath, BOOTSTRAP_PARENT );
+        // then
+        assertThat( classloader2 ).isSameAs( classloader1 );
+        assertThat( classloader3 ).isNotSameAs( classloader1 );
+        assertThat( classloader1.isClosed() ).isTrue();
+        assertThat( classloader4 ).isNotSameAs( classloader3 );
+        assertThat( classloader3.isClosed() ).isTrue();
+        assertThat( classloader4.isClosed() ).isFalse();
+        cache.clear();
+        assertThat( classloader4.isClosed() ).isTrue();
+    }
+
+    /**
+     * Test of {@link ProjectClassLoaderCache#release(Object)}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testCacheRelease()
+        throws Exception
+    {
+        // given
+        ProjectClassLoaderCache cache = ProjectClassLoaderCache.getInstance();
+        List<String> classpath = Arrays.asList( new File( "target/test-classes" ).getAbsolutePath() );
+        ProjectClassLoader removed = cache.get( "removed", "session1", classpath, BOOTSTRAP_PARENT );
+        ProjectClassLoader reused = cache.get( "reused", "session1", classpath, BOOTSTRAP_PARENT );
+        // when
+        assertThat( cache.get( "reused", "session2", classpath, BOOTSTRAP_PARENT ) ).isSameAs( reused );
+        cache.release( "session2" );
+        // then
+        assertThat( removed.isClosed() ).isTrue();
+        assertThat( reused.isClosed() ).isFalse();
+        assertThat( cache.get( "reused", "session3", classpath, BOOTSTRAP_PARENT ) ).isSameAs( reused );
+        assertThat( cache.get( "removed", "session3", classpath, BOOTSTRAP_PARENT ) ).isNotSameAs( removed );
+        cache.clear();
+        assertThat( reused.isClosed() ).isTrue();
+    }
+
+}
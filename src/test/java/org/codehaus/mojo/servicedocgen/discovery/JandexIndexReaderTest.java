@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.ws.rs.Path;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.example.DemoItemApi;
+import org.codehaus.mojo.servicedocgen.example.DemoRestService;
+import org.codehaus.mojo.servicedocgen.example.DemoSearchApi;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.junit.Test;
+
+/**
+ * Test-case for {@link JandexIndexReader} using indexes written by Jandex itself.
+ *
+ * @author hohwille
+ */
+public class JandexIndexReaderTest
+    extends Assertions
+{
+
+    private static final int[] VERSIONS = { 2, 3, 6, 7, 8, 9, 10, 11, 12, 13 };
+
+    /**
+     * Indexes all classes of this project. The index is read back from its serialized form as the index writer
+     * requires the componentized class names created by the index reader.
+     */
+    static Index createIndex()
+        throws IOException
+    {
+        return createIndex( null );
+    }
+
+    /**
+     * @param excludedPrefix the prefix of the class files to exclude or <code>null</code>.
+     */
+    private static Index createIndex( String excludedPrefix )
+        throws IOException
+    {
+        Indexer indexer = new Indexer();
+        addClasses( indexer, new File( "target/classes" ), excludedPrefix );
+        addClasses( indexer, new File( "target/test-classes" ), excludedPrefix );
+        byte[] data = write( indexer.complete(), 13 );
+        return new IndexReader( new ByteArrayInputStream( data ) ).read();
+    }
+
+    private static void addClasses( Indexer indexer, File directory, String excludedPrefix )
+        throws IOException
+    {
+        File[] children = directory.listFiles();
+        if ( children == null )
+        {
+            return;
+        }
+        for ( File file : children )
+        {
+            String name = file.getName();
+            if ( file.isDirectory() )
+            {
+                addClasses( indexer, file, excludedPrefix );
+            }
+            else if ( name.endsWith( ".class" )
+                && ( ( excludedPrefix == null ) || !name.startsWith( excludedPrefix ) ) )
+            {
+                InputStream in = new FileInputStream( file );
+                try
+                {
+                    indexer.index( in );
+                }
+                finally
+                {
+                    in.close();
+                }
+            }
+        }
+    }
+
+    private static Set<String> getAnnotatedClasses( Index index )
+    {
+        Set<String> classes = new TreeSet<String>();
+        for ( AnnotationInstance annotation : index.getAnnotations( DotName.createSimple( Path.class.getName() ) ) )
+        {
+            if ( annotation.target().kind() == AnnotationTarget.Kind.CLASS )
+            {
+                classes.add( annotation.target().asClass().name().toString() );
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * @return the serialized index.
+     */
+    static byte[] write( Index index, int version )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new IndexWriter( out ).write( index, version );
+        return out.toByteArray();
+    }
+
+    /**
+     * Test of {@link JandexIndexReader#readAnnotatedClasses(InputStream, String)} for all supported index versions.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testReadAllVersions()
+        throws Exception
+    {
+        Index index = createIndex();
+        Set<String> expected = getAnnotatedClasses( index );
+        assertThat( expected ).contains( DemoRestService.class.getName(), DemoItemApi.class.getName(),
+                                         DemoSearchApi.class.getName() );
+        // the versions 2 and 3 can not represent the nested types used by DemoSearchApi
+        Index v1Index = createIndex( DemoSearchApi.class.getSimpleName() );
+        Set<String> v1Expected = getAnnotatedClasses( v1Index );
+        assertThat( v1Expected ).contains( DemoRestService.class.getName(), DemoItemApi.class.getName() );
+        for ( int version : VERSIONS )
+        {
+            byte[] data;
+            Set<String> classes;
+            if ( version <= 3 )
+            {
+                data = write( v1Index, version );
+                classes = v1Expected;
+            }
+            else
+            {
+                data = write( index, version );
+                classes = expected;
+            }
+            assertThat( JandexIndexReader.readAnnotatedClasses( new ByteArrayInputStream( data ),
+                                                                Path.class.getName() ) ).as( "version " + version )
+                                                                                        .isEqualTo( classes );
+        }
+    }
+
+    /**
+     * Test of {@link JandexIndexReader#readAnnotatedClasses(InputStream, String)} with invalid input.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testReadInvalid()
+        throws Exception
+    {
+        try
+        {
+            JandexIndexReader.readAnnotatedClasses( new ByteArrayInputStream( new byte[] { 1, 2, 3, 4, 5 } ),
+                                                    Path.class.getName() );
+            fail( "IOException expected" );
+        }
+        catch ( IOException e )
+        {
+            assertThat( e.getMessage() ).contains( "Jandex" );
+        }
+        byte[] unsupported = write( new Indexer().complete(), 13 );
+        unsupported[4] = 99;
+        try
+        {
+            JandexIndexReader.readAnnotatedClasses( new ByteArrayInputStream( unsupported ), Path.class.getName() );
+            fail( "IOException expected" );
+        }
+        catch ( IOException e )
+        {
+            assertThat( e.getMessage() ).contains( "99" );
+        }
+    }
+
+}
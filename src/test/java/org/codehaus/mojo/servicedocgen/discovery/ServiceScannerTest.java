@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.discovery;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.servicedocgen.example.DemoRestService;
+import org.codehaus.mojo.servicedocgen.example.DemoTo;
+import org.junit.Test;
+
+import com.thoughtworks.qdox.model.JavaClass;
+
+/**
+ * Test-case for {@link ServiceScanner}.
+ *
+ * @author hohwille
+ */
+public class ServiceScannerTest
+    extends Assertions
+{
+
+    private static final File EXAMPLE_FOLDER = new File( "src/test/java/org/codehaus/mojo/servicedocgen/example" );
+
+    private static final List<String> SOURCE_ROOTS = Arrays.asList( "src/main/java", "src/test/java" );
+
+    private ServiceScanner createScanner( int threads )
+    {
+        ServiceScanner scanner = new ServiceScanner( new SystemStreamLog(), Pattern.compile( ".*Service.*" ), null );
+        scanner.setThreads( threads );
+        return scanner;
+    }
+
+    private static List<String> getNames( List<JavaClass> types )
+    {
+        List<String> names = new ArrayList<String>( types.size() );
+        for ( JavaClass type : types )
+        {
+            names.add( type.getFullyQualifiedName() );
+        }
+        return names;
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scan(List, String)} with sequential parsing.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanSequential()
+        throws Exception
+    {
+        List<JavaClass> services = createScanner( 1 ).scan( SOURCE_ROOTS, null );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scan(List, String)} with concurrent parsing.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanConcurrent()
+        throws Exception
+    {
+        ServiceScanner scanner = createScanner( 4 );
+        List<JavaClass> services = scanner.scan( SOURCE_ROOTS, null );
+        assertThat( getNames( services ) ).isEqualTo( getNames( createScanner( 1 ).scan( SOURCE_ROOTS, null ) ) );
+        JavaClass service = services.get( 0 );
+        assertThat( service.getMethods() ).isNotEmpty();
+        assertThat( scanner.getBuilder().getClassByName( DemoRestService.class.getName() ) ).isSameAs( service );
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scan(List, String)} with {@link ServiceScanner#setPrefilter(boolean) pre-filtering}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanPrefilter()
+        throws Exception
+    {
+        ServiceScanner scanner = createScanner( 1 );
+        scanner.setPrefilter( true );
+        List<JavaClass> services = scanner.scan( SOURCE_ROOTS, null );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+        // rejected sources are still resolved on demand
+        assertThat( scanner.getBuilder().getClassByName( DemoTo.class.getName() ).getMethods() ).isNotEmpty();
+        ServiceSourceFilter filter = new ServiceSourceFilter( Pattern.compile( ".*Service.*" ), "UTF-8" );
+        assertThat( filter.accept( new File( EXAMPLE_FOLDER, "DemoRestService.java" ) ) ).isTrue();
+        assertThat( filter.accept( new File( EXAMPLE_FOLDER, "DemoTo.java" ) ) ).isFalse();
+        assertThat( filter.accept( new File( "src/main/java/org/codehaus/mojo/servicedocgen/generation/"
+            + "ServicesGenerator.java" ) ) ).isFalse();
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scanClasses(List, File)}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanClasses()
+        throws Exception
+    {
+        ServiceScanner scanner = createScanner( 1 );
+        List<JavaClass> services = scanner.scanClasses( SOURCE_ROOTS, new File( "target/test-classes" ) );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+        // resolved from source-code including javadoc
+        assertThat( services.get( 0 ).getComment() ).isNotEmpty();
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scanIndex(List, File)}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanIndex()
+        throws Exception
+    {
+        File indexFile = new File( "target/jandex-test/" + JandexIndexReader.INDEX_PATH );
+        indexFile.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream( indexFile );
+        try
+        {
+            out.write( JandexIndexReaderTest.write( JandexIndexReaderTest.createIndex(), 13 ) );
+        }
+        finally
+        {
+            out.close();
+        }
+        ServiceScanner scanner = createScanner( 1 );
+        List<JavaClass> services = scanner.scanIndex( SOURCE_ROOTS, indexFile );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+        assertThat( services.get( 0 ).getComment() ).isNotEmpty();
+        // the index contains further classes annotated with @Path not matching the classname pattern
+        scanner = new ServiceScanner( new SystemStreamLog(), Pattern.compile( "Demo.*" ), null );
+        scanner.setPackageFilter( new PackageFilter( null, Arrays.asList( "**/example" ) ) );
+        assertThat( scanner.scanIndex( SOURCE_ROOTS, indexFile ) ).isEmpty();
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scan(List, String)} with {@link ServiceScanner#setIndexFile(File) incremental
+     * discovery}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanIncremental()
+        throws Exception
+    {
+        File indexFile = new File( "target/servicedocgen-test/discovery.idx" );
+        indexFile.delete();
+        ServiceScanner scanner = createScanner( 1 );
+        scanner.setIndexFile( indexFile );
+        List<JavaClass> services = scanner.scan( SOURCE_ROOTS, null );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+        assertThat( indexFile ).isFile();
+        DiscoveryIndex index = new DiscoveryIndex( indexFile, scanner.getIndexKey() );
+        index.load();
+        File serviceFile = new File( EXAMPLE_FOLDER, "DemoRestService.java" );
+        assertThat( index.getServiceClassNames( serviceFile ) ).containsExactly( DemoRestService.class.getName() );
+        assertThat( index.getServiceClassNames( new File( EXAMPLE_FOLDER, "DemoTo.java" ) ) ).isEmpty();
+        // a file deleted during the scan is dropped instead of failing
+        File deletedFile = new File( EXAMPLE_FOLDER, "Deleted.java" );
+        index.put( deletedFile, Collections.<String> emptyList() );
+        assertThat( index.getServiceClassNames( deletedFile ) ).isNull();
+        // second scan reuses the index
+        scanner = createScanner( 4 );
+        scanner.setIndexFile( indexFile );
+        services = scanner.scan( SOURCE_ROOTS, null );
+        assertThat( getNames( services ) ).containsExactly( DemoRestService.class.getName() );
+        assertThat( services.get( 0 ).getMethods() ).isNotEmpty();
+    }
+
+    /**
+     * Test of {@link ServiceScanner#scan(List, String)} with a {@link PackageFilter}.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    @Test
+    public void testScanPackageFilter()
+        throws Exception
+    {
+        ServiceScanner scanner = createScanner( 1 );
+        scanner.setPackageFilter( new PackageFilter( null, Arrays.asList( "**/example/**" ) ) );
+        assertThat( scanner.scan( SOURCE_ROOTS, null ) ).isEmpty();
+        scanner = createScanner( 1 );
+        scanner.setPackageFilter( new PackageFilter( Arrays.asList( "org.codehaus.mojo.*.example" ), null ) );
+        assertThat( getNames( scanner.scan( SOURCE_ROOTS, null ) ) ).containsExactly( DemoRestService.class.getName() );
+        PackageFilter filter = new PackageFilter( Arrays.asList( "com/*/api/**" ), Arrays.asList( "**/internal/**" ) );
+        assertThat( filter.isTraversable( "com" ) ).isTrue();
+        assertThat( filter.isTraversable( "org" ) ).isFalse();
+        assertThat( filter.isTraversable( "com/foo/api/internal" ) ).isFalse();
+        assertThat( filter.isIncluded( "com/foo" ) ).isFalse();
+        assertThat( filter.isIncluded( "com/foo/api" ) ).isTrue();
+        assertThat( filter.isIncluded( "com/foo/api/v1" ) ).isTrue();
+        assertThat( filter.isIncluded( "com/foo/api/internal" ) ).isFalse();
+    }
+
+}
@@ -0,0 +1,20 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example;
+
+/**
+ * Generic API implemented by {@link DemoItemCrudApi}.
+ *
+ * @param <T> the type of the saved transfer-object.
+ * @author hohwille
+ */
+public interface DemoCrudApi<T>
+{
+
+    /**
+     * @param object the transfer-object to save.
+     * @return the saved transfer-object.
+     */
+    T save( T object );
+
+}
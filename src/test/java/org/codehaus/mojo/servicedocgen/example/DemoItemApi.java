@@ -0,0 +1,41 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo;
+
+/**
+ * REST API using two transfer-objects with the same simple name from different packages.
+ *
+ * @author hohwille
+ */
+@Path( "/items" )
+@Produces( MediaType.APPLICATION_JSON )
+public interface DemoItemApi
+{
+
+    /**
+     * @param id the primary key of the requested item.
+     * @return the item in version 1.
+     */
+    @GET
+    @Path( "/v1/{id}" )
+    DemoItemTo findItemV1( @PathParam( "id" ) long id );
+
+    /**
+     * @param item the item to save.
+     * @return the saved item in version 2.
+     */
+    @POST
+    @Path( "/v2" )
+    org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo saveItemV2(
+        org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo item );
+
+}
@@ -0,0 +1,37 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo;
+
+/**
+ * REST API implementing the generic {@link DemoCrudApi} for {@link DemoItemTo}. The compiler generates a bridge method
+ * <code>save(Object)</code> for {@link #save(DemoItemTo)} that also carries its annotations.
+ *
+ * @author hohwille
+ */
+@Path( "/crud" )
+@Consumes( MediaType.APPLICATION_JSON )
+@Produces( MediaType.APPLICATION_JSON )
+public class DemoItemCrudApi
+    implements DemoCrudApi<DemoItemTo>
+{
+
+    /**
+     * @param object the item to save.
+     * @return the saved item.
+     */
+    @POST
+    @Override
+    public DemoItemTo save( DemoItemTo object )
+    {
+        return object;
+    }
+
+}
@@ -0,0 +1,128 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example;
+
+import java.util.List;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo;
+
+/**
+ * REST API with overloaded operations using arrays, varargs and nested transfer-objects.
+ *
+ * @author hohwille
+ */
+@Path( "/search" )
+@Consumes( MediaType.APPLICATION_JSON )
+@Produces( MediaType.APPLICATION_JSON )
+public interface DemoSearchApi
+{
+
+    /**
+     * Searches by name.
+     *
+     * @param name the name to search for.
+     * @return the matching items.
+     */
+    @GET
+    @Path( "/name" )
+    List<DemoItemTo> search( @QueryParam( "name" ) String name );
+
+    /**
+     * Searches by ids.
+     *
+     * @param ids the primary keys to search for.
+     * @return the matching items.
+     */
+    @GET
+    @Path( "/ids" )
+    List<DemoItemTo> search( @QueryParam( "id" ) long[] ids );
+
+    /**
+     * Searches by filter.
+     *
+     * @param filter the filter criteria.
+     * @return the matching items.
+     */
+    @POST
+    @Path( "/filter" )
+    List<DemoItemTo> search( Filter filter );
+
+    /**
+     * Searches by any of the filters.
+     *
+     * @param filters the filter criteria.
+     * @return the matching items.
+     */
+    @POST
+    @Path( "/filters" )
+    List<DemoItemTo> search( Filter... filters );
+
+    /**
+     * Searches by range.
+     *
+     * @param range the range criteria.
+     * @return the matching items.
+     */
+    @POST
+    @Path( "/range" )
+    List<DemoItemTo> search( Filter.Range range );
+
+    /**
+     * Search criteria of {@link DemoSearchApi}.
+     */
+    public static class Filter
+    {
+
+        private String name;
+
+        /**
+         * @return the name to search for.
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * @param name is the name to set.
+         */
+        public void setName( String name )
+        {
+            this.name = name;
+        }
+
+        /**
+         * Range criteria of a {@link Filter}.
+         */
+        public static class Range
+        {
+
+            private int min;
+
+            /**
+             * @return the lower bound.
+             */
+            public int getMin()
+            {
+                return this.min;
+            }
+
+            /**
+             * @param min is the min to set.
+             */
+            public void setMin( int min )
+            {
+                this.min = min;
+            }
+        }
+    }
+
+}
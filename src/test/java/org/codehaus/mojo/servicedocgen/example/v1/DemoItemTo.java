@@ -0,0 +1,31 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example.v1;
+
+/**
+ * Item in version 1 that has the same simple name as {@link org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo}.
+ *
+ * @author hohwille
+ */
+public class DemoItemTo
+{
+
+    private String name;
+
+    /**
+     * @return the name
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * @param name is the name to set
+     */
+    public void setName( String name )
+    {
+        this.name = name;
+    }
+
+}
@@ -0,0 +1,31 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package org.codehaus.mojo.servicedocgen.example.v2;
+
+/**
+ * Item in version 2 that has the same simple name as {@link org.codehaus.mojo.servicedocgen.example.v1.DemoItemTo}.
+ *
+ * @author hohwille
+ */
+public class DemoItemTo
+{
+
+    private int count;
+
+    /**
+     * @return the count
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @param count is the count to set
+     */
+    public void setCount( int count )
+    {
+        this.count = count;
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.codehaus.mojo.servicedocgen.introspection;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sf.mmm.util.reflect.api.GenericType;
+import net.sf.mmm.util.reflect.base.ReflectionUtilImpl;
+
+import org.codehaus.mojo.servicedocgen.descriptor.JavaDocDescriptor;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.DocletTag;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaSource;
+
+/**
+ * Micro-benchmark of {@link JavaDocHelper#renderJavaDoc(JavaClass, GenericType, String)} against the previous
+ * implementation based on a regular expression. The corpus are the JavaDoc comments (and tags) of the sources of this
+ * project. This is not a test-case and is not run by the build. Run the main method from the project directory after
+ * <code>mvn test-compile</code>.
+ *
+ * @author hohwille
+ */
+public class JavaDocHelperBenchmark
+{
+
+    private static final Pattern PATTERN_JAVADOC_TAG = Pattern.compile( "\\{@([a-zA-Z]+) ([^}]*)\\}" );
+
+    private static final int WARMUP_ROUNDS = 20;
+
+    private static final int ROUNDS = 50;
+
+    private final JavaDocHelper helper;
+
+    private final List<JavaClass> sourceTypes;
+
+    private final List<String> comments;
+
+    private final GenericType<?> byteType;
+
+    /**
+     * The constructor.
+     */
+    public JavaDocHelperBenchmark()
+    {
+        super();
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        builder.addSourceTree( new File( "src/main/java" ) );
+        builder.addSourceTree( new File( "src/test/java" ) );
+        this.helper =
+            new JavaDocHelper( Thread.currentThread().getContextClassLoader(), builder,
+                               Collections.<JavaDocDescriptor> emptyList() );
+        this.byteType = ReflectionUtilImpl.getInstance().createGenericType( JavaDocHelperBenchmark.class );
+        this.sourceTypes = new ArrayList<JavaClass>();
+        this.comments = new ArrayList<String>();
+        for ( JavaSource source : builder.getSources() )
+        {
+            for ( JavaClass sourceType : source.getClasses() )
+            {
+                addComments( sourceType );
+            }
+        }
+    }
+
+    private void addComments( JavaClass sourceType )
+    {
+        add( sourceType, sourceType.getComment() );
+        for ( JavaMethod method : sourceType.getMethods() )
+        {
+            add( sourceType, method.getComment() );
+            for ( DocletTag tag : method.getTags() )
+            {
+                add( sourceType, tag.getValue() );
+            }
+        }
+        for ( JavaField field : sourceType.getFields() )
+        {
+            add( sourceType, field.getComment() );
+        }
+        for ( JavaClass nestedType : sourceType.getNestedClasses() )
+        {
+            addComments( nestedType );
+        }
+    }
+
+    private void add( JavaClass sourceType, String comment )
+    {
+        if ( ( comment != null ) && !comment.isEmpty() )
+        {
+            this.sourceTypes.add( sourceType );
+            this.comments.add( comment );
+        }
+    }
+
+    /**
+     * The previous implementation of {@link JavaDocHelper#renderJavaDoc(JavaClass, GenericType, String)}.
+     */
+    private String renderWithRegex( JavaClass sourceType, String javadoc )
+    {
+        String comment = javadoc.trim().replace( "\n", " " ).replace( "\r", "" );
+        Matcher matcher = PATTERN_JAVADOC_TAG.matcher( comment );
+        StringBuffer buffer = new StringBuffer();
+        while ( matcher.find() )
+        {
+            String replacement =
+                this.helper.resolveTag( sourceType, this.byteType, matcher.group( 1 ), matcher.group( 2 ) );
+            matcher.appendReplacement( buffer, Matcher.quoteReplacement( replacement ) );
+        }
+        matcher.appendTail( buffer );
+        return buffer.toString();
+    }
+
+    private long runRegex()
+    {
+        long length = 0;
+        for ( int i = 0; i < this.comments.size(); i++ )
+        {
+            length += renderWithRegex( this.sourceTypes.get( i ), this.comments.get( i ) ).length();
+        }
+        return length;
+    }
+
+    private long runScanner()
+    {
+        long length = 0;
+        for ( int i = 0; i < this.comments.size(); i++ )
+        {
+            String html = this.helper.renderJavaDoc( this.sourceTypes.get( i ), this.byteType, this.comments.get( i ) );
+            length += html.length();
+        }
+        return length;
+    }
+
+    private int countDifferences()
+    {
+        int differences = 0;
+        for ( int i = 0; i < this.comments.size(); i++ )
+        {
+            JavaClass sourceType = this.sourceTypes.get( i );
+            String comment = this.comments.get( i );
+            String html = this.helper.renderJavaDoc( sourceType, this.byteType, comment );
+            if ( !renderWithRegex( sourceType, comment ).equals( html ) )
+            {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Runs the benchmark.
+     */
+    public void run()
+    {
+        if ( this.comments.isEmpty() )
+        {
+            System.out.println( "No comments found - run from the project directory." );
+            return;
+        }
+        System.out.println( "Corpus: " + this.comments.size() + " comments, " + countDifferences()
+            + " rendered differently (nested braces)" );
+        long checksum = 0;
+        for ( int i = 0; i < WARMUP_ROUNDS; i++ )
+        {
+            checksum += runRegex() + runScanner();
+        }
+        long regexTime = 0;
+        long scannerTime = 0;
+        for ( int i = 0; i < ROUNDS; i++ )
+        {
+            long start = System.nanoTime();
+            checksum += runRegex();
+            regexTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            checksum += runScanner();
+            scannerTime += System.nanoTime() - start;
+        }
+        long total = (long) ROUNDS * this.comments.size();
+        System.out.println( "regex:   " + ( regexTime / total ) + " ns/comment" );
+        System.out.println( "scanner: " + ( scannerTime / total ) + " ns/comment" );
+        System.out.println( "(checksum " + checksum + ")" );
+    }
+
+    /**
+     * @param args the command-line arguments (ignored).
+     */
+    public static void main( String[] args )
+    {
+        new JavaDocHelperBenchmark().run();
+    }
+
+}
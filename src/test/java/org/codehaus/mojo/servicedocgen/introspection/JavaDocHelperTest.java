@@ -21,7 +21,9 @@ package org.codehaus.mojo.servicedocgen.introspection;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.ws.rs.core.UriInfo;
 
@@ -142,6 +144,18 @@ public class JavaDocHelperTest
         assertThat( parsedJavaDoc ).isEqualTo( expected );
     }
 
+    /**
+     * Test of {@code Map<String, {a}>} with nested braces in
+     * code tag.
+     */
+    @Test
+    public void testCodeWithNestedBraces()
+    {
+        String parsedJavaDoc = parseMethodJavaDoc( "testCodeWithNestedBraces" );
+        String expected = "Test of <code>Map<String, {a}></code> with nested braces in code tag.";
+        assertThat( parsedJavaDoc ).isEqualTo( expected );
+    }
+
     /**
      * Test of {@literal JavaDocHelper.parseJavaDoc<JavaClass, GenericType, String>} with literal tag.
      */
@@ -164,4 +178,85 @@ public class JavaDocHelperTest
         String expected = "Test with value tag " + JAVADOC_URL + " and " + JavaDocHelper.JAVADOC_JAVASE_URL + ".";
         assertThat( parsedJavaDoc ).isEqualTo( expected );
     }
+
+    /**
+     * Test of {@link JavaDocHelper#collectValueReferences(JavaClass, String, java.util.Collection)} with the value
+     * tags of {@link #testValue()}.
+     */
+    @Test
+    public void testValueReferences()
+    {
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        JavaDocHelper helper = createJavaDocHelper( builder );
+        JavaClass sourceClass = builder.getClassByName( JavaDocHelperTest.class.getName() );
+        List<JavaType> emptyList = Collections.emptyList();
+        JavaMethod sourceMethod = sourceClass.getMethod( "testValue", emptyList, false );
+        Set<String> classNames = new HashSet<String>();
+        helper.collectValueReferences( sourceClass, sourceMethod.getComment(), classNames );
+        assertThat( classNames ).containsOnly( JavaDocHelper.class.getName() );
+    }
+
+    /**
+     * Test of {@link JavaDocHelper#findJavaDocUrl(String)} for the predefined package prefixes of the JDK.
+     */
+    @Test
+    public void testJavaDocUrlPredefined()
+    {
+        JavaDocHelper helper = createJavaDocHelper( new JavaProjectBuilder() );
+        assertThat( helper.findJavaDocUrl( "java.util.List" ) ).isEqualTo( JavaDocHelper.JAVADOC_JAVASE_URL );
+        assertThat( helper.findJavaDocUrl( "javax.ws.rs.core.UriInfo" ) ).isEqualTo( JavaDocHelper.JAVADOC_JAVAEE_URL );
+        assertThat( helper.findJavaDocUrl( "javax.xml.bind.JAXBElement" ) ).isEqualTo( JavaDocHelper.JAVADOC_JAVASE_URL );
+        assertThat( helper.findJavaDocUrl( "javax.management.j2ee.Management" ) ).isEqualTo( JavaDocHelper.JAVADOC_JAVAEE_URL );
+        assertThat( helper.findJavaDocUrl( "javafx.scene.Node" ) ).isEqualTo( "https://docs.oracle.com/javafx/2/api/" );
+        // prefixes only match entire segments
+        assertThat( helper.findJavaDocUrl( "javaxyz.Foo" ) ).isEqualTo( JAVADOC_URL + "/" );
+    }
+
+    /**
+     * Test of {@link JavaDocHelper#findJavaDocUrl(String)} with configured package prefixes overriding others.
+     */
+    @Test
+    public void testJavaDocUrlLongestPrefix()
+    {
+        String exampleUrl = "http://localhost/example/";
+        String jaxRsUrl = "http://localhost/jax-rs/";
+        JavaDocHelper helper =
+            new JavaDocHelper( Thread.currentThread().getContextClassLoader(), new JavaProjectBuilder(),
+                               Arrays.asList( new JavaDocDescriptor( "org.codehaus.mojo", JAVADOC_URL ),
+                                              new JavaDocDescriptor( "org.codehaus.mojo.servicedocgen.example",
+                                                                     exampleUrl ),
+                                              new JavaDocDescriptor( "javax.ws", jaxRsUrl ) ) );
+        assertThat( helper.findJavaDocUrl( "org.codehaus.mojo.servicedocgen.example.DemoTo" ) ).isEqualTo( exampleUrl );
+        assertThat( helper.findJavaDocUrl( "org.codehaus.mojo.servicedocgen.Analyzer" ) ).isEqualTo( JAVADOC_URL + "/" );
+        assertThat( helper.findJavaDocUrl( "javax.ws.rs.core.UriInfo" ) ).isEqualTo( jaxRsUrl );
+        assertThat( helper.findJavaDocUrl( "javax.inject.Inject" ) ).isEqualTo( JavaDocHelper.JAVADOC_JAVAEE_URL );
+        assertThat( helper.findJavaDocUrl( "org.codehaus.plexus.Foo" ) ).isNull();
+    }
+
+    /**
+     * Test of {@link JavaDocHelper#parseJavaDoc(JavaClass, GenericType, String)} parsing the same comment twice and in
+     * the context of different source types.
+     */
+    @Test
+    public void testParseJavaDocCached()
+    {
+        JavaProjectBuilder builder = new JavaProjectBuilder();
+        JavaDocHelper helper = createJavaDocHelper( builder );
+        String javadoc = "The {@link DemoItemTo item}.";
+        JavaClass itemApi = builder.getClassByName( "org.codehaus.mojo.servicedocgen.example.DemoItemApi" );
+        JavaClass itemV2 = builder.getClassByName( "org.codehaus.mojo.servicedocgen.example.v2.DemoItemTo" );
+        GenericType<?> byteType = ReflectionUtilImpl.getInstance().createGenericType( Object.class );
+        // when
+        String parsed1 = helper.parseJavaDoc( itemApi, byteType, javadoc );
+        String parsed2 = helper.parseJavaDoc( itemApi, byteType, javadoc );
+        String parsedV2 = helper.parseJavaDoc( itemV2, byteType, javadoc );
+        // then
+        String expected =
+            "The <code><a href='" + JAVADOC_URL + "/org/codehaus/mojo/servicedocgen/example/v1/DemoItemTo.html'>"
+                + "item</a></code>.";
+        assertThat( parsed1 ).isEqualTo( expected );
+        assertThat( parsed2 ).isSameAs( parsed1 );
+        assertThat( parsedV2 ).isEqualTo( expected.replace( "/v1/", "/v2/" ) );
+        assertThat( helper.parseJavaDoc( itemV2, byteType, javadoc ) ).isSameAs( parsedV2 );
+    }
 }